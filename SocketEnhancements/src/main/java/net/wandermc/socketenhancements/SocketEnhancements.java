@@ -18,17 +18,42 @@
 package net.wandermc.socketenhancements;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.HandlerList;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.plugin.ServicesManager;
 import org.bukkit.plugin.ServicePriority;
 
+import net.wandermc.socketenhancements.audit.AuditLog;
 import net.wandermc.socketenhancements.binding.OrbOfBindingManager;
 import net.wandermc.socketenhancements.commands.*;
 import net.wandermc.socketenhancements.enhancement.*;
+import net.wandermc.socketenhancements.instrument.Probe;
+import net.wandermc.socketenhancements.instrument.jfr.JfrInterceptor;
+import net.wandermc.socketenhancements.instrument.trace.DecisionTrace;
+import net.wandermc.socketenhancements.instrument.trace.DecisionTraceInterceptor;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.metrics.ActivationHeatmap;
+import net.wandermc.socketenhancements.metrics.EnhancementMetrics;
+import net.wandermc.socketenhancements.metrics.PrometheusExporter;
+import net.wandermc.socketenhancements.profiler.SamplingProfiler;
+import net.wandermc.socketenhancements.recording.EventRecorder;
+import net.wandermc.socketenhancements.registration.EnhancementEntry;
+import net.wandermc.socketenhancements.stats.ItemActivationStats;
+import net.wandermc.socketenhancements.util.state.PlayerStateStore;
+import net.wandermc.socketenhancements.watchdog.EnhancementWatchdog;
 
 /**
  * SocketEnhancements: a gear enhancement plugin for PaperMC servers.
@@ -36,26 +61,53 @@ import net.wandermc.socketenhancements.item.EnhancedItemForge;
 public class SocketEnhancements extends JavaPlugin {
     private EnhancementManager enhancementManager;
     private EnhancedItemForge enhancedItemForge;
+    private EmptySocket emptySocket;
+
+    // The configuration currently applied, replaced by reloadConfigs()
+    private YamlConfiguration socketsConfig;
+    private YamlConfiguration enhancementsConfig;
+    private LinkedHashMap<String, EnhancementEntry> builtIns;
+    // Registered core enhancements, by configuration section name
+    private final HashMap<String, Enhancement> registered = new HashMap<>();
 
     private OrbOfBindingManager orbOfBindingManager;
     private EnhancementTableManager enhancementTableManager;
     private EnhancementGemManager enhancementGemManager;
 
+    private EnhancementMetrics enhancementMetrics;
+    private PrometheusExporter prometheusExporter;
+    private ActivationHeatmap activationHeatmap;
+    private JfrInterceptor jfrInterceptor;
+    private DecisionTraceInterceptor decisionTraceInterceptor;
+    private EnhancementWatchdog enhancementWatchdog;
+    private EventRecorder eventRecorder;
+    private SamplingProfiler samplingProfiler;
+    private ItemActivationStats itemActivationStats;
+    private PlayerStateStore playerStateStore;
+    private AuditLog auditLog;
+
     public void onEnable() {
+        File configFile = new File(getDataFolder(), "config.yml");
+        if (!configFile.exists())
+            saveResource("config.yml", false);
+        YamlConfiguration config = YamlConfiguration
+            .loadConfiguration(configFile);
+
         File socketsFile = new File(getDataFolder(), "sockets.yml");
         if (!socketsFile.exists())
             saveResource("sockets.yml", false);
-        YamlConfiguration socketsConfig = YamlConfiguration
-            .loadConfiguration(socketsFile);
+        this.socketsConfig = YamlConfiguration.loadConfiguration(socketsFile);
 
         File enhancementsFile = new File(getDataFolder(), "enhancements.yml");
         if (!enhancementsFile.exists())
             saveResource("enhancements.yml", false);
-        YamlConfiguration enhancementsConfig = YamlConfiguration
+        this.enhancementsConfig = YamlConfiguration
             .loadConfiguration(enhancementsFile);
 
-        this.enhancementManager = new EnhancementManager(this,
-            new EmptySocket(socketsConfig));
+        this.emptySocket = new EmptySocket(socketsConfig);
+        this.enhancementManager = new EnhancementManager(this, emptySocket,
+            new EnhancementRegistry(new File(getDataFolder(), "registry.yml"),
+            getLogger()));
         this.enhancedItemForge = new EnhancedItemForge(this,
             enhancementManager, socketsConfig);
 
@@ -65,29 +117,431 @@ public class SocketEnhancements extends JavaPlugin {
         servicesManager.register(EnhancedItemForge.class, enhancedItemForge,
             this, ServicePriority.Highest);
 
+        ConfigurationSection playerStateConfig = nsConfig(config
+            .getConfigurationSection("player_state"));
+        long stateFlushTicks = playerStateConfig.getLong(
+            "flush_interval_ticks", 100);
+        if (stateFlushTicks < 1)
+            stateFlushTicks = 100;
+        this.playerStateStore = new PlayerStateStore(this,
+            new File(getDataFolder(), "players"), stateFlushTicks);
+        servicesManager.register(PlayerStateStore.class, playerStateStore,
+            this, ServicePriority.Highest);
+
+        // Must be set up before any enhancements are registered
+        // The watchdog comes first so it wraps everything else, dropped
+        // invocations are then never seen by instrumentation.
+        ConfigurationSection watchdogConfig = nsConfig(config
+            .getConfigurationSection("watchdog"));
+        if (watchdogConfig.getBoolean("enabled", true)) {
+            this.enhancementWatchdog = new EnhancementWatchdog(this,
+                watchdogConfig);
+            enhancementManager.addInterceptor(enhancementWatchdog);
+        }
+
+        ConfigurationSection instrumentationConfig = nsConfig(config
+            .getConfigurationSection("instrumentation"));
+        int traceBufferSize = 0;
+        if (instrumentationConfig.getBoolean("enabled", true)) {
+            this.enhancementMetrics = new EnhancementMetrics(this);
+            enhancementManager.addInterceptor(enhancementMetrics);
+            Probe.install(enhancementMetrics);
+
+            ConfigurationSection prometheusConfig = nsConfig(
+                instrumentationConfig.getConfigurationSection("prometheus"));
+            if (prometheusConfig.getBoolean("enabled", false))
+                startPrometheusExporter(prometheusConfig);
+
+            if (instrumentationConfig.getBoolean("jfr_events", true)) {
+                this.jfrInterceptor = new JfrInterceptor();
+                enhancementManager.addInterceptor(jfrInterceptor);
+                Probe.install(jfrInterceptor);
+            }
+
+            // Costs a single volatile read while nobody is traced
+            this.decisionTraceInterceptor = new DecisionTraceInterceptor();
+            enhancementManager.addInterceptor(decisionTraceInterceptor);
+            Probe.install(decisionTraceInterceptor);
+            traceBufferSize = instrumentationConfig.getInt(
+                "trace_buffer_size", 256);
+            if (traceBufferSize < 1)
+                traceBufferSize = 256;
+
+            ConfigurationSection heatmapConfig = nsConfig(
+                instrumentationConfig.getConfigurationSection("heatmap"));
+            if (heatmapConfig.getBoolean("enabled", false)) {
+                this.activationHeatmap = new ActivationHeatmap(this,
+                    heatmapConfig);
+                enhancementManager.addInterceptor(activationHeatmap);
+                Probe.install(activationHeatmap);
+            }
+        }
+        // Idle until /sea profile is used
+        this.samplingProfiler = new SamplingProfiler(this, nsConfig(
+            instrumentationConfig.getConfigurationSection("profiler")));
+
+        // Last, so only handlers themselves are timed
+        ConfigurationSection recorderConfig = nsConfig(config
+            .getConfigurationSection("recorder"));
+        if (recorderConfig.getBoolean("enabled", true)) {
+            this.eventRecorder = new EventRecorder(this, enhancedItemForge,
+                recorderConfig);
+            enhancementManager.addInterceptor(eventRecorder);
+        }
+
+        this.builtIns = builtInEnhancements();
         registerEnhancements(nsConfig(enhancementsConfig
             .getConfigurationSection("enhancements")));
 
-        getCommand("sea").setExecutor(
-            new SeaCommand(enhancementManager, enhancedItemForge));
+        if (!checkSharedRegistry(nsConfig(config
+            .getConfigurationSection("registry")))) {
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+
+        ConfigurationSection activationStatsConfig = nsConfig(config
+            .getConfigurationSection("activation_stats"));
+        if (activationStatsConfig.getBoolean("enabled", false)) {
+            this.itemActivationStats = new ItemActivationStats(this,
+                enhancementManager, enhancedItemForge, activationStatsConfig);
+            Probe.install(itemActivationStats);
+        }
+
+        this.auditLog = new AuditLog(this, enhancedItemForge, nsConfig(config
+            .getConfigurationSection("audit")));
+
+        SeaCommand seaCommand = new SeaCommand(enhancementManager,
+            enhancedItemForge, auditLog);
+        if (enhancementMetrics != null)
+            seaCommand.addSubcommand(new StatsCommand(enhancementMetrics));
+        if (enhancementWatchdog != null)
+            seaCommand.addSubcommand(new WatchdogCommand(enhancementWatchdog));
+        if (eventRecorder != null)
+            seaCommand.addSubcommand(new RecordCommand(eventRecorder));
+        if (activationHeatmap != null)
+            seaCommand.addSubcommand(new HeatmapCommand(this,
+                activationHeatmap));
+        if (itemActivationStats != null)
+            seaCommand.addSubcommand(new InspectCommand(enhancedItemForge,
+                itemActivationStats));
+        if (decisionTraceInterceptor != null)
+            seaCommand.addSubcommand(new TraceCommand(this,
+                enhancementManager, traceBufferSize));
+        seaCommand.addSubcommand(new ProfileCommand(samplingProfiler));
+        seaCommand.addSubcommand(new RegistryCommand(this,
+            enhancementManager));
+        seaCommand.addSubcommand(new ReloadCommand(this));
+        if (auditLog.isEnabled())
+            seaCommand.addSubcommand(new AuditCommand(auditLog));
+        getCommand("sea").setExecutor(seaCommand);
 
         ConfigurationSection orbsConfig = nsConfig(socketsConfig
             .getConfigurationSection("orbs_of_binding"));
         if (orbsConfig.getBoolean("enabled", true))
             this.orbOfBindingManager = new OrbOfBindingManager(this,
-                enhancedItemForge, orbsConfig);
+                enhancedItemForge, auditLog, orbsConfig);
 
         ConfigurationSection tablesConfig = nsConfig(enhancementsConfig
             .getConfigurationSection("enhancement_tables"));
         if (tablesConfig.getBoolean("enabled", true))
             this.enhancementTableManager = new EnhancementTableManager(this,
-                enhancementManager, enhancedItemForge, tablesConfig);
+                enhancementManager, enhancedItemForge, auditLog, tablesConfig);
 
         ConfigurationSection gemConfig = nsConfig(enhancementsConfig
             .getConfigurationSection("enhancement_gems"));
         if (gemConfig.getBoolean("enabled", true))
             this.enhancementGemManager = new EnhancementGemManager(this,
-                enhancedItemForge, gemConfig);
+                enhancedItemForge, auditLog, gemConfig);
+    }
+
+    public void onDisable() {
+        if (prometheusExporter != null)
+            prometheusExporter.stop();
+        if (enhancementMetrics != null)
+            Probe.uninstall(enhancementMetrics);
+        if (jfrInterceptor != null)
+            Probe.uninstall(jfrInterceptor);
+        if (activationHeatmap != null)
+            Probe.uninstall(activationHeatmap);
+        if (eventRecorder != null)
+            eventRecorder.stop();
+        if (itemActivationStats != null) {
+            itemActivationStats.flushAll();
+            Probe.uninstall(itemActivationStats);
+        }
+        if (decisionTraceInterceptor != null) {
+            DecisionTrace.stopAll();
+            Probe.uninstall(decisionTraceInterceptor);
+        }
+        samplingProfiler.stop();
+        playerStateStore.close();
+        if (auditLog != null)
+            auditLog.stop();
+    }
+
+    /**
+     * Re-read sockets.yml and enhancements.yml, then apply what changed.
+     *
+     * Both files are parsed on a separate thread, if either can't be parsed
+     * nothing changes. The rest happens on the main thread within one tick:
+     * core enhancements whose configuration changed are recreated,
+     * registered or unregistered, enhancement tables are rebuilt around
+     * them, and socket limits and the empty socket message are replaced.
+     *
+     * Orbs of binding, enhancement gems and item stamps set up recipes and
+     * listeners once, changes to them need a restart.
+     *
+     * @param done Given a summary of what changed, on the main thread.
+     */
+    public void reloadConfigs(Consumer<String> done) {
+        File socketsFile = new File(getDataFolder(), "sockets.yml");
+        File enhancementsFile = new File(getDataFolder(), "enhancements.yml");
+
+        getServer().getScheduler().runTaskAsynchronously(this, () -> {
+            YamlConfiguration sockets = new YamlConfiguration();
+            YamlConfiguration enhancements = new YamlConfiguration();
+            try {
+                sockets.load(socketsFile);
+                enhancements.load(enhancementsFile);
+            } catch (IOException | InvalidConfigurationException e) {
+                getLogger().log(Level.WARNING, "Unable to reload "
+                    + "configuration, nothing was changed.", e);
+                getServer().getScheduler().runTask(this, () -> done.accept(
+                    "Unable to reload, nothing was changed: "
+                    + e.getMessage()));
+                return;
+            }
+
+            getServer().getScheduler().runTask(this, () -> done.accept(
+                applyConfigs(sockets, enhancements)));
+        });
+    }
+
+    /**
+     * Apply the differences between the current configuration and
+     * `sockets` and `enhancements`, then make them current.
+     *
+     * @param sockets The new sockets.yml.
+     * @param enhancements The new enhancements.yml.
+     * @return A summary of what changed.
+     */
+    private String applyConfigs(YamlConfiguration sockets,
+        YamlConfiguration enhancements) {
+        ArrayList<String> changes = new ArrayList<>();
+
+        ConfigurationSection oldEnhancements = nsConfig(enhancementsConfig
+            .getConfigurationSection("enhancements"));
+        ConfigurationSection newEnhancements = nsConfig(enhancements
+            .getConfigurationSection("enhancements"));
+        for (Map.Entry<String, EnhancementEntry> entry :
+            builtIns.entrySet()) {
+            String section = entry.getKey();
+            ConfigurationSection config = nsConfig(newEnhancements
+                .getConfigurationSection(section));
+            boolean enabled = config.getBoolean("enabled",
+                entry.getValue().enabledByDefault());
+            Enhancement current = registered.get(section);
+
+            if (current == null && !enabled)
+                continue;
+            if (current != null && enabled && leaves(config).equals(leaves(
+                nsConfig(oldEnhancements.getConfigurationSection(section)))))
+                continue;
+
+            if (current != null) {
+                enhancementManager.unregister(current.name());
+                registered.remove(section);
+            }
+            if (enabled)
+                registerBuiltIn(section, entry.getValue(), config);
+            changes.add((current == null ? "enabled " : enabled ? "updated "
+                : "disabled ") + section);
+        }
+
+        ConfigurationSection tablesConfig = nsConfig(enhancements
+            .getConfigurationSection("enhancement_tables"));
+        boolean tablesChanged = !leaves(tablesConfig).equals(leaves(nsConfig(
+            enhancementsConfig.getConfigurationSection("enhancement_tables"))));
+        // Tables hold on to the enhancements in their pools
+        if (tablesChanged || !changes.isEmpty()) {
+            if (enhancementTableManager != null) {
+                HandlerList.unregisterAll(enhancementTableManager);
+                this.enhancementTableManager = null;
+            }
+            if (tablesConfig.getBoolean("enabled", true))
+                this.enhancementTableManager = new EnhancementTableManager(
+                    this, enhancementManager, enhancedItemForge, auditLog,
+                    tablesConfig);
+            if (tablesChanged)
+                changes.add("updated enhancement tables");
+        }
+
+        if (!Objects.equals(sockets.get("default"), socketsConfig.get(
+            "default")) || !leaves(nsConfig(sockets.getConfigurationSection(
+            "limits"))).equals(leaves(nsConfig(socketsConfig
+            .getConfigurationSection("limits"))))) {
+            enhancedItemForge.setLimits(sockets);
+            changes.add("updated socket limits");
+        }
+        if (!Objects.equals(sockets.get("empty_socket_message"),
+            socketsConfig.get("empty_socket_message"))) {
+            emptySocket.configure(sockets);
+            changes.add("updated empty socket message");
+        }
+
+        ArrayList<String> needRestart = new ArrayList<>();
+        if (!Objects.equals(sockets.get("stamp_items"),
+            socketsConfig.get("stamp_items")))
+            needRestart.add("stamp_items");
+        if (!leaves(nsConfig(sockets.getConfigurationSection(
+            "orbs_of_binding"))).equals(leaves(nsConfig(socketsConfig
+            .getConfigurationSection("orbs_of_binding")))))
+            needRestart.add("orbs_of_binding");
+        if (!leaves(nsConfig(enhancements.getConfigurationSection(
+            "enhancement_gems"))).equals(leaves(nsConfig(enhancementsConfig
+            .getConfigurationSection("enhancement_gems")))))
+            needRestart.add("enhancement_gems");
+
+        this.socketsConfig = sockets;
+        this.enhancementsConfig = enhancements;
+
+        String summary = changes.isEmpty() ? "Reloaded, nothing changed."
+            : "Reloaded: " + String.join(", ", changes) + ".";
+        if (!needRestart.isEmpty())
+            summary += " Changes to " + String.join(", ", needRestart)
+                + " need a restart.";
+        getLogger().info(summary);
+        return summary;
+    }
+
+    /**
+     * Every value in `config` and its subsections, by full path.
+     *
+     * @param config The configuration section.
+     * @return Its values, excluding the sections themselves.
+     */
+    private static Map<String, Object> leaves(ConfigurationSection config) {
+        HashMap<String, Object> leaves = new HashMap<>();
+        config.getValues(true).forEach((path, value) -> {
+            if (!(value instanceof ConfigurationSection))
+                leaves.put(path, value);
+        });
+        return leaves;
+    }
+
+    /**
+     * Start serving `enhancementMetrics` to Prometheus.
+     *
+     * `config` defaults:
+     * port: 9464
+     *
+     * @param config prometheus configuration section.
+     */
+    private void startPrometheusExporter(ConfigurationSection config) {
+        int port = config.getInt("port", 9464);
+        if (port < 1 || port > 65535)
+            port = 9464;
+
+        try {
+            this.prometheusExporter = new PrometheusExporter(
+                enhancementMetrics, port);
+            getLogger().info("Serving metrics on http://127.0.0.1:" + port
+                + "/metrics");
+        } catch (IOException e) {
+            getLogger().log(Level.SEVERE, "Unable to serve metrics on port "
+                + port + ", the Prometheus exporter is disabled.", e);
+        }
+    }
+
+    /**
+     * Check the enhancement registry against the manifest shared by a
+     * network, if there is one.
+     *
+     * If the shared manifest doesn't exist yet, this server's registry is
+     * exported to it. On a mismatch, depending on `on_mismatch`, the shared
+     * IDs and aliases are adopted ("remap"), a warning is logged ("warn") or
+     * the plugin refuses to start ("refuse").
+     *
+     * `config` defaults:
+     * shared_file: ""
+     * on_mismatch: "remap"
+     *
+     * @param config registry configuration section.
+     * @return Whether the plugin may continue starting.
+     */
+    private boolean checkSharedRegistry(ConfigurationSection config) {
+        String path = config.getString("shared_file", "");
+        if (path.isBlank())
+            return true;
+
+        String onMismatch = config.getString("on_mismatch", "remap")
+            .toLowerCase();
+        if (!List.of("remap", "warn", "refuse").contains(onMismatch))
+            onMismatch = "remap";
+
+        File sharedFile = new File(path);
+        if (!sharedFile.isAbsolute())
+            sharedFile = new File(getDataFolder(), path);
+
+        EnhancementRegistry registry = enhancementManager.registry();
+        if (!sharedFile.exists()) {
+            try {
+                registry.export(sharedFile);
+                getLogger().info("Exported enhancement registry "
+                    + registry.hash() + " to " + sharedFile);
+            } catch (IOException e) {
+                getLogger().log(Level.SEVERE, "Unable to export enhancement "
+                    + "registry to " + sharedFile, e);
+            }
+            return true;
+        }
+
+        EnhancementRegistry shared = new EnhancementRegistry(sharedFile,
+            getLogger());
+        if (shared.hash().equals(registry.hash())) {
+            getLogger().info("Enhancement registry matches " + sharedFile
+                + " (" + registry.hash() + ")");
+            return true;
+        }
+
+        String mismatch = "Enhancement registry " + registry.hash()
+            + " doesn't match " + sharedFile + " (" + shared.hash() + ")";
+        switch (onMismatch) {
+            case "refuse":
+                getLogger().severe(mismatch + ", refusing to start. Items "
+                    + "moved between servers could lose their enhancements.");
+                return false;
+            case "warn":
+                getLogger().warning(mismatch + ".");
+                return true;
+            default:
+                enhancementManager.adoptRegistry(shared);
+                if (shared.hash().equals(registry.hash()))
+                    getLogger().info(mismatch + ", adopted the shared IDs "
+                        + "and aliases.");
+                else
+                    getLogger().warning(mismatch + ", adopted the shared IDs "
+                        + "and aliases but this server has enhancements the "
+                        + "shared manifest doesn't (now " + registry.hash()
+                        + ").");
+                return true;
+        }
+    }
+
+    /**
+     * SocketEnhancements core enhancements, by configuration section name.
+     *
+     * The index is generated at compile time from the RegisteredEnhancement
+     * annotations in the enhancement package.
+     *
+     * @return The core enhancements, in registration order.
+     */
+    private LinkedHashMap<String, EnhancementEntry> builtInEnhancements() {
+        LinkedHashMap<String, EnhancementEntry> builtIns =
+            new LinkedHashMap<>();
+        for (EnhancementEntry entry : EnhancementIndex.entries())
+            builtIns.put(entry.section(), entry);
+        return builtIns;
     }
 
     /**
@@ -96,119 +550,28 @@ public class SocketEnhancements extends JavaPlugin {
      * @param config enhancements configuration section.
      */
     private void registerEnhancements(ConfigurationSection config) {
-        ConfigurationSection protectedConfig = nsConfig(config
-            .getConfigurationSection("protected"));
-        if (protectedConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new ProtectedEnhancement(enhancedItemForge));
-
-        ConfigurationSection blinkConfig = nsConfig(config
-            .getConfigurationSection("blink"));
-        if (blinkConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new BlinkEnhancement(enhancedItemForge, blinkConfig));
-
-        ConfigurationSection boostConfig = nsConfig(config
-            .getConfigurationSection("boost"));
-        if (boostConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new BoostEnhancement(enhancedItemForge, boostConfig));
-
-        ConfigurationSection cushioningConfig = nsConfig(config
-            .getConfigurationSection("cushioning"));
-        if (cushioningConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new CushioningEnhancement(enhancedItemForge, cushioningConfig));
-
-        ConfigurationSection directingConfig = nsConfig(config
-            .getConfigurationSection("directing"));
-        if (directingConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new DirectingEnhancement(enhancedItemForge, directingConfig));
-
-        ConfigurationSection explosiveConfig = nsConfig(config
-            .getConfigurationSection("explosive"));
-        if (explosiveConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new ExplosiveEnhancement(enhancedItemForge, explosiveConfig));
-
-        ConfigurationSection capturingConfig = nsConfig(config
-            .getConfigurationSection("capturing"));
-        if (capturingConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new CapturingEnhancement(enhancedItemForge, capturingConfig));
-
-        ConfigurationSection scorchingConfig = nsConfig(config
-            .getConfigurationSection("scorching"));
-        if (scorchingConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new ScorchingEnhancement(enhancedItemForge, scorchingConfig));
-
-        ConfigurationSection lifestealConfig = nsConfig(config
-            .getConfigurationSection("lifesteal"));
-        if (lifestealConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new LifestealEnhancement(enhancedItemForge, lifestealConfig));
-
-        ConfigurationSection witheringConfig = nsConfig(config
-            .getConfigurationSection("withering"));
-        if (witheringConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new WitheringEnhancement(enhancedItemForge, witheringConfig));
-
-        ConfigurationSection undyingConfig = nsConfig(config
-            .getConfigurationSection("undying"));
-        if (undyingConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new UndyingEnhancement(enhancedItemForge, undyingConfig));
-
-        ConfigurationSection harvestingConfig = nsConfig(config
-            .getConfigurationSection("harvesting"));
-        if (harvestingConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new HarvestingEnhancement(enhancedItemForge, harvestingConfig));
-
-        ConfigurationSection reboundConfig = nsConfig(config
-            .getConfigurationSection("rebound"));
-        if (reboundConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new ReboundEnhancement(enhancedItemForge, reboundConfig));
-
-        ConfigurationSection surpassingConfig = nsConfig(config
-            .getConfigurationSection("surpassing"));
-        if (surpassingConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new SurpassingEnhancement(enhancedItemForge, surpassingConfig));
-
-        ConfigurationSection grappleConfig = nsConfig(config
-            .getConfigurationSection("grapple"));
-        if (grappleConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new GrappleEnhancement(enhancedItemForge, grappleConfig));
-
-        ConfigurationSection beheadingConfig = nsConfig(config
-            .getConfigurationSection("beheading"));
-        if (beheadingConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new BeheadingEnhancement(enhancedItemForge, beheadingConfig));
-
-        ConfigurationSection soulboundConfig = nsConfig(config
-            .getConfigurationSection("soulbound"));
-        if (soulboundConfig.getBoolean("enabled", false))
-            enhancementManager.register(
-                new SoulboundEnhancement(enhancedItemForge, soulboundConfig));
-
-        ConfigurationSection glowingConfig = nsConfig(config
-            .getConfigurationSection("glowing"));
-        if (glowingConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new GlowingEnhancement(enhancedItemForge));
-
-        ConfigurationSection gainConfig = nsConfig(config
-            .getConfigurationSection("gain"));
-        if (gainConfig.getBoolean("enabled", true))
-            enhancementManager.register(
-                new GainEnhancement(enhancedItemForge, gainConfig));
+        builtIns.forEach((section, entry) -> {
+            ConfigurationSection enhancementConfig = nsConfig(config
+                .getConfigurationSection(section));
+            if (enhancementConfig.getBoolean("enabled",
+                entry.enabledByDefault()))
+                registerBuiltIn(section, entry, enhancementConfig);
+        });
+    }
+
+    /**
+     * Create and register the core enhancement configured under `section`.
+     *
+     * @param section The enhancement's configuration section name.
+     * @param entry The enhancement's entry in the EnhancementIndex.
+     * @param config The enhancement's configuration section.
+     */
+    private void registerBuiltIn(String section, EnhancementEntry entry,
+        ConfigurationSection config) {
+        Enhancement enhancement = entry.factory().create(enhancedItemForge,
+            config);
+        if (enhancementManager.register(enhancement, entry.handlers()))
+            registered.put(section, enhancement);
     }
 
     /**
@@ -0,0 +1,419 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.audit;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.item.ItemStamp;
+
+/**
+ * An audit trail of changes made to items' sockets, for investigating
+ * duplication exploits.
+ *
+ * Changes are recorded on the main thread into a fixed size ring buffer,
+ * without locking or I/O, and a background thread drains the buffer into
+ * `audit/current.log`. Once that file reaches its size limit, or a new day
+ * starts, it's compressed to `audit/audit-{time}.log.gz` and a new one is
+ * begun, keeping at most `max_files` compressed files.
+ *
+ * Each line is tab separated: time, action, player name, player UUID, item
+ * type, item stamp ID (or "-" without stamps), what changed, and the item's
+ * sockets afterwards.
+ *
+ * If the writer falls behind and the buffer fills up, further changes are
+ * dropped and counted rather than blocking the main thread.
+ */
+public class AuditLog {
+    private static final DateTimeFormatter FILE_NAME =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final String CURRENT = "current.log";
+    private static final long IDLE_NANOS = 200_000_000;
+
+    /**
+     * The kinds of socket change recorded.
+     */
+    public enum Action {
+        /** Enhancements bound with /sea bind. */
+        BIND,
+        /** Sockets added with /sea addsocket. */
+        ADD_SOCKETS,
+        /** An enhancement removed with /sea remove. */
+        REMOVE,
+        /** An enhancement replaced with /sea replace. */
+        REPLACE,
+        /** Sockets added by crafting with orbs of binding. */
+        ORB,
+        /** Enhancements bound by crafting with enhancement gems. */
+        GEM_BIND,
+        /** An enhancement extracted into an enhancement gem. */
+        GEM_EXTRACT,
+        /** An enhancement bound by an enhancement table. */
+        TABLE
+    }
+
+    /**
+     * One recorded change, formatted by the writer thread.
+     */
+    private record Entry(long millis, Action action, String player,
+        UUID playerId, String type, ItemStamp stamp, String change,
+        List<String> sockets) {}
+
+    private final JavaPlugin plugin;
+    private final EnhancedItemForge forge;
+    private final File directory;
+    private final boolean enabled;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    // Single producer (the main thread), single consumer (the writer)
+    private final AtomicReferenceArray<Entry> ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Thread writer;
+    private volatile boolean running;
+
+    /**
+     * Create an AuditLog for `plugin`, starting its writer if enabled.
+     *
+     * `config` defaults:
+     * enabled: true
+     * buffer_size: 8192
+     * max_file_mb: 16
+     * max_files: 60
+     *
+     * @param plugin The plugin to run under, logs are kept in its `audit`
+     *               folder.
+     * @param forge The forge to read sockets and stamps with.
+     * @param config Configuration options.
+     */
+    public AuditLog(JavaPlugin plugin, EnhancedItemForge forge,
+        ConfigurationSection config) {
+        this.plugin = plugin;
+        this.forge = forge;
+        this.directory = new File(plugin.getDataFolder(), "audit");
+        this.enabled = config.getBoolean("enabled", true);
+
+        int bufferSize = config.getInt("buffer_size", 8192);
+        if (bufferSize < 16)
+            bufferSize = 8192;
+        // Round up to a power of two, for masking
+        bufferSize = Integer.highestOneBit(bufferSize - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(bufferSize);
+        this.mask = bufferSize - 1;
+
+        long maxFileMb = config.getLong("max_file_mb", 16);
+        if (maxFileMb < 1)
+            maxFileMb = 16;
+        this.maxFileBytes = maxFileMb * 1024 * 1024;
+
+        int maxFiles = config.getInt("max_files", 60);
+        if (maxFiles < 1)
+            maxFiles = 60;
+        this.maxFiles = maxFiles;
+
+        this.writer = new Thread(this::drain, "SocketEnhancements Audit Log");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.running = true;
+            writer.start();
+        }
+    }
+
+    /**
+     * Whether changes are being recorded.
+     *
+     * @return Whether this AuditLog is enabled.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * How many changes were dropped because the buffer was full.
+     *
+     * @return The number of dropped changes.
+     */
+    public long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Record that `player` changed `item`'s sockets.
+     *
+     * Must be called on the main thread, after `item` has been updated.
+     *
+     * @param action What kind of change it was.
+     * @param player Who made the change.
+     * @param item The item after the change.
+     * @param change What changed, e.g. "+blink" or "-glowing".
+     */
+    public void record(Action action, HumanEntity player, ItemStack item,
+        String change) {
+        if (!running)
+            return;
+
+        long index = tail.get();
+        if (index - head.get() > mask) {
+            dropped.incrementAndGet();
+            return;
+        }
+
+        ring.set((int) index & mask, new Entry(System.currentTimeMillis(),
+            action, player.getName(), player.getUniqueId(),
+            item.getType().name(), forge.stamp(item), change,
+            forge.socketContents(item)));
+        tail.lazySet(index + 1);
+    }
+
+    /**
+     * Stop the writer once everything recorded so far has been written.
+     *
+     * Waits a few seconds at most.
+     */
+    public void stop() {
+        if (!running)
+            return;
+
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Find the latest lines containing every one of `terms`, ignoring case.
+     *
+     * Scans every log file on a separate thread, then hands the result to
+     * `done` on the main thread.
+     *
+     * @param terms What to search for, lines must contain all of them.
+     * @param limit How many of the latest matches to keep.
+     * @param done Given the matching lines, oldest first.
+     */
+    public void search(List<String> terms, int limit,
+        Consumer<List<String>> done) {
+        String[] needles = terms.stream()
+            .map(term -> term.toLowerCase(Locale.ROOT))
+            .toArray(String[]::new);
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            ArrayDeque<String> matches = new ArrayDeque<>(limit);
+            for (File file : logFiles()) {
+                try (BufferedReader in = open(file)) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        if (!matches(line.toLowerCase(Locale.ROOT), needles))
+                            continue;
+
+                        if (matches.size() == limit)
+                            matches.removeFirst();
+                        matches.addLast(line);
+                    }
+                } catch (IOException e) {
+                    // Rotated away while searching, or truncated by a crash
+                    plugin.getLogger().warning("Skipped part of " + file
+                        + " while searching: " + e.getMessage());
+                }
+            }
+
+            List<String> result = List.copyOf(matches);
+            plugin.getServer().getScheduler().runTask(plugin,
+                () -> done.accept(result));
+        });
+    }
+
+    /**
+     * The writer thread's loop.
+     */
+    private void drain() {
+        directory.mkdirs();
+        File current = new File(directory, CURRENT);
+        LocalDate day = LocalDate.now();
+        BufferedWriter out = null;
+
+        try {
+            out = append(current);
+            while (running || head.get() != tail.get()) {
+                if (head.get() == tail.get()) {
+                    LockSupport.parkNanos(IDLE_NANOS);
+                    if (!LocalDate.now().equals(day) && current.length() > 0) {
+                        out.close();
+                        rotate(current);
+                        out = append(current);
+                        day = LocalDate.now();
+                    }
+                    continue;
+                }
+
+                StringBuilder line = new StringBuilder(128);
+                long index;
+                while ((index = head.get()) != tail.get()) {
+                    int slot = (int) index & mask;
+                    Entry entry = ring.get(slot);
+                    ring.set(slot, null);
+                    head.lazySet(index + 1);
+
+                    line.setLength(0);
+                    format(line, entry);
+                    out.write(line.toString());
+                }
+                out.flush();
+
+                if (current.length() >= maxFileBytes) {
+                    out.close();
+                    rotate(current);
+                    out = append(current);
+                    day = LocalDate.now();
+                }
+            }
+        } catch (IOException e) {
+            running = false;
+            plugin.getLogger().log(Level.SEVERE, "Unable to write audit log, "
+                + "further changes won't be recorded.", e);
+        } finally {
+            try {
+                if (out != null)
+                    out.close();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE,
+                    "Unable to close audit log.", e);
+            }
+        }
+    }
+
+    private static void format(StringBuilder line, Entry entry) {
+        line.append(Instant.ofEpochMilli(entry.millis())).append('\t')
+            .append(entry.action()).append('\t')
+            .append(entry.player()).append('\t')
+            .append(entry.playerId()).append('\t')
+            .append(entry.type()).append('\t')
+            .append(entry.stamp() == null ? "-"
+                : Long.toHexString(entry.stamp().id())).append('\t')
+            .append(entry.change()).append('\t')
+            .append(String.join(",", entry.sockets())).append('\n');
+    }
+
+    private static BufferedWriter append(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(
+            new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Compress `current` into a new dated file, delete it, and delete the
+     * oldest compressed files past `maxFiles`.
+     */
+    private void rotate(File current) throws IOException {
+        File rotated = new File(directory, "audit-"
+            + LocalDateTime.now().format(FILE_NAME) + ".log.gz");
+        File temporary = new File(rotated.getPath() + ".tmp");
+        try (InputStream in = new FileInputStream(current);
+            OutputStream out = new GZIPOutputStream(
+                new FileOutputStream(temporary))) {
+            in.transferTo(out);
+        }
+        Files.move(temporary.toPath(), rotated.toPath());
+        Files.delete(current.toPath());
+
+        List<File> files = rotatedFiles();
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            if (!files.get(i).delete())
+                plugin.getLogger().warning("Unable to delete old audit log "
+                    + files.get(i));
+        }
+    }
+
+    /**
+     * Compressed log files, oldest first.
+     */
+    private List<File> rotatedFiles() {
+        File[] files = directory.listFiles((dir, name) ->
+            name.startsWith("audit-") && name.endsWith(".log.gz"));
+        if (files == null)
+            return List.of();
+
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * Every log file, oldest first.
+     */
+    private List<File> logFiles() {
+        ArrayList<File> files = new ArrayList<>(rotatedFiles());
+        File current = new File(directory, CURRENT);
+        if (current.exists())
+            files.add(current);
+        return files;
+    }
+
+    private static BufferedReader open(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        if (file.getName().endsWith(".gz"))
+            in = new GZIPInputStream(in);
+        return new BufferedReader(new InputStreamReader(in,
+            StandardCharsets.UTF_8));
+    }
+
+    private static boolean matches(String line, String[] needles) {
+        for (String needle : needles) {
+            if (!line.contains(needle))
+                return false;
+        }
+        return true;
+    }
+}
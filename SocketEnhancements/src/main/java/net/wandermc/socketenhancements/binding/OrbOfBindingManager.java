@@ -21,11 +21,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.bukkit.Keyed;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.CraftItemEvent;
 import org.bukkit.event.inventory.PrepareItemCraftEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.RecipeChoice;
@@ -38,6 +41,8 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.audit.AuditLog;
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.util.event.BlockableAction;
@@ -54,7 +59,9 @@ public class OrbOfBindingManager implements Listener {
 
     private final JavaPlugin plugin;
     private final EnhancedItemForge forge;
+    private final AuditLog auditLog;
     private final ItemEventBlocker eventBlocker;
+    private final NamespacedKey upgradeKey;
 
     private final ItemStack orbOfBinding;
 
@@ -75,12 +82,15 @@ public class OrbOfBindingManager implements Listener {
      *
      * @param plugin The plugin this manager is working for.
      * @param forge The current EnhancedItemForge.
+     * @param auditLog Where to record sockets added with orbs.
      * @param config Configuration options for orbs of binding.
      */
     public OrbOfBindingManager(JavaPlugin plugin, EnhancedItemForge forge,
-        ConfigurationSection config) {
+        AuditLog auditLog, ConfigurationSection config) {
         this.plugin = plugin;
         this.forge = forge;
+        this.auditLog = auditLog;
+        this.upgradeKey = new NamespacedKey(plugin, "orb_of_binding_upgrade");
 
         this.bonusSockets = config.getInt("bonus_sockets", 0);
 
@@ -156,8 +166,7 @@ public class OrbOfBindingManager implements Listener {
         if (forge.enhanceableMaterials().isEmpty())
             return;
 
-        ShapelessRecipe upgradeRecipe = new ShapelessRecipe(
-                new NamespacedKey(plugin, "orb_of_binding_upgrade"),
+        ShapelessRecipe upgradeRecipe = new ShapelessRecipe(upgradeKey,
                 new ItemStack(Material.STONE, 1));
 
         upgradeRecipe.addIngredient(new RecipeChoice.MaterialChoice(
@@ -218,5 +227,30 @@ public class OrbOfBindingManager implements Listener {
         } else {
             event.getInventory().setResult(new ItemStack(Material.AIR));
         }
+        Probe.craftPreview("orb_of_binding");
+    }
+
+    /**
+     * Record sockets added with orbs of binding once the upgraded item is
+     * actually taken.
+     *
+     * @param event The event.
+     */
+    @EventHandler(priority=EventPriority.MONITOR, ignoreCancelled=true)
+    public void handleCrafted(CraftItemEvent event) {
+        if (!(event.getRecipe() instanceof Keyed recipe)
+            || !recipe.getKey().equals(upgradeKey)
+            || event.getCurrentItem() == null
+            || event.getCurrentItem().isEmpty())
+            return;
+
+        int orbs = 0;
+        for (ItemStack item : event.getInventory().getMatrix()) {
+            if (item != null && item.isSimilar(orbOfBinding))
+                orbs++;
+        }
+
+        auditLog.record(AuditLog.Action.ORB, event.getWhoClicked(),
+            event.getCurrentItem(), "+" + orbs);
     }
 }
@@ -0,0 +1,103 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.audit.AuditLog;
+
+/**
+ * /sea audit {terms}: Show the latest socket changes in the audit log
+ * containing all of `terms`, e.g. a player name, enhancement, action or item
+ * stamp ID.
+ */
+public class AuditCommand implements SeaSubcommand {
+    private static final int RESULTS = 20;
+
+    private static final Component helpMsg = Component.text(
+        "audit {terms} - Show the latest socket changes mentioning all of " +
+        "terms, e.g. a player, enhancement or item stamp.")
+        .color(NamedTextColor.YELLOW);
+    private static final Component noTermsMsg = Component.text(
+        "Give something to search for.").color(NamedTextColor.RED);
+    private static final Component searchingMsg = Component.text(
+        "Searching audit log...").color(NamedTextColor.YELLOW);
+    private static final Component noMatchesMsg = Component.text(
+        "No matching changes.").color(NamedTextColor.YELLOW);
+
+    private final AuditLog auditLog;
+
+    /**
+     * Create an AuditCommand.
+     *
+     * @param auditLog The audit log to search.
+     */
+    public AuditCommand(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    public String name() {
+        return "audit";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(noTermsMsg);
+            return;
+        }
+
+        sender.sendMessage(searchingMsg);
+        auditLog.search(Arrays.asList(args).subList(1, args.length), RESULTS,
+            lines -> {
+                if (lines.isEmpty()) {
+                    sender.sendMessage(noMatchesMsg);
+                    return;
+                }
+
+                Component message = Component.text("Latest " + lines.size()
+                    + " matching changes:").color(NamedTextColor.YELLOW);
+                for (String line : lines)
+                    message = message.appendNewline().append(Component.text(
+                        line.replace('\t', ' ')).color(NamedTextColor.GRAY));
+                if (auditLog.dropped() > 0)
+                    message = message.appendNewline().append(Component.text(
+                        auditLog.dropped() + " changes weren't recorded, " +
+                        "the buffer was full (raise audit.buffer_size).")
+                        .color(NamedTextColor.RED));
+                sender.sendMessage(message);
+            });
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        for (AuditLog.Action action : AuditLog.Action.values())
+            suggestions.add(action.name());
+        return suggestions;
+    }
+}
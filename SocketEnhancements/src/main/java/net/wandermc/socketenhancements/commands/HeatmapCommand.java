@@ -0,0 +1,136 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.metrics.ActivationHeatmap;
+import net.wandermc.socketenhancements.metrics.ActivationHeatmap.Cell;
+import net.wandermc.socketenhancements.metrics.ActivationHeatmap.Period;
+
+/**
+ * /sea heatmap: Export activation counts and handler time by world, region
+ * and enhancement to a CSV file in the plugin's `heatmaps` folder.
+ */
+public class HeatmapCommand implements SeaSubcommand {
+    private static final DateTimeFormatter FILE_NAME =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final Component helpMsg = Component.text(
+        "heatmap - Export where enhancements activate, and how much time " +
+        "they take there, to a CSV file.").color(NamedTextColor.YELLOW);
+
+    private final JavaPlugin plugin;
+    private final ActivationHeatmap heatmap;
+
+    /**
+     * Create a HeatmapCommand.
+     *
+     * @param plugin The plugin to run under.
+     * @param heatmap The heatmap to export.
+     */
+    public HeatmapCommand(JavaPlugin plugin, ActivationHeatmap heatmap) {
+        this.plugin = plugin;
+        this.heatmap = heatmap;
+    }
+
+    public String name() {
+        return "heatmap";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        List<Period> periods = heatmap.snapshot();
+        int regionBlocks = heatmap.regionBlocks();
+
+        File file = new File(new File(plugin.getDataFolder(), "heatmaps"),
+            "heatmap-" + LocalDateTime.now().format(FILE_NAME) + ".csv");
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                file.getParentFile().mkdirs();
+                write(file, periods, regionBlocks);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE,
+                    "Unable to write heatmap to " + file, e);
+            }
+        });
+
+        long dropped = periods.get(0).dropped() + periods.get(1).dropped();
+        sender.sendMessage(Component.text("Writing heatmap to heatmaps/"
+            + file.getName() + (dropped > 0 ? ", " + dropped + " invocations "
+            + "didn't fit (raise heatmap.capacity)." : "."))
+            .color(NamedTextColor.YELLOW));
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        return List.of();
+    }
+
+    /**
+     * Write `periods` to `file` as CSV, one row per cell.
+     *
+     * @param file The file to write.
+     * @param periods The current period, then the previous one.
+     * @param regionBlocks The size of a region's side, in blocks.
+     */
+    private static void write(File file, List<Period> periods,
+        int regionBlocks) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(),
+            StandardCharsets.UTF_8)) {
+            out.write("period,period_start,world,region_x,region_z,min_x," +
+                "min_z,enhancement,activations,invocations,handler_ms");
+            out.newLine();
+
+            for (int i = 0; i < periods.size(); i++) {
+                Period period = periods.get(i);
+                String name = i == 0 ? "current" : "previous";
+                String start = Instant.ofEpochMilli(period.startMillis())
+                    .toString();
+
+                for (Cell cell : period.cells()) {
+                    out.write(String.format(
+                        "%s,%s,%s,%d,%d,%d,%d,%s,%d,%d,%.3f", name, start,
+                        cell.world(), cell.regionX(), cell.regionZ(),
+                        cell.regionX() * regionBlocks,
+                        cell.regionZ() * regionBlocks, cell.enhancement(),
+                        cell.activations(), cell.invocations(),
+                        cell.nanos() / 1e6));
+                    out.newLine();
+                }
+            }
+        }
+    }
+}
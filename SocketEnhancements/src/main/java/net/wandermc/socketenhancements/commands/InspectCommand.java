@@ -0,0 +1,119 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.item.ItemStamp;
+import net.wandermc.socketenhancements.stats.ItemActivationStats;
+
+/**
+ * /sea inspect [player]: Show how many times each enhancement on the item in
+ * a player's main hand has activated, including counts not yet written to
+ * the item.
+ */
+public class InspectCommand implements SeaSubcommand {
+    private static final Component helpMsg = Component.text(
+        "inspect [player] - Show activation counts of the item held in " +
+        "main hand.").color(NamedTextColor.YELLOW);
+    private static final Component notPlayerMsg = Component.text(
+        "Give a player to inspect.").color(NamedTextColor.RED);
+    private static final Component noItemMsg = Component.text(
+        "No item in main hand.").color(NamedTextColor.RED);
+    private static final Component noCountsMsg = Component.text(
+        "No activations recorded for this item.").color(NamedTextColor.YELLOW);
+
+    private final EnhancedItemForge forge;
+    private final ItemActivationStats stats;
+
+    /**
+     * Create an InspectCommand.
+     *
+     * @param forge The forge to read stamps with.
+     * @param stats The activation counts to show.
+     */
+    public InspectCommand(EnhancedItemForge forge, ItemActivationStats stats) {
+        this.forge = forge;
+        this.stats = stats;
+    }
+
+    public String name() {
+        return "inspect";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        Player target = null;
+        if (args.length > 1)
+            target = sender.getServer().getPlayerExact(args[1]);
+        else if (sender instanceof Player player)
+            target = player;
+
+        if (target == null) {
+            sender.sendMessage(args.length > 1 ? Component.text("Unknown "
+                + "player " + args[1] + ".").color(NamedTextColor.RED)
+                : notPlayerMsg);
+            return;
+        }
+
+        ItemStack item = target.getInventory().getItemInMainHand();
+        if (item.isEmpty()) {
+            sender.sendMessage(noItemMsg);
+            return;
+        }
+
+        Map<String, Long> counts = stats.counts(item);
+        if (counts.isEmpty()) {
+            sender.sendMessage(noCountsMsg);
+            return;
+        }
+
+        ItemStamp stamp = forge.stamp(item);
+        Component message = Component.text("Activations of "
+            + item.getType() + (stamp == null ? "" : " ("
+            + Long.toHexString(stamp.id()) + " r" + stamp.revision() + ")")
+            + ":").color(NamedTextColor.YELLOW);
+        for (Map.Entry<String, Long> count : counts.entrySet())
+            message = message.appendNewline().append(Component.text(
+                count.getKey() + ": " + count.getValue())
+                .color(NamedTextColor.YELLOW));
+        sender.sendMessage(message);
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        if (args.length == 2) {
+            for (Player player : sender.getServer().getOnlinePlayers())
+                suggestions.add(player.getName());
+        }
+        return suggestions;
+    }
+}
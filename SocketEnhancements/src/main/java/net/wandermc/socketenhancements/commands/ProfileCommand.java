@@ -0,0 +1,114 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.profiler.SamplingProfiler;
+
+/**
+ * /sea profile {seconds|stop}: Sample the server's tick threads for stacks
+ * through SocketEnhancements, and write them out for flame graphs.
+ */
+public class ProfileCommand implements SeaSubcommand {
+    private static final int MAX_SECONDS = 3600;
+
+    private static final Component helpMsg = Component.text(
+        "profile {seconds|stop} - Sample SocketEnhancements' code on the " +
+        "server thread, writing a flame graph ready profile.")
+        .color(NamedTextColor.YELLOW);
+    private static final Component alreadyProfilingMsg = Component.text(
+        "Already profiling.").color(NamedTextColor.RED);
+    private static final Component notProfilingMsg = Component.text(
+        "Not profiling.").color(NamedTextColor.YELLOW);
+    private static final Component stoppingMsg = Component.text(
+        "Stopping profiler.").color(NamedTextColor.YELLOW);
+    private static final Component invalidSecondsMsg = Component.text(
+        "Seconds must be between 1 and " + MAX_SECONDS + ".")
+        .color(NamedTextColor.RED);
+    private static final Component failedMsg = Component.text(
+        "Unable to write profile, see the server log.")
+        .color(NamedTextColor.RED);
+
+    private final SamplingProfiler profiler;
+
+    /**
+     * Create a ProfileCommand.
+     *
+     * @param profiler The profiler to control.
+     */
+    public ProfileCommand(SamplingProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    public String name() {
+        return "profile";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            sender.sendMessage(helpMsg);
+            return;
+        }
+
+        if (args[1].equalsIgnoreCase("stop")) {
+            sender.sendMessage(profiler.stop() ? stoppingMsg
+                : notProfilingMsg);
+            return;
+        }
+
+        int seconds;
+        try {
+            seconds = Integer.parseInt(args[1]);
+        } catch (NumberFormatException e) {
+            seconds = -1;
+        }
+        if (seconds < 1 || seconds > MAX_SECONDS) {
+            sender.sendMessage(invalidSecondsMsg);
+            return;
+        }
+
+        boolean started = profiler.start(seconds, file -> {
+            sender.sendMessage(file == null ? failedMsg : Component.text(
+                "Profile written to profiles/" + file.getName() + ".")
+                .color(NamedTextColor.YELLOW));
+        });
+        sender.sendMessage(!started ? alreadyProfilingMsg : Component.text(
+            "Profiling for " + seconds + " seconds.")
+            .color(NamedTextColor.YELLOW));
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        if (args.length == 2) {
+            suggestions.add("30");
+            suggestions.add("stop");
+        }
+        return suggestions;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.recording.EventRecorder;
+
+/**
+ * /sea record [start [max events]|stop]: Record handled events to a trace
+ * file, for replaying offline.
+ */
+public class RecordCommand implements SeaSubcommand {
+    private static final Component helpMsg = Component.text(
+        "record [start [max events]|stop] - Record handled events to a trace " +
+        "file for load testing.").color(NamedTextColor.YELLOW);
+    private static final Component alreadyRecordingMsg = Component.text(
+        "Already recording.").color(NamedTextColor.RED);
+    private static final Component notRecordingMsg = Component.text(
+        "Not recording.").color(NamedTextColor.YELLOW);
+    private static final Component invalidLimitMsg = Component.text(
+        "Max events must be a positive number.").color(NamedTextColor.RED);
+
+    private final EventRecorder recorder;
+
+    /**
+     * Create a RecordCommand.
+     *
+     * @param recorder The recorder to control.
+     */
+    public RecordCommand(EventRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public String name() {
+        return "record";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            long recorded = recorder.recorded();
+            sender.sendMessage(recorded < 0 ? notRecordingMsg : Component.text(
+                "Recording, " + recorded + " events so far.")
+                .color(NamedTextColor.YELLOW));
+            return;
+        }
+
+        switch (args[1].toLowerCase()) {
+            case "start":
+                long limit = 0;
+                if (args.length > 2) {
+                    try {
+                        limit = Long.parseLong(args[2]);
+                    } catch (NumberFormatException e) {
+                        limit = -1;
+                    }
+                    if (limit < 1) {
+                        sender.sendMessage(invalidLimitMsg);
+                        return;
+                    }
+                }
+
+                File file = recorder.start(limit);
+                sender.sendMessage(file == null ? alreadyRecordingMsg
+                    : Component.text("Recording to " + file.getName() + ".")
+                    .color(NamedTextColor.YELLOW));
+                break;
+            case "stop":
+                long recorded = recorder.stop();
+                sender.sendMessage(recorded < 0 ? notRecordingMsg
+                    : Component.text("Stopped, recorded " + recorded
+                    + " events.").color(NamedTextColor.YELLOW));
+                break;
+            default:
+                sender.sendMessage(helpMsg);
+        }
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        if (args.length == 2) {
+            suggestions.add("start");
+            suggestions.add("stop");
+        }
+        return suggestions;
+    }
+}
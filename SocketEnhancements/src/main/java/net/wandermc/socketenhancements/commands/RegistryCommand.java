@@ -0,0 +1,172 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementManager;
+import net.wandermc.socketenhancements.enhancement.EnhancementRegistry;
+
+/**
+ * /sea registry [reload|export [file]|import {file}]: List each enhancement's
+ * stable ID and aliases, re-read them from registry.yml, or share them with
+ * other servers.
+ *
+ * Relative files are resolved against the plugin's data folder.
+ */
+public class RegistryCommand implements SeaSubcommand {
+    private static final String DEFAULT_EXPORT = "registry-export.yml";
+
+    private static final Component helpMsg = Component.text(
+        "registry [reload|export [file]|import {file}] - List enhancement " +
+        "IDs and aliases, reload them from registry.yml, or export/import " +
+        "them to share with other servers.").color(NamedTextColor.YELLOW);
+    private static final Component reloadedMsg = Component.text(
+        "Reloaded registry.yml.").color(NamedTextColor.YELLOW);
+    private static final Component noFileMsg = Component.text(
+        "No file given.").color(NamedTextColor.RED);
+    private static final Component exportFailedMsg = Component.text(
+        "Unable to export the registry, see the server log.")
+        .color(NamedTextColor.RED);
+
+    private final JavaPlugin plugin;
+    private final EnhancementManager manager;
+
+    /**
+     * Create a RegistryCommand.
+     *
+     * @param plugin The plugin to resolve files against.
+     * @param manager The manager whose registry to show.
+     */
+    public RegistryCommand(JavaPlugin plugin, EnhancementManager manager) {
+        this.plugin = plugin;
+        this.manager = manager;
+    }
+
+    public String name() {
+        return "registry";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            list(sender);
+            return;
+        }
+
+        EnhancementRegistry registry = manager.registry();
+        switch (args[1].toLowerCase()) {
+            case "reload":
+                manager.reloadRegistry();
+                sender.sendMessage(reloadedMsg);
+                break;
+            case "export":
+                File target = file(args.length > 2 ? args[2]
+                    : DEFAULT_EXPORT);
+                try {
+                    registry.export(target);
+                    sender.sendMessage(Component.text("Exported registry "
+                        + registry.hash() + " to " + target + ".")
+                        .color(NamedTextColor.YELLOW));
+                } catch (IOException e) {
+                    plugin.getLogger().log(Level.SEVERE, "Unable to export "
+                        + "enhancement registry to " + target, e);
+                    sender.sendMessage(exportFailedMsg);
+                }
+                break;
+            case "import":
+                if (args.length < 3) {
+                    sender.sendMessage(noFileMsg);
+                    return;
+                }
+                File source = file(args[2]);
+                if (!source.exists()) {
+                    sender.sendMessage(Component.text(source
+                        + " doesn't exist.").color(NamedTextColor.RED));
+                    return;
+                }
+
+                EnhancementRegistry shared = new EnhancementRegistry(source,
+                    plugin.getLogger());
+                manager.adoptRegistry(shared);
+                sender.sendMessage(Component.text("Imported registry "
+                    + shared.hash() + (shared.hash().equals(registry.hash())
+                    ? "." : ", this server has further enhancements (now "
+                    + registry.hash() + ")."))
+                    .color(NamedTextColor.YELLOW));
+                break;
+            default:
+                sender.sendMessage(helpMsg);
+        }
+    }
+
+    /**
+     * List each enhancement's ID and aliases to `sender`.
+     *
+     * @param sender Who to send the list to.
+     */
+    private void list(CommandSender sender) {
+        ArrayList<Enhancement> enhancements = new ArrayList<>(
+            manager.getAll());
+        enhancements.sort((a, b) -> manager.id(a) - manager.id(b));
+
+        Component message = Component.text("Enhancement registry "
+            + manager.registry().hash() + ":").color(NamedTextColor.YELLOW);
+        for (Enhancement enhancement : enhancements) {
+            List<String> aliases = manager.aliases(enhancement.name());
+            message = message.appendNewline().append(Component.text(
+                manager.id(enhancement) + " " + enhancement.name()
+                + (aliases.isEmpty() ? "" : " (was " + String.join(", ",
+                aliases) + ")")).color(NamedTextColor.YELLOW));
+        }
+        sender.sendMessage(message);
+    }
+
+    /**
+     * Resolve `path` against the plugin's data folder, unless absolute.
+     */
+    private File file(String path) {
+        File file = new File(path);
+        return file.isAbsolute() ? file : new File(plugin.getDataFolder(),
+            path);
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        if (args.length == 2) {
+            suggestions.add("reload");
+            suggestions.add("export");
+            suggestions.add("import");
+        }
+        return suggestions;
+    }
+}
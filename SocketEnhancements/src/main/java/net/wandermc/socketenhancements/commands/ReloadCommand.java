@@ -0,0 +1,68 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.SocketEnhancements;
+
+/**
+ * /sea reload: Re-read sockets.yml and enhancements.yml, applying changes to
+ * enhancements, enhancement tables and socket limits without a restart.
+ */
+public class ReloadCommand implements SeaSubcommand {
+    private static final Component helpMsg = Component.text(
+        "reload - Apply changes to sockets.yml and enhancements.yml without " +
+        "restarting.").color(NamedTextColor.YELLOW);
+    private static final Component reloadingMsg = Component.text(
+        "Reloading...").color(NamedTextColor.YELLOW);
+
+    private final SocketEnhancements plugin;
+
+    /**
+     * Create a ReloadCommand.
+     *
+     * @param plugin The plugin to reload.
+     */
+    public ReloadCommand(SocketEnhancements plugin) {
+        this.plugin = plugin;
+    }
+
+    public String name() {
+        return "reload";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        sender.sendMessage(reloadingMsg);
+        plugin.reloadConfigs(summary -> sender.sendMessage(
+            Component.text(summary).color(NamedTextColor.YELLOW)));
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        return List.of();
+    }
+}
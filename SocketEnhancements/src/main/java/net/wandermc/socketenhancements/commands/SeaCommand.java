@@ -18,6 +18,7 @@
 package net.wandermc.socketenhancements.commands;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 import org.bukkit.command.Command;
@@ -28,6 +29,8 @@ import org.bukkit.entity.Player;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
+import net.wandermc.socketenhancements.audit.AuditLog;
+import net.wandermc.socketenhancements.audit.AuditLog.Action;
 import net.wandermc.socketenhancements.enhancement.EmptySocket;
 import net.wandermc.socketenhancements.enhancement.Enhancement;
 import net.wandermc.socketenhancements.enhancement.EnhancementManager;
@@ -45,6 +48,8 @@ import net.wandermc.socketenhancements.item.EnhancedItemForge;
  * - replace {enhancement1} {enhancement2} - Replace `enhancement1` with
  *   `enhancement2` on held item.
  * - help - Print help.
+ *
+ * Optional features may add further subcommands with `addSubcommand()`.
  */
 public class SeaCommand implements TabExecutor {
     // 'Informational' text is coloured YELLOW. Errors are coloured RED.
@@ -111,28 +116,50 @@ public class SeaCommand implements TabExecutor {
 
     private EnhancementManager enhancementManager;
     private EnhancedItemForge forge;
+    private AuditLog auditLog;
+
+    private final LinkedHashMap<String, SeaSubcommand> subcommands =
+        new LinkedHashMap<>();
 
     /**
      * Create a SeaCommand.
      *
      * @param forge The current EnhancedItemForge.
      * @param manager The current EnhancementManager.
+     * @param auditLog Where to record changes made to items.
      */
-    public SeaCommand(EnhancementManager manager, EnhancedItemForge forge) {
+    public SeaCommand(EnhancementManager manager, EnhancedItemForge forge,
+        AuditLog auditLog) {
         this.enhancementManager = manager;
         this.forge = forge;
+        this.auditLog = auditLog;
+    }
+
+    /**
+     * Add `subcommand`, replacing any subcommand with the same name.
+     *
+     * @param subcommand The SeaSubcommand to add.
+     */
+    public void addSubcommand(SeaSubcommand subcommand) {
+        subcommands.put(subcommand.name(), subcommand);
     }
 
     @Override
     public boolean onCommand(CommandSender sender, Command command,
         String label, String[] args) {
-        if (sender instanceof Player player) {
-            if (args.length < 1) {
-                sender.sendMessage(noSubCommandMsg);
-                helpCommand(sender);
-                return true;
-            }
+        if (args.length < 1) {
+            sender.sendMessage(noSubCommandMsg);
+            helpCommand(sender);
+            return true;
+        }
 
+        SeaSubcommand subcommand = subcommands.get(args[0].toLowerCase());
+        if (subcommand != null) {
+            subcommand.execute(sender, args);
+            return true;
+        }
+
+        if (sender instanceof Player player) {
             switch (args[0].toLowerCase()) {
                 case "bind": {
                     bindCommand(player, args);
@@ -172,10 +199,15 @@ public class SeaCommand implements TabExecutor {
             suggestions.add("add(socket)");
             suggestions.add("remove");
             suggestions.add("replace");
+            suggestions.addAll(subcommands.keySet());
             suggestions.add("help");
             return suggestions;
         }
 
+        SeaSubcommand subcommand = subcommands.get(args[0].toLowerCase());
+        if (subcommand != null)
+            return subcommand.tabComplete(sender, args);
+
         switch (args[0].toLowerCase()) {
             case "add":
             case "addsocket": {
@@ -207,6 +239,7 @@ public class SeaCommand implements TabExecutor {
             return;
         }
 
+        ArrayList<String> bound = new ArrayList<>();
         for (int i = 1; i < args.length; i++) {
             Enhancement enhancement = enhancementManager.get(args[i]);
 
@@ -216,10 +249,14 @@ public class SeaCommand implements TabExecutor {
                 return;
             }
 
-            bind(sender, item, enhancement);
+            if (bind(sender, item, enhancement))
+                bound.add("+" + enhancement.name());
         }
 
         item.update();
+        if (!bound.isEmpty())
+            auditLog.record(Action.BIND, sender, item.itemStack(),
+                String.join(",", bound));
     }
 
     private void addSocketCommand(Player sender, String[] args) {
@@ -256,6 +293,8 @@ public class SeaCommand implements TabExecutor {
 
         item.addSockets(numSockets);
         item.update();
+        auditLog.record(Action.ADD_SOCKETS, sender, item.itemStack(),
+            "+" + numSockets);
     }
 
     private void removeCommand(Player sender, String[] args) {
@@ -279,6 +318,8 @@ public class SeaCommand implements TabExecutor {
         }
 
         item.update();
+        auditLog.record(Action.REMOVE, sender, item.itemStack(),
+            "-" + auditName(args[1]));
     }
 
     private void replaceCommand(Player sender, String[] args) {
@@ -318,6 +359,20 @@ public class SeaCommand implements TabExecutor {
         }
 
         item.update();
+        auditLog.record(Action.REPLACE, sender, item.itemStack(),
+            "-" + auditName(args[1]) + ",+" + enhancement2.name());
+    }
+
+    /**
+     * The name to log a removal of `name` under, the same one other changes
+     * to the enhancement are logged under so searches find all of them.
+     *
+     * @param name The name of an enhancement, as given by the player.
+     * @return Its normalised current name.
+     */
+    private String auditName(String name) {
+        return EnhancementManager.normalise(
+            enhancementManager.canonicalName(name));
     }
 
     private void helpCommand(CommandSender sender) {
@@ -325,6 +380,8 @@ public class SeaCommand implements TabExecutor {
         sender.sendMessage(addsocketHelpMsg);
         sender.sendMessage(removeHelpMsg);
         sender.sendMessage(replaceHelpMsg);
+        for (SeaSubcommand subcommand : subcommands.values())
+            sender.sendMessage(subcommand.help());
         sender.sendMessage(helpHelpMsg);
     }
 
@@ -0,0 +1,63 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import net.kyori.adventure.text.Component;
+
+/**
+ * A /sea subcommand provided by an optional feature, added to SeaCommand with
+ * `addSubcommand()`.
+ *
+ * Unlike SeaCommand's own subcommands, these may be used from the console.
+ */
+public interface SeaSubcommand {
+    /**
+     * The name used to run this subcommand, lowercase.
+     *
+     * @return The name.
+     */
+    public String name();
+
+    /**
+     * A one line description of this subcommand's usage.
+     *
+     * @return The help message.
+     */
+    public Component help();
+
+    /**
+     * Run this subcommand.
+     *
+     * @param sender Who ran the command.
+     * @param args All arguments given to /sea, including the subcommand name.
+     */
+    public void execute(CommandSender sender, String[] args);
+
+    /**
+     * Suggestions for the last of `args`.
+     *
+     * @param sender Who is typing the command.
+     * @param args All arguments given to /sea, including the subcommand name.
+     * @return Suggestions.
+     */
+    public List<String> tabComplete(CommandSender sender, String[] args);
+}
@@ -0,0 +1,159 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.metrics.EnhancementMetrics;
+import net.wandermc.socketenhancements.metrics.EnhancementStats;
+import net.wandermc.socketenhancements.metrics.EnhancementStats.Totals;
+
+/**
+ * /sea stats [enhancement]: Print enhancement handler metrics.
+ *
+ * Without an argument, prints a one line summary of the last minute for every
+ * enhancement. With one, prints 1, 5 and 15 minute windows for that
+ * enhancement.
+ */
+public class StatsCommand implements SeaSubcommand {
+    private static final Component helpMsg = Component.text(
+        "stats [enhancement] - Show handler invocations, hits, activations " +
+        "and latency for all enhancements, or just one.")
+        .color(NamedTextColor.YELLOW);
+    private static final Component noStatsMsg = Component.text(
+        "Nothing has been recorded yet.").color(NamedTextColor.YELLOW);
+    private static final Component unknownEnhancementMsgStart = Component.text(
+        "Nothing recorded for ").color(NamedTextColor.RED);
+    private static final Component summaryHeaderMsg = Component.text(
+        "Last minute, busiest first (invocations / hits / activations, " +
+        "p50 / p99 / max):").color(NamedTextColor.YELLOW);
+
+    private static final int[] WINDOWS = {1, 5, 15};
+
+    private final EnhancementMetrics metrics;
+
+    /**
+     * Create a StatsCommand.
+     *
+     * @param metrics The metrics to report.
+     */
+    public StatsCommand(EnhancementMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public String name() {
+        return "stats";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            summary(sender);
+            return;
+        }
+
+        EnhancementStats stats = metrics.get(args[1].toLowerCase());
+        if (stats == null) {
+            sender.sendMessage(unknownEnhancementMsgStart.append(
+                Component.text('"'+args[1]+'"')));
+            return;
+        }
+
+        sender.sendMessage(Component.text(stats.name() + ":")
+            .color(NamedTextColor.YELLOW));
+        for (int minutes : WINDOWS) {
+            sender.sendMessage(Component.text(String.format("%2dm ", minutes))
+                .color(NamedTextColor.YELLOW)
+                .append(format(stats.window(minutes))));
+        }
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        if (args.length == 2) {
+            for (EnhancementStats stats : metrics.getAll())
+                suggestions.add(stats.name());
+        }
+        return suggestions;
+    }
+
+    /**
+     * Print the last minute for every enhancement, busiest first.
+     *
+     * @param sender Who to send the summary to.
+     */
+    private void summary(CommandSender sender) {
+        record Line(String name, Totals totals) {}
+
+        ArrayList<Line> lines = new ArrayList<>();
+        for (EnhancementStats stats : metrics.getAll())
+            lines.add(new Line(stats.name(), stats.window(1)));
+
+        if (lines.isEmpty()) {
+            sender.sendMessage(noStatsMsg);
+            return;
+        }
+
+        lines.sort(Comparator.comparingLong((Line line) ->
+            line.totals().invocations()).reversed());
+
+        sender.sendMessage(summaryHeaderMsg);
+        for (Line line : lines) {
+            sender.sendMessage(Component.text(line.name() + " ")
+                .color(NamedTextColor.YELLOW).append(format(line.totals())));
+        }
+    }
+
+    /**
+     * Format `totals` as a single line.
+     *
+     * @param totals The totals to format.
+     * @return The formatted totals.
+     */
+    private static Component format(Totals totals) {
+        return Component.text(totals.invocations() + " / " + totals.hits() +
+            " / " + totals.activations() + ", " +
+            formatNanos(totals.latency(0.5)) + " / " +
+            formatNanos(totals.latency(0.99)) + " / " +
+            formatNanos(totals.max())).color(NamedTextColor.WHITE);
+    }
+
+    /**
+     * Format a duration in nanoseconds with a suitable unit.
+     *
+     * @param nanos The duration.
+     * @return The formatted duration.
+     */
+    static String formatNanos(long nanos) {
+        if (nanos < 1_000)
+            return nanos + "ns";
+        if (nanos < 1_000_000)
+            return String.format("%.1fµs", nanos / 1_000.0);
+        return String.format("%.2fms", nanos / 1_000_000.0);
+    }
+}
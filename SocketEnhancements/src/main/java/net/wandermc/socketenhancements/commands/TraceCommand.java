@@ -0,0 +1,238 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.enhancement.EmptySocket;
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementManager;
+import net.wandermc.socketenhancements.instrument.trace.DecisionTrace;
+import net.wandermc.socketenhancements.instrument.trace.TraceBuffer;
+import net.wandermc.socketenhancements.instrument.trace.TraceBuffer.Step;
+
+/**
+ * /sea trace [player [enhancement|stop|dump [file]]]: Trace the decisions
+ * enhancements make for a player.
+ *
+ * - trace - List traced players.
+ * - trace {player} [enhancement] - Start tracing `player`, optionally only
+ *   `enhancement`.
+ * - trace {player} stop - Stop tracing `player`.
+ * - trace {player} dump [file] - Print `player`'s trace, or write it to a file
+ *   in the plugin's `traces` folder.
+ */
+public class TraceCommand implements SeaSubcommand {
+    private static final DateTimeFormatter TIME =
+        DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final DateTimeFormatter FILE_NAME =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static final Component helpMsg = Component.text(
+        "trace [player [enhancement|stop|dump [file]]] - Trace why " +
+        "enhancements do or don't activate for a player.")
+        .color(NamedTextColor.YELLOW);
+    private static final Component nobodyTracedMsg = Component.text(
+        "Nobody is being traced.").color(NamedTextColor.YELLOW);
+    private static final Component notTracedMsg = Component.text(
+        "That player isn't being traced.").color(NamedTextColor.RED);
+    private static final Component unknownPlayerMsg = Component.text(
+        "Unknown player.").color(NamedTextColor.RED);
+    private static final Component unknownEnhancementMsg = Component.text(
+        "Unknown enhancement.").color(NamedTextColor.RED);
+    private static final Component emptyTraceMsg = Component.text(
+        "Nothing traced yet.").color(NamedTextColor.YELLOW);
+
+    private final JavaPlugin plugin;
+    private final EnhancementManager manager;
+    private final int capacity;
+
+    /**
+     * Create a TraceCommand.
+     *
+     * @param plugin The plugin to run under.
+     * @param manager The EnhancementManager to look up enhancements with.
+     * @param capacity How many steps to keep per traced player.
+     */
+    public TraceCommand(JavaPlugin plugin, EnhancementManager manager,
+        int capacity) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.capacity = capacity;
+    }
+
+    public String name() {
+        return "trace";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            list(sender);
+            return;
+        }
+
+        UUID uuid = plugin.getServer().getPlayerUniqueId(args[1]);
+        if (uuid == null) {
+            sender.sendMessage(unknownPlayerMsg);
+            return;
+        }
+
+        String action = args.length > 2 ? args[2].toLowerCase() : null;
+        if ("stop".equals(action)) {
+            sender.sendMessage(DecisionTrace.stop(uuid) == null ? notTracedMsg
+                : Component.text("Stopped tracing " + args[1] + ".")
+                .color(NamedTextColor.YELLOW));
+        } else if ("dump".equals(action)) {
+            dump(sender, uuid, args[1],
+                args.length > 3 && args[3].equalsIgnoreCase("file"));
+        } else {
+            Enhancement enhancement = action == null ? null
+                : manager.get(action);
+            if (enhancement instanceof EmptySocket) {
+                sender.sendMessage(unknownEnhancementMsg);
+                return;
+            }
+
+            DecisionTrace.start(uuid, capacity,
+                enhancement == null ? null : enhancement.name());
+            sender.sendMessage(Component.text("Tracing "
+                + (enhancement == null ? "all enhancements" : enhancement
+                .name()) + " for " + args[1] + ", use /sea trace " + args[1]
+                + " dump to view.").color(NamedTextColor.YELLOW));
+        }
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        if (args.length == 2) {
+            for (Player player : plugin.getServer().getOnlinePlayers())
+                suggestions.add(player.getName());
+        } else if (args.length == 3) {
+            suggestions.add("stop");
+            suggestions.add("dump");
+            suggestions.addAll(manager.getAllNames());
+        } else if (args.length == 4 && args[2].equalsIgnoreCase("dump")) {
+            suggestions.add("file");
+        }
+        return suggestions;
+    }
+
+    /**
+     * List every traced player.
+     *
+     * @param sender Who to send the list to.
+     */
+    private void list(CommandSender sender) {
+        Map<UUID, TraceBuffer> traced = DecisionTrace.traced();
+        if (traced == null) {
+            sender.sendMessage(nobodyTracedMsg);
+            return;
+        }
+
+        traced.forEach((uuid, buffer) -> {
+            OfflinePlayer player = plugin.getServer().getOfflinePlayer(uuid);
+            sender.sendMessage(Component.text(player.getName() + ": "
+                + (buffer.filter() == null ? "all enhancements"
+                : buffer.filter())).color(NamedTextColor.YELLOW));
+        });
+    }
+
+    /**
+     * Send the trace of the player with `uuid` to `sender`, or to a file.
+     *
+     * @param sender Who asked for the trace.
+     * @param uuid The traced player's UUID.
+     * @param name The traced player's name.
+     * @param toFile Whether to write to a file rather than chat.
+     */
+    private void dump(CommandSender sender, UUID uuid, String name,
+        boolean toFile) {
+        Map<UUID, TraceBuffer> traced = DecisionTrace.traced();
+        TraceBuffer buffer = traced == null ? null : traced.get(uuid);
+        if (buffer == null) {
+            sender.sendMessage(notTracedMsg);
+            return;
+        }
+
+        List<Step> steps = buffer.snapshot();
+        if (steps.isEmpty()) {
+            sender.sendMessage(emptyTraceMsg);
+            return;
+        }
+
+        if (!toFile) {
+            for (Step step : steps)
+                sender.sendMessage(Component.text(format(step))
+                    .color(NamedTextColor.GRAY));
+            return;
+        }
+
+        File file = new File(new File(plugin.getDataFolder(), "traces"),
+            name + "-" + LocalDateTime.now().format(FILE_NAME) + ".txt");
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                file.getParentFile().mkdirs();
+                Files.write(file.toPath(), steps.stream()
+                    .map(TraceCommand::format).toList(),
+                    StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE,
+                    "Unable to write trace to " + file, e);
+            }
+        });
+        sender.sendMessage(Component.text("Writing " + steps.size()
+            + " steps to traces/" + file.getName() + ".")
+            .color(NamedTextColor.YELLOW));
+    }
+
+    /**
+     * Format `step` as a single line.
+     *
+     * @param step The step.
+     * @return The formatted step.
+     */
+    private static String format(Step step) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(step.millis()),
+            ZoneId.systemDefault()).format(TIME) + " t" + step.tick() + " "
+            + step.enhancement() + ": " + step.step();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+
+import net.wandermc.socketenhancements.watchdog.EnhancementWatchdog;
+import net.wandermc.socketenhancements.watchdog.EnhancementWatchdog.Guard;
+import net.wandermc.socketenhancements.watchdog.EnhancementWatchdog.State;
+
+/**
+ * /sea watchdog [reset {enhancement|all}]: View or reset the state of the
+ * enhancement watchdog.
+ */
+public class WatchdogCommand implements SeaSubcommand {
+    private static final Component helpMsg = Component.text(
+        "watchdog [reset {enhancement|all}] - List throttled and tripped " +
+        "enhancements, or return them to normal.")
+        .color(NamedTextColor.YELLOW);
+    private static final Component allNormalMsg = Component.text(
+        "All enhancements are running normally.")
+        .color(NamedTextColor.YELLOW);
+    private static final Component noEnhancementMsg = Component.text(
+        "No enhancement given.").color(NamedTextColor.RED);
+    private static final Component unknownEnhancementMsgStart = Component.text(
+        "Unknown enhancement ").color(NamedTextColor.RED);
+    private static final Component resetMsg = Component.text(
+        "Reset.").color(NamedTextColor.YELLOW);
+
+    private final EnhancementWatchdog watchdog;
+
+    /**
+     * Create a WatchdogCommand.
+     *
+     * @param watchdog The watchdog to control.
+     */
+    public WatchdogCommand(EnhancementWatchdog watchdog) {
+        this.watchdog = watchdog;
+    }
+
+    public String name() {
+        return "watchdog";
+    }
+
+    public Component help() {
+        return helpMsg;
+    }
+
+    public void execute(CommandSender sender, String[] args) {
+        if (args.length < 2) {
+            list(sender);
+            return;
+        }
+
+        if (!args[1].equalsIgnoreCase("reset")) {
+            sender.sendMessage(helpMsg);
+            return;
+        }
+
+        if (args.length < 3) {
+            sender.sendMessage(noEnhancementMsg);
+            return;
+        }
+
+        if (args[2].equalsIgnoreCase("all")) {
+            watchdog.resetAll();
+        } else if (!watchdog.reset(args[2].toLowerCase())) {
+            sender.sendMessage(unknownEnhancementMsgStart.append(
+                Component.text('"'+args[2]+'"')));
+            return;
+        }
+
+        sender.sendMessage(resetMsg);
+    }
+
+    public List<String> tabComplete(CommandSender sender, String[] args) {
+        ArrayList<String> suggestions = new ArrayList<>();
+        if (args.length == 2) {
+            suggestions.add("reset");
+        } else if (args.length == 3 && args[1].equalsIgnoreCase("reset")) {
+            suggestions.add("all");
+            for (Guard guard : watchdog.getAll()) {
+                if (guard.state() != State.NORMAL)
+                    suggestions.add(guard.name());
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * List every enhancement that isn't running normally, or has strikes.
+     *
+     * @param sender Who to send the list to.
+     */
+    private void list(CommandSender sender) {
+        boolean allNormal = true;
+
+        for (Guard guard : watchdog.getAll()) {
+            if (guard.state() == State.NORMAL && guard.strikes() == 0)
+                continue;
+
+            allNormal = false;
+            sender.sendMessage(Component.text(guard.name() + " ")
+                .color(NamedTextColor.YELLOW)
+                .append(Component.text(guard.state() + ", " + guard.strikes()
+                    + " strikes, last overrun " + StatsCommand.formatNanos(
+                    guard.lastOverrun())).color(guard.state() == State.TRIPPED
+                    ? NamedTextColor.RED : NamedTextColor.WHITE)));
+        }
+
+        if (allNormal)
+            sender.sendMessage(allNormalMsg);
+    }
+}
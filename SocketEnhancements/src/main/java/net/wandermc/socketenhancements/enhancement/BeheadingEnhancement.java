@@ -20,6 +20,7 @@ package net.wandermc.socketenhancements.enhancement;
 import java.util.ArrayList;
 import java.util.HashMap;
 
+import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Entity;
@@ -27,24 +28,38 @@ import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
 
+import com.destroystokyo.paper.profile.PlayerProfile;
+
 import static io.papermc.paper.tag.BaseTag.ITEMS_AXES;
 
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
+import net.wandermc.socketenhancements.util.PlayerProfileCache;
+import net.wandermc.socketenhancements.util.drop.DropCollector;
+import net.wandermc.socketenhancements.util.drop.DropMode;
+
 import static net.wandermc.socketenhancements.util.Dice.roll;
 
 /**
  * Beheading enhancement.
  *
  * On killing another player, have a (configurable) chance to drop their head.
+ *
+ * Heads are built from profiles captured when players join, so dropping one
+ * never needs a profile lookup.
  */
+@RegisteredEnhancement(section="beheading", order=160)
 public class BeheadingEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -53,12 +68,16 @@ public class BeheadingEnhancement implements ActiveEnhancement {
     private EnhancedItemForge forge;
 
     private double chance;
+    private final DropMode dropMode;
+    private PlayerProfileCache profiles;
 
     /**
      * Create a BeheadingEnhancement.
      *
      * `config` defaults:
      * chance: 0.4
+     * drop_mode: "MERGE"
+     * profile_cache_size: 64
      *
      * @param forge The current EnhancedItemForge.
      * @param config Configuration options.
@@ -70,6 +89,17 @@ public class BeheadingEnhancement implements ActiveEnhancement {
         this.chance = config.getDouble("chance", 0.4);
         if (this.chance < 0)
             this.chance = 0.4;
+
+        this.dropMode = DropMode.fromConfig(config);
+
+        int profileCacheSize = config.getInt("profile_cache_size", 64);
+        if (profileCacheSize < 0)
+            profileCacheSize = 64;
+        this.profiles = new PlayerProfileCache(profileCacheSize);
+
+        // Players may already be online if the plugin was loaded late
+        for (Player player : Bukkit.getOnlinePlayers())
+            profiles.join(player);
     }
 
     @EventHandler(ignoreCancelled=true)
@@ -88,14 +118,33 @@ public class BeheadingEnhancement implements ActiveEnhancement {
             ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
 
             SkullMeta meta = (SkullMeta) skull.getItemMeta();
-            meta.setOwningPlayer(context.getPlayer());
+            PlayerProfile profile = profiles.get(
+                context.getPlayer().getUniqueId());
+            if (profile != null)
+                meta.setPlayerProfile(profile);
+            else
+                meta.setOwningPlayer(context.getPlayer());
             skull.setItemMeta(meta);
 
-            context.getPlayer().getWorld().dropItemNaturally(
-                context.getPlayer().getLocation(), skull);
+            DropCollector drops = new DropCollector(dropMode);
+            drops.add(skull);
+            drops.release(context.getPlayer().getLocation(),
+                killer instanceof Player player ? player : null);
+
+            Probe.activated(this);
         }
     }
 
+    @EventHandler
+    public void capture(PlayerJoinEvent context) {
+        profiles.join(context.getPlayer());
+    }
+
+    @EventHandler
+    public void release(PlayerQuitEvent context) {
+        profiles.quit(context.getPlayer());
+    }
+
     public String name() {
         return "beheading";
     }
@@ -17,31 +17,36 @@
  */
 package net.wandermc.socketenhancements.enhancement;
 
-import java.util.ArrayList;
-import java.util.EnumSet;
-
+import org.bukkit.FluidCollisionMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.Sound;
+import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerTeleportEvent.TeleportCause;
-import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
+import org.bukkit.util.RayTraceResult;
+import org.bukkit.util.Vector;
 
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
 import static com.destroystokyo.paper.MaterialTags.ARMOR;
 
+import net.wandermc.socketenhancements.instrument.Probe;
+import net.wandermc.socketenhancements.instrument.trace.DecisionTrace;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 import net.wandermc.socketenhancements.util.cost.*;
 
 /**
@@ -50,20 +55,13 @@ import net.wandermc.socketenhancements.util.cost.*;
  * Allows players to instantly travel to the block they are looking at, provided
  * it is near enough, at the cost of some experience points and temporary
  * blindness.
+ *
+ * The destination is found by ray tracing against block collision shapes, and
+ * the search never reaches into unloaded chunks. The teleport itself is
+ * asynchronous, so a blink never blocks the server tick.
  */
+@RegisteredEnhancement(section="blink", order=20)
 public class BlinkEnhancement implements ActiveEnhancement {
-    // All blocks that can be teleported through.
-    private static final EnumSet<Material> BLINK_THROUGH_BLOCKS;
-
-    static {
-        ArrayList<Material> materials = new ArrayList<>();
-        for (Material mat : Material.values()) {
-            if (mat.isBlock() && !mat.isSolid())
-                materials.add(mat);
-        }
-        BLINK_THROUGH_BLOCKS = EnumSet.copyOf(materials);
-    }
-
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
         .deserialize("<!italic><white><<dark_purple>Blink<white>>");
@@ -115,43 +113,86 @@ public class BlinkEnhancement implements ActiveEnhancement {
 
         Player player = context.getPlayer();
 
-        Location location = player.getTargetBlock(BLINK_THROUGH_BLOCKS,
-            maxDistance).getLocation();
-
-        // Try to find a safe location near to where the player is pointing
-        if (!isSafe(location)) {
-            Location safe = location.clone();
-
-            for (double modY = 1; modY <= maxDistance / 2; modY++) {
-                // Scan up from targeted block
-                safe.setY(location.getY()+modY);
-                if (isSafe(safe))
-                    break;
-
-                // Scan down from block 'in front' of targeted block
-                safe.setY(location.getY()-modY);
-                if (isSafe(safe.getBlock().getRelative(
-                    player.getFacing().getOppositeFace()).getLocation()))
-                    break;
-
-                safe = location.clone();
-            }
+        Location destination = findDestination(player);
+        if (destination == null) {
+            DecisionTrace.note("rejected: no safe destination");
+            applyFailureCosmetics(player);
+            return;
+        }
 
-            if (location.equals(safe)) {
-                applyFailureCosmetics(player);
-                return;
-            }
+        // Charged up front, so the cost can't be spent while teleporting
+        cost.take(player);
+        player.teleportAsync(destination, TeleportCause.PLUGIN)
+            .thenAccept(success -> {
+                if (!player.isOnline())
+                    return;
+
+                if (!success) {
+                    // No longer inside the invocation, so not traced
+                    JavaPlugin.getProvidingPlugin(BlinkEnhancement.class)
+                        .getLogger().info("Blink teleport of "
+                        + player.getName() + " failed, refunding its cost.");
+                    cost.refund(player);
+                    return;
+                }
+
+                applySuccessCosmetics(player);
+            });
+        // Counted once issued, while the invocation is still running
+        Probe.activated(this);
+    }
 
-            location = safe.toCenterLocation();
+    /**
+     * Find a safe location near the block `player` is looking at.
+     *
+     * Ray traces from the player's eyes up to `maxDistance` blocks, cut short
+     * at the first unloaded chunk, then searches up from the block that was
+     * hit and down from the block in front of it for somewhere safe to stand.
+     *
+     * @param player The player blinking.
+     * @return Where to teleport `player` to, or null if nowhere safe was
+     *         found.
+     */
+    private Location findDestination(Player player) {
+        World world = player.getWorld();
+        WorldView view = new WorldView(world);
+        Location eye = player.getEyeLocation();
+        Vector direction = eye.getDirection();
+
+        double distance = BlinkSearch.loadedDistance(view, eye.getX(),
+            eye.getZ(), direction.getX(), direction.getZ(), maxDistance);
+        if (distance <= 0)
+            return null;
+
+        RayTraceResult result = world.rayTraceBlocks(eye, direction, distance,
+            FluidCollisionMode.NEVER, true);
+
+        int x, y, z;
+        if (result != null && result.getHitBlock() != null) {
+            Block hit = result.getHitBlock();
+            x = hit.getX();
+            y = hit.getY();
+            z = hit.getZ();
+        } else {
+            // Nothing was hit, aim for the block at the end of the ray.
+            Vector end = eye.toVector().add(direction.multiply(distance));
+            x = end.getBlockX();
+            y = end.getBlockY();
+            z = end.getBlockZ();
         }
 
-        location.setYaw(player.getLocation().getYaw());
-        location.setPitch(player.getLocation().getPitch());
+        BlockFace back = player.getFacing().getOppositeFace();
+        BlinkSearch.Spot spot = BlinkSearch.find(view, x, y, z,
+            x + back.getModX(), z + back.getModZ(), maxDistance / 2);
+        if (spot == null)
+            return null;
 
-        player.teleport(location, TeleportCause.PLUGIN);
-        applySuccessCosmetics(player);
+        Location location = new Location(world, spot.x() + 0.5, spot.y(),
+            spot.z() + 0.5);
+        location.setYaw(eye.getYaw());
+        location.setPitch(eye.getPitch());
 
-        cost.take(player);
+        return location;
     }
 
     /**
@@ -172,14 +213,24 @@ public class BlinkEnhancement implements ActiveEnhancement {
         Player player = context.getPlayer();
 
         if (!(player.isSneaking() &&
-            context.getAction() == Action.RIGHT_CLICK_AIR))
+            context.getAction() == Action.RIGHT_CLICK_AIR)) {
+            DecisionTrace.note("rejected: not sneaking and right clicking air");
             return false;
+        }
 
-        if (!(context.hasItem() && forge.has(context.getItem(), this)))
+        if (!(context.hasItem() && forge.has(context.getItem(), this))) {
+            DecisionTrace.note("rejected: item doesn't have blink");
             return false;
+        }
 
-        if (player.getPotionEffect(PotionEffectType.BLINDNESS) != null
-            || !cost.met(player)) {
+        if (player.getPotionEffect(PotionEffectType.BLINDNESS) != null) {
+            DecisionTrace.note("rejected: blinded");
+            applyFailureCosmetics(player);
+            return false;
+        }
+
+        if (!cost.met(player)) {
+            DecisionTrace.note("rejected: cost not met");
             applyFailureCosmetics(player);
             return false;
         }
@@ -219,18 +270,30 @@ public class BlinkEnhancement implements ActiveEnhancement {
     }
 
     /**
-     * Determine whether `loc` is a safe location.
-     *
-     * Any location is considered 'safe' if it won't suffocate the player or
-     * place them in the air, it might still dunk them in lava, for instance.
-     *
-     * @param loc The location to check.
-     * @return Whether it is safe.
+     * A BlinkSearch.BlockView backed by a live world.
      */
-    private boolean isSafe(Location loc) {
-        return !loc.getBlock().getType().isSolid() &&
-                !loc.getBlock().getRelative(0, 1, 0).getType().isSolid() &&
-                loc.getBlock().getRelative(0, -1, 0).isSolid();
+    private static class WorldView implements BlinkSearch.BlockView {
+        private final World world;
+
+        private WorldView(World world) {
+            this.world = world;
+        }
+
+        public boolean isLoaded(int x, int z) {
+            return world.isChunkLoaded(x >> 4, z >> 4);
+        }
+
+        public boolean isSolid(int x, int y, int z) {
+            return world.getType(x, y, z).isSolid();
+        }
+
+        public int minY() {
+            return world.getMinHeight();
+        }
+
+        public int maxY() {
+            return world.getMaxHeight();
+        }
     }
 
     public String name() {
@@ -0,0 +1,191 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.enhancement;
+
+/**
+ * The destination search used by BlinkEnhancement.
+ *
+ * Deliberately independent of Bukkit, all block access goes through a
+ * BlockView. This keeps the search usable (and benchmarkable) without a
+ * running server, and makes it explicit which chunks it may touch: the search
+ * never reads a column whose chunk the view reports as unloaded.
+ */
+public final class BlinkSearch {
+    /**
+     * Read-only access to the blocks of a world.
+     */
+    public interface BlockView {
+        /**
+         * Whether the chunk containing block column (`x`, `z`) is loaded.
+         *
+         * @param x Block x coordinate.
+         * @param z Block z coordinate.
+         * @return Whether the column can be read without loading a chunk.
+         */
+        public boolean isLoaded(int x, int z);
+
+        /**
+         * Whether the block at (`x`, `y`, `z`) is solid.
+         *
+         * Only called for loaded columns within the world's height limits.
+         *
+         * @param x Block x coordinate.
+         * @param y Block y coordinate.
+         * @param z Block z coordinate.
+         * @return Whether the block is solid.
+         */
+        public boolean isSolid(int x, int y, int z);
+
+        /**
+         * The lowest block y coordinate in the world.
+         *
+         * @return The minimum height.
+         */
+        public int minY();
+
+        /**
+         * One above the highest block y coordinate in the world.
+         *
+         * @return The maximum height.
+         */
+        public int maxY();
+    }
+
+    /**
+     * A safe block to blink to, players stand in its lower half.
+     */
+    public record Spot(int x, int y, int z) {}
+
+    private BlinkSearch() {}
+
+    /**
+     * How far a ray can travel before it leaves the loaded area of a world.
+     *
+     * Walks the chunk columns crossed by the ray from (`x`, `z`) along
+     * (`dx`, `dz`) and stops at the edge of the first unloaded one. `dx` and
+     * `dz` are the horizontal components of a normalised direction vector, so
+     * distances are measured along the full 3D ray.
+     *
+     * @param view The world to check.
+     * @param x Ray origin x.
+     * @param z Ray origin z.
+     * @param dx Direction x component.
+     * @param dz Direction z component.
+     * @param maxDistance The furthest the ray may travel.
+     * @return The distance the ray can travel through loaded chunks, at most
+     *         `maxDistance`. 0 if the origin itself isn't loaded.
+     */
+    public static double loadedDistance(BlockView view, double x, double z,
+        double dx, double dz, double maxDistance) {
+        int chunkX = (int) Math.floor(x / 16);
+        int chunkZ = (int) Math.floor(z / 16);
+        if (!view.isLoaded(chunkX << 4, chunkZ << 4))
+            return 0;
+
+        int stepX = dx > 0 ? 1 : -1;
+        int stepZ = dz > 0 ? 1 : -1;
+
+        // Distance along the ray to the next chunk boundary on each axis, and
+        // between consecutive boundaries.
+        double nextX = dx == 0 ? Double.POSITIVE_INFINITY
+            : ((chunkX + (dx > 0 ? 1 : 0)) * 16 - x) / dx;
+        double nextZ = dz == 0 ? Double.POSITIVE_INFINITY
+            : ((chunkZ + (dz > 0 ? 1 : 0)) * 16 - z) / dz;
+        double deltaX = dx == 0 ? Double.POSITIVE_INFINITY : 16 / Math.abs(dx);
+        double deltaZ = dz == 0 ? Double.POSITIVE_INFINITY : 16 / Math.abs(dz);
+
+        while (true) {
+            double boundary = Math.min(nextX, nextZ);
+            if (boundary >= maxDistance)
+                return maxDistance;
+
+            if (nextX < nextZ) {
+                chunkX += stepX;
+                nextX += deltaX;
+            } else {
+                chunkZ += stepZ;
+                nextZ += deltaZ;
+            }
+
+            if (!view.isLoaded(chunkX << 4, chunkZ << 4)) {
+                // Stop just short of the unloaded chunk.
+                return Math.max(0, boundary - 0.01);
+            }
+        }
+    }
+
+    /**
+     * Find a safe spot near the targeted block (`x`, `y`, `z`).
+     *
+     * If the target itself isn't safe, alternately scan up from the target and
+     * down from the column in front of it (`frontX`, `frontZ`), up to `range`
+     * blocks in each direction. Columns in unloaded chunks are never read.
+     *
+     * @param view The world to search.
+     * @param x Target x.
+     * @param y Target y.
+     * @param z Target z.
+     * @param frontX X of the column in front of the target.
+     * @param frontZ Z of the column in front of the target.
+     * @param range How far to scan in each direction.
+     * @return The closest safe spot, or null if none was found.
+     */
+    public static Spot find(BlockView view, int x, int y, int z, int frontX,
+        int frontZ, int range) {
+        boolean targetLoaded = view.isLoaded(x, z);
+        boolean frontLoaded = view.isLoaded(frontX, frontZ);
+
+        if (targetLoaded && isSafe(view, x, y, z))
+            return new Spot(x, y, z);
+
+        for (int modY = 1; modY <= range; modY++) {
+            // Scan up from targeted block
+            if (targetLoaded && isSafe(view, x, y + modY, z))
+                return new Spot(x, y + modY, z);
+
+            // Scan down from block 'in front' of targeted block
+            if (frontLoaded && isSafe(view, frontX, y - modY, frontZ))
+                return new Spot(frontX, y - modY, frontZ);
+        }
+
+        return null;
+    }
+
+    /**
+     * Determine whether (`x`, `y`, `z`) is a safe location.
+     *
+     * Any location is considered 'safe' if it won't suffocate the player or
+     * place them in the air, it might still dunk them in lava, for instance.
+     *
+     * @param view The world to check, the column must be loaded.
+     * @param x Block x coordinate.
+     * @param y Block y coordinate.
+     * @param z Block z coordinate.
+     * @return Whether it is safe.
+     */
+    public static boolean isSafe(BlockView view, int x, int y, int z) {
+        // The block below must be inside the world, the two above it may
+        // stick out of the top.
+        if (y - 1 < view.minY() || y >= view.maxY())
+            return false;
+
+        return !view.isSolid(x, y, z)
+            && (y + 1 >= view.maxY() || !view.isSolid(x, y + 1, z))
+            && view.isSolid(x, y - 1, z);
+    }
+}
@@ -32,8 +32,11 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 
 import static com.destroystokyo.paper.MaterialTags.ARMOR;
 
+import net.wandermc.socketenhancements.instrument.Probe;
+import net.wandermc.socketenhancements.instrument.trace.DecisionTrace;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 import net.wandermc.socketenhancements.util.cost.CostItemDamage;
 
 import static net.wandermc.socketenhancements.util.Dice.roll;
@@ -45,6 +48,7 @@ import static net.wandermc.socketenhancements.util.Dice.roll;
  * applying damage to the item. There is a chance that the rocket will damage
  * the player.
  */
+@RegisteredEnhancement(section="boost", order=30)
 public class BoostEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -113,14 +117,20 @@ public class BoostEnhancement implements ActiveEnhancement {
         Player player = context.getPlayer();
 
         if (!(player.isGliding() &&
-            context.getAction() == Action.RIGHT_CLICK_AIR))
+            context.getAction() == Action.RIGHT_CLICK_AIR)) {
+            DecisionTrace.note("rejected: not gliding and right clicking air");
             return false;
+        }
 
-        if (!(context.hasItem() && forge.has(context.getItem(), this)))
+        if (!(context.hasItem() && forge.has(context.getItem(), this))) {
+            DecisionTrace.note("rejected: item doesn't have boost");
             return false;
+        }
 
-        if (!cost.met(context.getItem()))
+        if (!cost.met(context.getItem())) {
+            DecisionTrace.note("rejected: cost not met");
             return false;
+        }
 
         return true;
     }
@@ -138,6 +148,8 @@ public class BoostEnhancement implements ActiveEnhancement {
         }
 
         cost.take(context.getItem());
+
+        Probe.activated(this);
     }
 
     public String name() {
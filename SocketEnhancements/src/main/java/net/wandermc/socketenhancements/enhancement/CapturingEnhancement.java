@@ -36,8 +36,12 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_PICKAXES;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
+import net.wandermc.socketenhancements.util.drop.DropCollector;
+import net.wandermc.socketenhancements.util.drop.DropMode;
 
 /**
  * Capturing enhancement.
@@ -45,6 +49,7 @@ import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
  * Allows spawners to be mined with pickaxes.
  * May be consumed in the process. (configurable)
  */
+@RegisteredEnhancement(section="capturing", order=70)
 public class CapturingEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -53,12 +58,14 @@ public class CapturingEnhancement implements ActiveEnhancement {
     private final EnhancedItemForge forge;
 
     private final boolean singleUse;
+    private final DropMode dropMode;
 
     /**
      * Create a CapturingEnhancement.
      *
      * `config` defaults:
      * single_use: false
+     * drop_mode: "MERGE"
      *
      * @param forge The current EnhancedItemForge.
      * @param config Configuration options.
@@ -68,6 +75,8 @@ public class CapturingEnhancement implements ActiveEnhancement {
         this.forge = forge;
 
         this.singleUse = config.getBoolean("single_use", false);
+
+        this.dropMode = DropMode.fromConfig(config);
     }
 
     @EventHandler(ignoreCancelled=true)
@@ -82,8 +91,9 @@ public class CapturingEnhancement implements ActiveEnhancement {
             return;
 
         Block spawner = context.getBlock();
-        spawner.getWorld().dropItem(spawner.getLocation(),
-            spawnerBlockToItem(spawner));
+        DropCollector drops = new DropCollector(dropMode);
+        drops.add(spawnerBlockToItem(spawner));
+        drops.release(spawner.getLocation(), context.getPlayer());
 
         if (singleUse) {
             EnhancedItem enhancedPickaxe = forge.create(pickaxe);
@@ -93,6 +103,8 @@ public class CapturingEnhancement implements ActiveEnhancement {
 
         context.getPlayer().getWorld().playSound(spawner.getLocation(),
             Sound.BLOCK_BEACON_DEACTIVATE, SoundCategory.NEUTRAL, 5, 10);
+
+        Probe.activated(this);
     }
 
     /**
@@ -19,7 +19,6 @@ package net.wandermc.socketenhancements.enhancement;
 
 import org.bukkit.Material;
 import org.bukkit.Particle;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
@@ -31,16 +30,21 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_HEAD_ARMOR;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.enhancement.EnhancementManager;
 import net.wandermc.socketenhancements.enhancement.EnhancementRarity;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.ConfigRecord;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
+import net.wandermc.socketenhancements.registration.Setting;
 
 /**
  * Cushioning enhancement.
  *
  * Reduces damage taken from flying into walls.
  */
+@RegisteredEnhancement(section="cushioning", order=40)
 public class CushioningEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -48,8 +52,19 @@ public class CushioningEnhancement implements ActiveEnhancement {
 
     private final EnhancedItemForge forge;
 
-    private double damageTaken;
-    private double experienceGain;
+    private final double damageTaken;
+    private final double experienceGain;
+
+    /**
+     * CushioningEnhancement's configuration.
+     *
+     * @param damageTaken The portion of flying into wall damage taken.
+     * @param expGain Experience points gained per point of damage prevented.
+     */
+    @ConfigRecord
+    public record Config(
+        @Setting(value="0.5", max=1) double damageTaken,
+        @Setting(value="1") double expGain) {}
 
     /**
      * Create a Cushioning enhancement.
@@ -59,17 +74,13 @@ public class CushioningEnhancement implements ActiveEnhancement {
      * exp_gain: 1
      *
      * @param forge The current EnhancedItemForge.
-     * @param config Configuration Options.
+     * @param config Configuration options, bound from its section.
      */
-    public CushioningEnhancement(EnhancedItemForge forge, ConfigurationSection
-        config) {
+    public CushioningEnhancement(EnhancedItemForge forge, Config config) {
         this.forge = forge;
 
-        this.damageTaken = config.getDouble("damage_taken", 0.5);
-        if (this.damageTaken > 1)
-            this.damageTaken = 0.5;
-
-        this.experienceGain = config.getDouble("exp_gain", 1);
+        this.damageTaken = config.damageTaken();
+        this.experienceGain = config.expGain();
     }
 
     @EventHandler(ignoreCancelled=true)
@@ -94,6 +105,8 @@ public class CushioningEnhancement implements ActiveEnhancement {
                     player.calculateTotalExperiencePoints() + (int)
                     ((originalDamage - context.getDamage()) * experienceGain));
             }
+
+            Probe.activated(this);
         }
     }
 
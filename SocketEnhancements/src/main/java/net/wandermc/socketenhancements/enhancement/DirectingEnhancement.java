@@ -35,8 +35,10 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_HEAD_ARMOR;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 
 /**
  * Directing enhancement.
@@ -44,6 +46,7 @@ import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
  * When a player is struck with lightning, apply various buffs.
  * Default buffs aim to simulate the effect of eating a golden apple.
  */
+@RegisteredEnhancement(section="directing", order=50)
 public class DirectingEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -130,6 +133,8 @@ public class DirectingEnhancement implements ActiveEnhancement {
             player.setFoodLevel(player.getFoodLevel() + foodGain);
             player.setSaturation(player.getSaturation() + saturationGain);
             potionEffects.forEach(effect -> player.addPotionEffect(effect));
+
+            Probe.activated(this);
         }
     }
 
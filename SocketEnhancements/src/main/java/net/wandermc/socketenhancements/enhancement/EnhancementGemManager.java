@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
+import org.bukkit.Keyed;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.configuration.ConfigurationSection;
@@ -28,6 +29,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
+import org.bukkit.event.inventory.CraftItemEvent;
 import org.bukkit.event.inventory.PrepareItemCraftEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.EquipmentSlot;
@@ -45,6 +47,8 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.audit.AuditLog;
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.util.event.BlockableAction;
@@ -62,7 +66,9 @@ public class EnhancementGemManager implements Listener {
 
     private final JavaPlugin plugin;
     private final EnhancedItemForge forge;
+    private final AuditLog auditLog;
     private final NamespacedKey gemKey;
+    private final NamespacedKey recipeKey;
 
     private final ItemStack dummyGem;
 
@@ -83,13 +89,16 @@ public class EnhancementGemManager implements Listener {
      *
      * @param plugin The plugin this manager is working for.
      * @param forge The current EnhancedItemForge.
+     * @param auditLog Where to record enhancements bound and extracted.
      * @param config Configuration options for enhancement gems.
      */
     public EnhancementGemManager(JavaPlugin plugin, EnhancedItemForge forge,
-        ConfigurationSection config) {
+        AuditLog auditLog, ConfigurationSection config) {
         this.plugin = plugin;
         this.forge = forge;
+        this.auditLog = auditLog;
         this.gemKey = new NamespacedKey(plugin, "is_gem");
+        this.recipeKey = new NamespacedKey(plugin, "enhancement_gem_addition");
 
         Material bt = Material.getMaterial(config.getString("block",
             "GRINDSTONE"));
@@ -145,6 +154,12 @@ public class EnhancementGemManager implements Listener {
             EventExecutor.create(this.getClass().getMethod("handleCraft",
                 PrepareItemCraftEvent.class), PrepareItemCraftEvent.class),
             plugin, true);
+
+        plugin.getServer().getPluginManager().registerEvent(
+            CraftItemEvent.class, this, EventPriority.MONITOR,
+            EventExecutor.create(this.getClass().getMethod("handleCrafted",
+                CraftItemEvent.class), CraftItemEvent.class),
+            plugin, true);
     }
 
     /**
@@ -220,8 +235,7 @@ public class EnhancementGemManager implements Listener {
      * Create and register the recipe for applying Enhancement Gems to items.
      */
     private void registerRecipe() {
-        ShapelessRecipe recipe = new ShapelessRecipe(
-                new NamespacedKey(plugin, "enhancement_gem_addition"),
+        ShapelessRecipe recipe = new ShapelessRecipe(recipeKey,
                 new ItemStack(Material.STONE, 1));
 
         recipe.addIngredient(new RecipeChoice.MaterialChoice(
@@ -266,6 +280,8 @@ public class EnhancementGemManager implements Listener {
 
         enhancedItem.remove(enhancement);
         enhancedItem.update();
+        auditLog.record(AuditLog.Action.GEM_EXTRACT, event.getPlayer(),
+            enhancedItem.itemStack(), "-" + enhancement.name());
 
         event.getPlayer().getWorld().dropItemNaturally(
             event.getClickedBlock().getLocation(), gem);
@@ -302,11 +318,40 @@ public class EnhancementGemManager implements Listener {
         for (Enhancement enhancement : enhancements) {
             if (!itemToEnhance.bind(enhancement)) {
                 event.getInventory().setResult(new ItemStack(Material.AIR));
+                Probe.craftPreview("enhancement_gem");
                 return;
             }
         }
 
         event.getInventory().setResult(itemToEnhance.update());
+        Probe.craftPreview("enhancement_gem");
+    }
+
+    /**
+     * Record enhancements bound with gems once the enhanced item is actually
+     * taken.
+     *
+     * @param event The event.
+     */
+    public void handleCrafted(CraftItemEvent event) {
+        if (!(event.getRecipe() instanceof Keyed recipe)
+            || !recipe.getKey().equals(recipeKey)
+            || event.getCurrentItem() == null
+            || event.getCurrentItem().isEmpty())
+            return;
+
+        ArrayList<String> bound = new ArrayList<>();
+        for (ItemStack item : event.getInventory().getMatrix()) {
+            if (item == null || !isEnhancementGem(item))
+                continue;
+
+            Enhancement enhancement = last(forge.create(item));
+            if (enhancement != null)
+                bound.add("+" + enhancement.name());
+        }
+
+        auditLog.record(AuditLog.Action.GEM_BIND, event.getWhoClicked(),
+            event.getCurrentItem(), String.join(",", bound));
     }
 
     /**
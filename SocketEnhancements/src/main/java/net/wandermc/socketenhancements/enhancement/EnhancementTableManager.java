@@ -27,9 +27,11 @@ import org.bukkit.event.enchantment.EnchantItemEvent;
 import org.bukkit.event.enchantment.PrepareItemEnchantEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import net.wandermc.socketenhancements.audit.AuditLog;
 import net.wandermc.socketenhancements.enhancement.Enhancement;
 import net.wandermc.socketenhancements.enhancement.EnhancementManager;
 import net.wandermc.socketenhancements.enhancement.EnhancementRarity;
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.util.cost.CostExperienceLevels;
@@ -56,6 +58,7 @@ public class EnhancementTableManager implements Listener {
     private final JavaPlugin plugin;
     private final EnhancementManager manager;
     private final EnhancedItemForge forge;
+    private final AuditLog auditLog;
 
     // Cost for each button
     private final CostExperienceLevels costI;
@@ -80,13 +83,16 @@ public class EnhancementTableManager implements Listener {
      * @param plugin The plugin this manager is working for.
      * @param manager The current EnhancementManager.
      * @param forge The current EnhancedItemForge.
+     * @param auditLog Where to record enhancements bound by tables.
      * @param config Configuration options for Enhancement Tables.
      */
     public EnhancementTableManager(JavaPlugin plugin,EnhancementManager manager,
-        EnhancedItemForge forge, ConfigurationSection config) {
+        EnhancedItemForge forge, AuditLog auditLog,
+        ConfigurationSection config) {
         this.plugin = plugin;
         this.manager = manager;
         this.forge = forge;
+        this.auditLog = auditLog;
 
         // Get and validate configuration values.
 
@@ -174,32 +180,17 @@ public class EnhancementTableManager implements Listener {
             return;
 
         CostExperienceLevels cost;
-        ArrayList<Enhancement> enhancements = new ArrayList();
         switch (event.whichButton()) {
             case 0: {
                 cost = costI;
-                for (Enhancement enhancement : enhancementPoolI) {
-                    if (item.canBind(enhancement))
-                        enhancements.add(enhancement);
-                }
                 break;
             }
             case 1: {
                 cost = costII;
-                for (Enhancement enhancement : enhancementPoolII) {
-                    if (item.canBind(enhancement))
-                        enhancements.add(enhancement);
-                }
                 break;
             }
-            // If the player manages to find and press a 4th button, they'll get
-            // the rarest pool. Good for them!
             default: {
                 cost = costIII;
-                for (Enhancement enhancement : enhancementPoolIII) {
-                    if (item.canBind(enhancement))
-                        enhancements.add(enhancement);
-                }
                 break;
             }
         }
@@ -211,6 +202,8 @@ public class EnhancementTableManager implements Listener {
             return;
         }
 
+        ArrayList<Enhancement> enhancements = candidates(item,
+            event.whichButton());
         if (enhancements.isEmpty()) {
             if (!event.getItem().getEnchantments().isEmpty()) {
                 event.setCancelled(true);
@@ -218,11 +211,66 @@ public class EnhancementTableManager implements Listener {
             return;
         }
 
-        item.bind(chooseOne(enhancements));
+        Enhancement enhancement = chooseOne(enhancements);
+        item.bind(enhancement);
+        Probe.tableRoll(poolRarity(event.whichButton()));
 
         item.update();
+        auditLog.record(AuditLog.Action.TABLE, event.getEnchanter(),
+            item.itemStack(), "+" + enhancement.name());
         cost.take(event.getEnchanter());
 
         event.setCancelled(true);
     }
+
+    /**
+     * The rarity of the pool for `button`.
+     *
+     * @param button The index of the button pressed.
+     * @return The pool's rarity.
+     */
+    private static EnhancementRarity poolRarity(int button) {
+        switch (button) {
+            case 0:
+                return EnhancementRarity.I;
+            case 1:
+                return EnhancementRarity.II;
+            default:
+                return EnhancementRarity.III;
+        }
+    }
+
+    /**
+     * The enhancements from the pool for `button` that can be bound to `item`.
+     *
+     * @param item The item being enhanced.
+     * @param button The index of the button pressed.
+     * @return All enhancements that could be bound.
+     */
+    public ArrayList<Enhancement> candidates(EnhancedItem item, int button) {
+        ArrayList<Enhancement> pool;
+        switch (button) {
+            case 0: {
+                pool = enhancementPoolI;
+                break;
+            }
+            case 1: {
+                pool = enhancementPoolII;
+                break;
+            }
+            // If the player manages to find and press a 4th button, they'll get
+            // the rarest pool. Good for them!
+            default: {
+                pool = enhancementPoolIII;
+                break;
+            }
+        }
+
+        ArrayList<Enhancement> enhancements = new ArrayList<>();
+        for (Enhancement enhancement : pool) {
+            if (item.canBind(enhancement))
+                enhancements.add(enhancement);
+        }
+        return enhancements;
+    }
 }
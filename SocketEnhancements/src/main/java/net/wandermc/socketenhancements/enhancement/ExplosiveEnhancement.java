@@ -35,9 +35,13 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_PICKAXES;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 import net.wandermc.socketenhancements.util.cost.*;
+import net.wandermc.socketenhancements.util.drop.DropCollector;
+import net.wandermc.socketenhancements.util.drop.DropMode;
 
 /**
  * Explosive enhancement
@@ -45,13 +49,16 @@ import net.wandermc.socketenhancements.util.cost.*;
  * On mining a block also destroy all neighbouring blocks within a 1-block
  * radius. (3*3 cube centered on mined block)
  * May cost set amount of items which must be held in offhand.
+ * Drops from all broken blocks are collected and given out together.
  */
+@RegisteredEnhancement(section="explosive", order=60)
 public class ExplosiveEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
         .deserialize("<!italic><white><<dark_red>Explosive<white>>");
 
     private final Cost cost;
+    private final DropMode dropMode;
 
     private final PluginManager pluginManager = Bukkit.getPluginManager();
     private final EnhancedItemForge forge;
@@ -62,6 +69,7 @@ public class ExplosiveEnhancement implements ActiveEnhancement {
      * `config` defaults:
      * cost_type: "GUNPOWDER"
      * cost_amount: 2
+     * drop_mode: "MERGE"
      *
      * @param forge The current EnhancedItemForge.
      * @param config Configuration options.
@@ -83,6 +91,8 @@ public class ExplosiveEnhancement implements ActiveEnhancement {
             this.cost = new CostExperiencePoints(costAmount);
         else
             this.cost = new CostOffhandItem(costType, costAmount);
+
+        this.dropMode = DropMode.fromConfig(config);
     }
 
     /**
@@ -144,6 +154,7 @@ public class ExplosiveEnhancement implements ActiveEnhancement {
         enhancedPickaxe.remove(this);
         enhancedPickaxe.update();
 
+        DropCollector drops = new DropCollector(dropMode);
         int damage = 0;
         for (Block relative : getRelatives(context.getBlock())) {
             if (relative.getType().getBlastResistance() <= 10) {
@@ -158,16 +169,20 @@ public class ExplosiveEnhancement implements ActiveEnhancement {
 
                 if (relative.getType().getHardness() > 0)
                     damage++;
-                relative.breakNaturally(pickaxe);
+                drops.breakBlock(relative, pickaxe, player);
             }
         }
 
+        drops.release(context.getBlock().getLocation(), player);
+
         enhancedPickaxe.bind(this);
         enhancedPickaxe.update();
 
         pickaxe.damage(damage, player);
 
         cost.take(player);
+
+        Probe.activated(this);
     }
 
     public String name() {
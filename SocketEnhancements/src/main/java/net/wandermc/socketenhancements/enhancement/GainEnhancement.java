@@ -17,7 +17,6 @@
  */
 package net.wandermc.socketenhancements.enhancement;
 
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
@@ -26,8 +25,12 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 
 import static com.destroystokyo.paper.MaterialTags.ARMOR;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.registration.ConfigRecord;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
+import net.wandermc.socketenhancements.registration.Setting;
 
 import static net.wandermc.socketenhancements.util.Dice.roll;
 
@@ -38,17 +41,32 @@ import static net.wandermc.socketenhancements.util.Dice.roll;
  * Delay between 'gains', amount of points to gain and chance to actually gain
  * points (both per armour piece) are configurable.
  */
+@RegisteredEnhancement(section="gain", order=190)
 public class GainEnhancement implements PassiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
         .deserialize("<!italic><white><<green>Gain<white>>");
 
-    private long delay;
-    private double chance;
-    private int points;
+    private final long delay;
+    private final double chance;
+    private final int points;
 
     private EnhancedItemForge forge;
 
+    /**
+     * GainEnhancement's configuration.
+     *
+     * @param delay Seconds between each chance of gaining experience.
+     * @param chance The chance of each enhanced armour piece giving
+     *               experience.
+     * @param points The experience points each armour piece gives.
+     */
+    @ConfigRecord
+    public record Config(
+        @Setting(value="8", min=1) long delay,
+        @Setting(value="0.15", min=0, exclusive=true) double chance,
+        @Setting(value="4", min=0) int points) {}
+
     /**
      * Create a Gain enhancement.
      *
@@ -58,26 +76,15 @@ public class GainEnhancement implements PassiveEnhancement {
      * points: 4
      *
      * @param forge The current EnhancedItemForge.
-     * @param config Configuration options.
+     * @param config Configuration options, bound from its section.
      */
-    public GainEnhancement(EnhancedItemForge forge, ConfigurationSection
-        config) {
+    public GainEnhancement(EnhancedItemForge forge, Config config) {
         this.forge = forge;
 
-        this.delay = config.getLong("delay", 8);
-        if (this.delay < 1)
-            this.delay = 8;
-
         // Convert to ticks
-        this.delay *= 20;
-
-        this.chance = config.getDouble("chance", 0.15);
-        if (this.chance <= 0)
-            this.chance = 0.15;
-
-        this.points = config.getInt("points", 4);
-        if (this.points < 0)
-            this.points = 4;
+        this.delay = config.delay() * 20;
+        this.chance = config.chance();
+        this.points = config.points();
     }
 
     public void run() {
@@ -94,6 +101,7 @@ public class GainEnhancement implements PassiveEnhancement {
             if (gain > 0) {
                 player.setExperienceLevelAndProgress(
                     player.calculateTotalExperiencePoints() + gain);
+                Probe.activated(this);
             }
         }
     }
@@ -30,14 +30,17 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_HEAD_ARMOR;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 
 /**
  * Glowing enhancement.
  *
  * While wearing an enhanced helmet, give player night vision.
  */
+@RegisteredEnhancement(section="glowing", order=180)
 public class GlowingEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -78,6 +81,7 @@ public class GlowingEnhancement implements ActiveEnhancement {
         } else {
             // If new helmet does have this enhancement, give wearer effect.
             context.getEntity().addPotionEffect(nightVision);
+            Probe.activated(this);
         }
     }
 
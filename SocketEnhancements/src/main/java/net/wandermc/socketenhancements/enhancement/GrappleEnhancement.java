@@ -28,8 +28,10 @@ import org.bukkit.util.Vector;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 import net.wandermc.socketenhancements.util.cost.CostItemDamage;
 
 /**
@@ -38,6 +40,7 @@ import net.wandermc.socketenhancements.util.cost.CostItemDamage;
  * Allows players to use fishing rods as grappling hooks. Must be held in
  * mainhand.
  */
+@RegisteredEnhancement(section="grapple", order=150)
 public class GrappleEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -91,6 +94,8 @@ public class GrappleEnhancement implements ActiveEnhancement {
         velocity.setZ(velocity.getZ() / 4);
 
         context.getPlayer().setVelocity(velocity);
+
+        Probe.activated(this);
     }
 
     public String name() {
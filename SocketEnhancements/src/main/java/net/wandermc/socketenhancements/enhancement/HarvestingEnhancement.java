@@ -32,9 +32,13 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_HOES;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 import net.wandermc.socketenhancements.util.cost.CostExperiencePoints;
+import net.wandermc.socketenhancements.util.drop.DropCollector;
+import net.wandermc.socketenhancements.util.drop.DropMode;
 
 /**
  * Harvesting enhancement.
@@ -42,6 +46,7 @@ import net.wandermc.socketenhancements.util.cost.CostExperiencePoints;
  * On interacting with a crop, harvest and replant said crop.
  * May cost experience points.
  */
+@RegisteredEnhancement(section="harvesting", order=120)
 public class HarvestingEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -50,12 +55,14 @@ public class HarvestingEnhancement implements ActiveEnhancement {
     private final EnhancedItemForge forge;
 
     private final CostExperiencePoints cost;
+    private final DropMode dropMode;
 
     /**
      * Create a HarvestingEnhancement.
      *
      * `config` defaults:
      * cost_amount: 1
+     * drop_mode: "MERGE"
      *
      * @param forge The current EnhancedItemForge.
      * @param config Configuration options.
@@ -65,6 +72,8 @@ public class HarvestingEnhancement implements ActiveEnhancement {
         this.forge = forge;
 
         this.cost = new CostExperiencePoints(config.getInt("cost_amount", 1));
+
+        this.dropMode = DropMode.fromConfig(config);
     }
 
     @EventHandler(ignoreCancelled=false)
@@ -90,15 +99,25 @@ public class HarvestingEnhancement implements ActiveEnhancement {
             if (data.getAge() < data.getMaximumAge())
                 return;
 
-            crop.breakNaturally(hoe);
-            hoe.damage(1, player);
-
             // We're essentially giving the player an extra crop here.. But
             // trying to take one seed item from the drops would be a pain.
+            if (dropMode == DropMode.NATURAL) {
+                crop.breakNaturally(hoe);
+            } else {
+                // Replanting replaces the crop anyway, so there's no need to
+                // break it first.
+                DropCollector drops = new DropCollector(dropMode);
+                drops.addAll(crop.getDrops(hoe, player));
+                drops.release(crop.getLocation(), player);
+            }
+            hoe.damage(1, player);
+
             data.setAge(0);
             crop.setBlockData(data);
 
             cost.take(player);
+
+            Probe.activated(this);
         }
     }
 
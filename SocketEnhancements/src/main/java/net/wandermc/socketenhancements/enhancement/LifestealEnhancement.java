@@ -19,7 +19,6 @@ package net.wandermc.socketenhancements.enhancement;
 
 import org.bukkit.Material;
 import org.bukkit.attribute.Attribute;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
@@ -32,8 +31,12 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_SWORDS;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.ConfigRecord;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
+import net.wandermc.socketenhancements.registration.Setting;
 
 import static net.wandermc.socketenhancements.util.Dice.roll;
 
@@ -43,16 +46,28 @@ import static net.wandermc.socketenhancements.util.Dice.roll;
  * On attacking another entity, have a chance to gain some of the
  * dealt damage as health.
  */
+@RegisteredEnhancement(section="lifesteal", order=90)
 public class LifestealEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
         .deserialize("<!italic><white><<red>Lifesteal<white>>");
 
-    private double chance;
-    private double gain;
+    private final double chance;
+    private final double gain;
 
     private final EnhancedItemForge forge;
 
+    /**
+     * LifestealEnhancement's configuration.
+     *
+     * @param chance The chance of healing on each hit.
+     * @param gain The portion of the damage dealt that is healed.
+     */
+    @ConfigRecord
+    public record Config(
+        @Setting(value="0.4", min=0) double chance,
+        @Setting(value="0.25", min=0) double gain) {}
+
     /**
      * Create a LifestealEnhancement.
      *
@@ -61,19 +76,13 @@ public class LifestealEnhancement implements ActiveEnhancement {
      * gain: 0.25
      *
      * @param forge The current EnhancedItemForge.
-     * @param config Configuration options.
+     * @param config Configuration options, bound from its section.
      */
-    public LifestealEnhancement(EnhancedItemForge forge, ConfigurationSection
-        config) {
+    public LifestealEnhancement(EnhancedItemForge forge, Config config) {
         this.forge = forge;
 
-        this.chance = config.getDouble("chance", 0.4);
-        if (this.chance < 0)
-            this.chance = 0.4;
-
-        this.gain = config.getDouble("gain", 0.25);
-        if (this.gain < 0)
-            this.gain = 0.25;
+        this.chance = config.chance();
+        this.gain = config.gain();
     }
 
     @EventHandler(ignoreCancelled=true)
@@ -104,6 +113,8 @@ public class LifestealEnhancement implements ActiveEnhancement {
                 newHealth = maxHealth;
 
             attacker.setHealth(newHealth);
+
+            Probe.activated(this);
         }
     }
 
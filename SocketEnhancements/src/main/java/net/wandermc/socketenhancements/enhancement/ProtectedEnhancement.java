@@ -27,14 +27,17 @@ import org.bukkit.inventory.meta.ItemMeta;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 
 /**
  * Protected enhancement.
  *
  * Stops the item from breaking but will be consumed in the process.
  */
+@RegisteredEnhancement(section="protected", order=10)
 public class ProtectedEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -53,11 +56,10 @@ public class ProtectedEnhancement implements ActiveEnhancement {
 
     @EventHandler(ignoreCancelled=true)
     public void run(PlayerItemBreakEvent context) {
-        EnhancedItem enhancedItem = forge.create(context.getBrokenItem());
-
-        if (!enhancedItem.has(this))
+        if (!forge.has(context.getBrokenItem(), this))
             return;
 
+        EnhancedItem enhancedItem = forge.create(context.getBrokenItem());
         enhancedItem.remove(this);
 
         ItemStack itemStack = enhancedItem.update();
@@ -67,6 +69,8 @@ public class ProtectedEnhancement implements ActiveEnhancement {
             itemStack.setItemMeta(damageable);
             context.getPlayer().getInventory().addItem(itemStack);
         }
+
+        Probe.activated(this);
     }
 
     public String name() {
@@ -17,18 +17,27 @@
  */
 package net.wandermc.socketenhancements.enhancement;
 
-import org.bukkit.Material;
+import java.util.HashMap;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.Particle;
+import org.bukkit.Sound;
+import org.bukkit.SoundCategory;
+import org.bukkit.World;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.AbstractWindCharge;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.potion.PotionEffect;
-import org.bukkit.potion.PotionEffectType;
+import org.bukkit.util.BoundingBox;
 import org.bukkit.util.Vector;
 
 import static io.papermc.paper.tag.BaseTag.ITEMS_FOOT_ARMOR;
@@ -36,38 +45,70 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_FOOT_ARMOR;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 import net.wandermc.socketenhancements.util.cost.CostExperiencePoints;
 
 /**
  * Rebound enhancement.
  *
- * Launches player upwards via a wind charge if they take lava or void damage
+ * Launches player upwards via a wind burst if they take lava or void damage
  * and cancels damage.
  *
+ * The wind burst either comes from a real wind charge entity (ENTITY mode), or
+ * is computed directly (IMPULSE mode): the player's velocity is set, nearby
+ * entities are knocked back and the burst's particles and sound are played,
+ * without an entity ever being spawned.
+ *
  * Costs experience points (configurable)
  */
+@RegisteredEnhancement(section="rebound", order=130)
 public class ReboundEnhancement implements ActiveEnhancement {
+    /**
+     * How the wind burst is produced.
+     */
+    private enum Mode {
+        /**
+         * Spawn a breeze wind charge at the player and explode it.
+         */
+        ENTITY,
+
+        /**
+         * Apply the burst's effects directly.
+         */
+        IMPULSE;
+    }
+
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
         .deserialize("<!italic><white><<dark_purple>Rebound<white>>");
 
-    // Applied when the enhancement is activated, primarily to avoid spawning
-    // multiple wind charges when, say, the player comes into contact with
-    // multiple lava blocks at once.
-    private static final PotionEffect slowFallPotion = new PotionEffect(
-        PotionEffectType.SLOW_FALLING, 5, 1, false, false, false);
-
     private final EnhancedItemForge forge;
 
     private final CostExperiencePoints cost;
+    private final Mode mode;
+    private final int debounceTicks;
+    private final double launchStrength;
+    private final double knockbackRadius;
+    private final double knockbackStrength;
+
+    // Tick each player last activated this enhancement, primarily to avoid
+    // launching a player multiple times when, say, they come into contact with
+    // multiple lava blocks at once.
+    private final HashMap<UUID, Integer> lastActivated = new HashMap<>();
 
     /**
      * Create a ReboundEnhancement.
      *
      * `config` defaults:
      * cost_amount: 8
+     * mode: ENTITY
+     * debounce_ticks: 5
+     * launch_strength: 1.0
+     * knockback_radius: 3.0
+     * knockback_strength: 1.0
      *
      * @param forge The current EnhancedItemForge.
      * @param config Configuration options.
@@ -77,6 +118,34 @@ public class ReboundEnhancement implements ActiveEnhancement {
         this.forge = forge;
 
         this.cost = new CostExperiencePoints(config.getInt("cost_amount", 8));
+
+        Mode mode = Mode.ENTITY;
+        String modeName = config.getString("mode", "ENTITY").strip();
+        for (Mode value : Mode.values()) {
+            if (value.name().equalsIgnoreCase(modeName))
+                mode = value;
+        }
+        this.mode = mode;
+
+        int debounceTicks = config.getInt("debounce_ticks", 5);
+        if (debounceTicks < 0)
+            debounceTicks = 5;
+        this.debounceTicks = debounceTicks;
+
+        double launchStrength = config.getDouble("launch_strength", 1.0);
+        if (launchStrength < 0)
+            launchStrength = 1.0;
+        this.launchStrength = launchStrength;
+
+        double knockbackRadius = config.getDouble("knockback_radius", 3.0);
+        if (knockbackRadius < 0)
+            knockbackRadius = 3.0;
+        this.knockbackRadius = knockbackRadius;
+
+        double knockbackStrength = config.getDouble("knockback_strength", 1.0);
+        if (knockbackStrength < 0)
+            knockbackStrength = 1.0;
+        this.knockbackStrength = knockbackStrength;
     }
 
     @EventHandler(ignoreCancelled=true)
@@ -86,8 +155,12 @@ public class ReboundEnhancement implements ActiveEnhancement {
             return;
 
         if (context.getEntity() instanceof Player player) {
-            if (!cost.met(player) || player.getPotionEffect(
-                PotionEffectType.SLOW_FALLING) != null)
+            int tick = Bukkit.getCurrentTick();
+            Integer last = lastActivated.get(player.getUniqueId());
+            if (last != null && tick - last < debounceTicks)
+                return;
+
+            if (!cost.met(player))
                 return;
 
             ItemStack boots = player.getInventory().getBoots();
@@ -102,23 +175,79 @@ public class ReboundEnhancement implements ActiveEnhancement {
 
             // Prevent activating the enhancement multiple times in the same
             // instant
-            player.addPotionEffect(slowFallPotion);
+            lastActivated.put(player.getUniqueId(), tick);
 
             // Reset player's downwards velocity
             // Otherwise, if they are falling too fast this will be ineffective
             player.setVelocity(new Vector(player.getVelocity().getX(), 0,
                 player.getVelocity().getZ()));
 
-            AbstractWindCharge windCharge = (AbstractWindCharge)
-                player.getWorld().spawnEntity(player.getLocation(),
-                    EntityType.BREEZE_WIND_CHARGE);
+            if (mode == Mode.IMPULSE) {
+                burst(player);
+            } else {
+                AbstractWindCharge windCharge = (AbstractWindCharge)
+                    player.getWorld().spawnEntity(player.getLocation(),
+                        EntityType.BREEZE_WIND_CHARGE);
 
-            windCharge.explode();
+                windCharge.explode();
+            }
 
             cost.take(player);
+
+            Probe.activated(this);
         }
     }
 
+    @EventHandler
+    public void forget(PlayerQuitEvent context) {
+        lastActivated.remove(context.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Apply the effects of a wind burst at `player`'s feet.
+     *
+     * `player` is launched upwards, other entities within `knockbackRadius`
+     * are pushed away from the burst, weaker the further away they are.
+     *
+     * @param player The player to launch.
+     */
+    private void burst(Player player) {
+        Location center = player.getLocation();
+        World world = center.getWorld();
+
+        player.setVelocity(player.getVelocity().setY(launchStrength));
+
+        if (knockbackRadius > 0 && knockbackStrength > 0) {
+            BoundingBox area = BoundingBox.of(center, knockbackRadius,
+                knockbackRadius, knockbackRadius);
+            Vector origin = center.toVector();
+
+            for (Entity entity : world.getNearbyEntities(area, nearby ->
+                nearby != player && !(nearby instanceof Player other
+                && other.getGameMode() == GameMode.SPECTATOR))) {
+                Vector push = entity.getLocation().toVector().subtract(origin);
+                double distance = push.length();
+                if (distance > knockbackRadius)
+                    continue;
+
+                // Entities right on top of the burst are pushed straight up.
+                if (distance < 1.0E-4)
+                    push = new Vector(0, 1, 0);
+                else
+                    push.multiply(1 / distance);
+
+                double strength = knockbackStrength
+                    * (1 - distance / knockbackRadius);
+                entity.setVelocity(entity.getVelocity().add(
+                    push.multiply(strength)));
+            }
+        }
+
+        world.spawnParticle(Particle.GUST_EMITTER_LARGE, center, 1);
+        world.playSound(center, Sound.ENTITY_BREEZE_WIND_BURST,
+            SoundCategory.PLAYERS, 1.0f, 1.0f);
+    }
+
     public String name() {
         return "rebound";
     }
@@ -18,7 +18,6 @@
 package net.wandermc.socketenhancements.enhancement;
 
 import org.bukkit.Material;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
@@ -31,8 +30,12 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 
 import static com.destroystokyo.paper.MaterialTags.ARMOR;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.ConfigRecord;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
+import net.wandermc.socketenhancements.registration.Setting;
 
 import static net.wandermc.socketenhancements.util.Dice.roll;
 
@@ -43,18 +46,33 @@ import static net.wandermc.socketenhancements.util.Dice.roll;
  * back attacker and set them on fire for a brief period, chance increases with
  * each enhanced armour piece.
  */
+@RegisteredEnhancement(section="scorching", order=80)
 public class ScorchingEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
         .deserialize("<!italic><white><<yellow>Scorching<white>>");
 
-    private double chancePerItem;
-    private int fireTicks;
-    private double knockbackStrength;
+    private final double chancePerItem;
+    private final int fireTicks;
+    private final double knockbackStrength;
     private final PotionEffect effect;
 
     private EnhancedItemForge forge;
 
+    /**
+     * ScorchingEnhancement's configuration.
+     *
+     * @param chancePer The chance of scorching added by each enhanced armour
+     *                  piece.
+     * @param fireTicks How long the attacker is set on fire for, in ticks.
+     * @param knockback How hard the attacker is knocked back.
+     */
+    @ConfigRecord
+    public record Config(
+        @Setting(value="0.2", min=0) double chancePer,
+        @Setting(value="30", min=0) int fireTicks,
+        @Setting(value="1.5", min=0, exclusive=true) double knockback) {}
+
     /**
      * Create a Scorching enhancement.
      *
@@ -64,23 +82,14 @@ public class ScorchingEnhancement implements ActiveEnhancement {
      * "knockback": 1.5
      *
      * @param forge The current EnhancedItemForge.
-     * @param config Configuration options.
+     * @param config Configuration options, bound from its section.
      */
-    public ScorchingEnhancement(EnhancedItemForge forge, ConfigurationSection
-        config) {
+    public ScorchingEnhancement(EnhancedItemForge forge, Config config) {
         this.forge = forge;
 
-        this.chancePerItem = config.getDouble("chance_per", 0.2);
-        if (this.chancePerItem < 0)
-            this.chancePerItem = 0.2;
-
-        this.fireTicks = config.getInt("fire_ticks", 30);
-        if (this.fireTicks < 0)
-            this.fireTicks = 30;
-
-        this.knockbackStrength = config.getDouble("knockback", 1.5);
-        if (this.knockbackStrength <= 0)
-            this.knockbackStrength = 1.5;
+        this.chancePerItem = config.chancePer();
+        this.fireTicks = config.fireTicks();
+        this.knockbackStrength = config.knockback();
 
         this.effect = new PotionEffect(PotionEffectType.FIRE_RESISTANCE,
             (int)(this.fireTicks * 1.5), 1);
@@ -106,6 +115,8 @@ public class ScorchingEnhancement implements ActiveEnhancement {
                     attacker.knockback(knockbackStrength,
                         defender.getX() - attacker.getX(),
                         defender.getZ() - attacker.getZ());
+
+                    Probe.activated(this);
                 }
             }
         }
@@ -17,6 +17,7 @@
  */
 package net.wandermc.socketenhancements.enhancement;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.bukkit.configuration.ConfigurationSection;
@@ -24,11 +25,17 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.inventory.ItemStack;
 
+import io.papermc.paper.datacomponent.DataComponentTypes;
+import io.papermc.paper.datacomponent.item.BundleContents;
+import io.papermc.paper.datacomponent.item.ItemContainerContents;
+
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 
 /**
  * Soulbound Enhancement.
@@ -36,8 +43,12 @@ import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
  * Items with this enhancement will remain in a player's inventory on death. May
  * be consumed on use.
  *
+ * Optionally, Soulbound items inside containers (shulker boxes, bundles) that
+ * are dropped are taken out of them and kept as well.
+ *
  * NOT enabled by default.
  */
+@RegisteredEnhancement(section="soulbound", order=170, enabledByDefault=false)
 public class SoulboundEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -46,12 +57,14 @@ public class SoulboundEnhancement implements ActiveEnhancement {
     private final EnhancedItemForge forge;
 
     private final boolean singleUse;
+    private final boolean scanContainers;
 
     /**
      * Create a Soulbound enhancement.
      *
      * `config` defaults:
      * single_use: false
+     * scan_containers: false
      *
      * @param forge The current EnhancedItemForge
      * @param config Configuration options.
@@ -61,6 +74,7 @@ public class SoulboundEnhancement implements ActiveEnhancement {
         this.forge = forge;
 
         this.singleUse = config.getBoolean("single_use", false);
+        this.scanContainers = config.getBoolean("scan_containers", false);
     }
 
     @EventHandler(ignoreCancelled=true)
@@ -69,22 +83,104 @@ public class SoulboundEnhancement implements ActiveEnhancement {
             return;
 
         List<ItemStack> keep = context.getItemsToKeep();
-        List<ItemStack> drops = context.getDrops();
-
-        for (ItemStack drop : drops) {
-            EnhancedItem item = forge.create(drop);
-
-            if (item.has(this)) {
-                if (singleUse) {
-                    item.remove(this);
-                    keep.add(item.update());
-                } else {
-                    keep.add(drop);
-                }
+
+        // `forge.has()` rejects unsocketed items without cloning their meta,
+        // and removeIf removes all kept items in a single pass.
+        context.getDrops().removeIf(drop -> {
+            if (forge.has(drop, this)) {
+                keep.add(use(drop));
+                return true;
+            }
+
+            if (scanContainers)
+                extract(drop, keep);
+            return false;
+        });
+    }
+
+    /**
+     * Use up this enhancement on `item` if it is single use.
+     *
+     * @param item An item with this enhancement.
+     * @return The item to keep.
+     */
+    private ItemStack use(ItemStack item) {
+        Probe.activated(this);
+
+        if (!singleUse)
+            return item;
+
+        EnhancedItem enhancedItem = forge.create(item);
+        enhancedItem.remove(this);
+        return enhancedItem.update();
+    }
+
+    /**
+     * Move any items with this enhancement out of container `item` and into
+     * `keep`, looking inside nested containers too.
+     *
+     * Contents are read from the item's container or bundle contents
+     * components, so no ItemMeta is created for the container.
+     *
+     * @param item The possible container.
+     * @param keep Where to put items with this enhancement.
+     * @return Whether `item` was changed.
+     */
+    private boolean extract(ItemStack item, List<ItemStack> keep) {
+        if (item.hasData(DataComponentTypes.CONTAINER)) {
+            ArrayList<ItemStack> contents = new ArrayList<>(item.getData(
+                DataComponentTypes.CONTAINER).contents());
+            if (!extractAll(contents, keep))
+                return false;
+
+            // Emptied slots are left in place so other items don't move
+            item.setData(DataComponentTypes.CONTAINER,
+                ItemContainerContents.containerContents(contents));
+            return true;
+        }
+
+        if (item.hasData(DataComponentTypes.BUNDLE_CONTENTS)) {
+            ArrayList<ItemStack> contents = new ArrayList<>(item.getData(
+                DataComponentTypes.BUNDLE_CONTENTS).contents());
+            if (!extractAll(contents, keep))
+                return false;
+
+            contents.removeIf(ItemStack::isEmpty);
+            item.setData(DataComponentTypes.BUNDLE_CONTENTS,
+                BundleContents.bundleContents(contents));
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Move any items with this enhancement out of `contents` and into `keep`,
+     * replacing them with empty items.
+     *
+     * @param contents The contents of a container.
+     * @param keep Where to put items with this enhancement.
+     * @return Whether `contents` was changed.
+     */
+    private boolean extractAll(List<ItemStack> contents,
+        List<ItemStack> keep) {
+        boolean changed = false;
+
+        for (int i = 0; i < contents.size(); i++) {
+            ItemStack content = contents.get(i);
+            if (content.isEmpty())
+                continue;
+
+            if (forge.has(content, this)) {
+                keep.add(use(content));
+                contents.set(i, ItemStack.empty());
+                changed = true;
+            } else if (extract(content, keep)) {
+                changed = true;
             }
         }
 
-        drops.remove(keep);
+        return changed;
     }
 
     public String name() {
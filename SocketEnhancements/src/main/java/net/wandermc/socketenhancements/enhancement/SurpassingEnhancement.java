@@ -37,8 +37,10 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_PICKAXES;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 import net.wandermc.socketenhancements.util.cost.CostExperiencePoints;
 import net.wandermc.socketenhancements.util.cost.CostItemDamage;
 
@@ -50,6 +52,7 @@ import static net.wandermc.socketenhancements.util.Dice.roll;
  * Allows bedrock blocks to be broken. Costs experience points, damages pickaxe
  * and may be consumed in the process.
  */
+@RegisteredEnhancement(section="surpassing", order=140)
 public class SurpassingEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage().deserialize(
@@ -201,6 +204,8 @@ public class SurpassingEnhancement implements ActiveEnhancement {
 
             experienceCost.take(player);
             damageCost.take(pickaxe);
+
+            Probe.activated(this);
         }
     }
 
@@ -40,8 +40,10 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_SWORDS;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
 
 /**
  * Undying enhancement.
@@ -50,6 +52,7 @@ import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
  * while holding enhanced item, prevent death, apply configurable buffs and
  * remove the enhancement.
  */
+@RegisteredEnhancement(section="undying", order=110)
 public class UndyingEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
@@ -150,6 +153,8 @@ public class UndyingEnhancement implements ActiveEnhancement {
 
             enhancedShield.remove(this);
             enhancedShield.update();
+
+            Probe.activated(this);
         }
     }
 
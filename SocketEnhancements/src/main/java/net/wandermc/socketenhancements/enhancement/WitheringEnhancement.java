@@ -18,7 +18,6 @@
 package net.wandermc.socketenhancements.enhancement;
 
 import org.bukkit.Material;
-import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.LivingEntity;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
@@ -33,8 +32,12 @@ import static io.papermc.paper.tag.BaseTag.ITEMS_SWORDS;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 
+import net.wandermc.socketenhancements.instrument.Probe;
 import net.wandermc.socketenhancements.item.EnhancedItemForge;
 import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.registration.ConfigRecord;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
+import net.wandermc.socketenhancements.registration.Setting;
 
 import static net.wandermc.socketenhancements.util.Dice.roll;
 
@@ -43,45 +46,47 @@ import static net.wandermc.socketenhancements.util.Dice.roll;
  *
  * On attacking another entity, have a chance to apply wither to them.
  */
+@RegisteredEnhancement(section="withering", order=100)
 public class WitheringEnhancement implements ActiveEnhancement {
     private static final TextComponent socketMessage = (TextComponent)
         MiniMessage.miniMessage()
         .deserialize("<!italic><white><<dark_gray>Withering<white>>");
 
-    private double chance;
+    private final double chance;
     private final PotionEffect effect;
 
     private final EnhancedItemForge forge;
 
+    /**
+     * WitheringEnhancement's configuration.
+     *
+     * @param chance The chance of withering the target on each hit.
+     * @param duration How long the wither effect lasts, in ticks.
+     * @param amplifier The wither effect's amplifier.
+     */
+    @ConfigRecord
+    public record Config(
+        @Setting(value="0.3", min=0) double chance,
+        @Setting(value="100", min=0, exclusive=true) int duration,
+        @Setting(value="1", min=0, exclusive=true) int amplifier) {}
+
     /**
      * Create a WitheringEnhancement.
      *
      * `config` defaults:
      * chance: 0.3
-     * duration: 160
+     * duration: 100
      * amplifier: 1
      *
      * @param forge The current EnhancedItemForge.
-     * @param config ConfigurationOptions.
+     * @param config Configuration options, bound from its section.
      */
-    public WitheringEnhancement(EnhancedItemForge forge, ConfigurationSection
-        config) {
+    public WitheringEnhancement(EnhancedItemForge forge, Config config) {
         this.forge = forge;
 
-        this.chance = config.getDouble("chance", 0.3);
-        if (this.chance < 0)
-            this.chance = 0.3;
-
-        int duration = config.getInt("duration", 100);
-        if (duration <= 0)
-            duration = 100;
-
-        int amplifier = config.getInt("amplifier", 1);
-        if (amplifier <= 0)
-            amplifier = 1;
-
-        this.effect = new PotionEffect(PotionEffectType.WITHER, duration,
-            amplifier);
+        this.chance = config.chance();
+        this.effect = new PotionEffect(PotionEffectType.WITHER,
+            config.duration(), config.amplifier());
     }
 
     @EventHandler(ignoreCancelled=true)
@@ -96,6 +101,8 @@ public class WitheringEnhancement implements ActiveEnhancement {
                     return;
 
                 defender.addPotionEffect(effect);
+
+                Probe.activated(this);
             }
         }
     }
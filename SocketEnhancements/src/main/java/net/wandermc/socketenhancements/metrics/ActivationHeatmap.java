@@ -0,0 +1,369 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementInterceptor;
+import net.wandermc.socketenhancements.enhancement.EnhancementManager;
+import net.wandermc.socketenhancements.instrument.ProbeSink;
+
+/**
+ * Aggregates enhancement activations and handler time by world, chunk region
+ * and enhancement, to find where load concentrates.
+ *
+ * Counts are kept in fixed-size open addressing tables of primitive arrays,
+ * so recording never allocates. Two tables are kept, the current hour and the
+ * last complete hour, swapped every hour. Once a table is three quarters
+ * full, further regions are counted as dropped rather than growing the table,
+ * which keeps probe sequences short.
+ *
+ * Only main thread handler invocations for events with a location (entity,
+ * player and block events) are counted. All access happens on the main
+ * thread, exports copy the tables before handing them off.
+ *
+ * Must be installed as a ProbeSink as well as added to the
+ * EnhancementManager, to count activations.
+ */
+public class ActivationHeatmap implements EnhancementInterceptor, ProbeSink {
+    private static final long TICKS_PER_HOUR = 20 * 60 * 60;
+
+    // Key layout: used flag (1 bit), world (7), enhancement (8), region x
+    // (24) and region z (24).
+    private static final long USED = 1L << 63;
+    private static final int MAX_WORLDS = 1 << 7;
+    private static final int MAX_ENHANCEMENTS = 1 << 8;
+    private static final long COORD_MASK = (1L << 24) - 1;
+
+    /**
+     * The totals for one world, region and enhancement.
+     *
+     * @param world The world's name.
+     * @param regionX Region x coordinate, in regions.
+     * @param regionZ Region z coordinate, in regions.
+     * @param enhancement The enhancement's name.
+     * @param activations Times the enhancement activated.
+     * @param invocations Handler invocations.
+     * @param nanos Total handler time.
+     */
+    public record Cell(String world, int regionX, int regionZ,
+        String enhancement, long activations, long invocations, long nanos) {}
+
+    /**
+     * A copy of one table's contents.
+     *
+     * @param startMillis When the period started, wall clock.
+     * @param cells Every non-empty cell.
+     * @param dropped Invocations that didn't fit in the table.
+     */
+    public record Period(long startMillis, List<Cell> cells, long dropped) {}
+
+    /**
+     * One period's counts.
+     */
+    private static class Table {
+        private final long[] keys;
+        private final long[] activations;
+        private final long[] invocations;
+        private final long[] nanos;
+        // Slots that may be claimed, leaving a quarter of the table empty
+        private final int limit;
+        private int used;
+        private long dropped;
+        private long startMillis = System.currentTimeMillis();
+
+        private Table(int capacity) {
+            keys = new long[capacity];
+            activations = new long[capacity];
+            invocations = new long[capacity];
+            nanos = new long[capacity];
+            limit = capacity - capacity / 4;
+        }
+
+        /**
+         * Find or claim the slot for `key`.
+         *
+         * Probing always ends at an empty slot, as a quarter of the table is
+         * never claimed.
+         *
+         * @return The slot, or -1 if `key` is new and the table is full.
+         */
+        private int slot(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) (mix(key) & mask);
+            while (keys[slot] != 0) {
+                if (keys[slot] == key)
+                    return slot;
+                slot = (slot + 1) & mask;
+            }
+
+            if (used >= limit)
+                return -1;
+            used++;
+            keys[slot] = key;
+            return slot;
+        }
+
+        private void clear() {
+            Arrays.fill(keys, 0);
+            Arrays.fill(activations, 0);
+            Arrays.fill(invocations, 0);
+            Arrays.fill(nanos, 0);
+            used = 0;
+            dropped = 0;
+            startMillis = System.currentTimeMillis();
+        }
+    }
+
+    private final int regionShift;
+
+    private Table current;
+    private Table previous;
+
+    private final HashMap<UUID, Integer> worldIds = new HashMap<>();
+    private final ArrayList<String> worldNames = new ArrayList<>();
+    private final ArrayList<String> enhancementNames = new ArrayList<>();
+    // By normalised name, so an enhancement recreated on reload reuses its ID
+    private final HashMap<String, Integer> enhancementIds = new HashMap<>();
+
+    // Reused for entity locations, main thread only
+    private final Location location = new Location(null, 0, 0, 0);
+
+    // The invocation being counted, for attributing activations
+    private Enhancement currentEnhancement;
+    private Table currentTable;
+    private int currentSlot = -1;
+
+    /**
+     * Create an ActivationHeatmap for `plugin`, and start rolling it over
+     * hourly.
+     *
+     * Note that it still needs to be added to the EnhancementManager and
+     * installed as Probe's sink to record anything.
+     *
+     * `config` defaults:
+     * region_size: 16
+     * capacity: 16384
+     *
+     * @param plugin The plugin to schedule tasks under.
+     * @param config Configuration options.
+     */
+    public ActivationHeatmap(JavaPlugin plugin, ConfigurationSection config) {
+        int regionSize = config.getInt("region_size", 16);
+        if (regionSize < 1 || Integer.bitCount(regionSize) != 1)
+            regionSize = 16;
+        this.regionShift = 4 + Integer.numberOfTrailingZeros(regionSize);
+
+        int capacity = config.getInt("capacity", 16384);
+        if (capacity < 64)
+            capacity = 16384;
+        capacity = Integer.highestOneBit(capacity);
+
+        this.current = new Table(capacity);
+        this.previous = new Table(capacity);
+
+        plugin.getServer().getScheduler().runTaskTimer(plugin, this::roll,
+            TICKS_PER_HOUR, TICKS_PER_HOUR);
+    }
+
+    public Invocation wrap(Enhancement enhancement, Invocation next) {
+        String name = EnhancementManager.normalise(enhancement.name());
+        Integer id = enhancementIds.get(name);
+        if (id == null) {
+            if (enhancementNames.size() >= MAX_ENHANCEMENTS)
+                return next;
+            id = enhancementNames.size();
+            enhancementNames.add(name);
+            enhancementIds.put(name, id);
+        }
+        int enhancementId = id;
+
+        return event -> {
+            if (event == null || !Bukkit.isPrimaryThread()
+                || !locate(event)) {
+                next.proceed(event);
+                return;
+            }
+
+            Table table = current;
+            int slot = slot(table, enhancementId);
+            if (slot < 0) {
+                table.dropped++;
+                next.proceed(event);
+                return;
+            }
+
+            Enhancement outerEnhancement = currentEnhancement;
+            Table outerTable = currentTable;
+            int outerSlot = currentSlot;
+            currentEnhancement = enhancement;
+            currentTable = table;
+            currentSlot = slot;
+
+            long start = System.nanoTime();
+            try {
+                next.proceed(event);
+            } finally {
+                table.invocations[slot]++;
+                table.nanos[slot] += System.nanoTime() - start;
+
+                currentEnhancement = outerEnhancement;
+                currentTable = outerTable;
+                currentSlot = outerSlot;
+            }
+        };
+    }
+
+    public void hit(Enhancement enhancement) {}
+
+    public void activated(Enhancement enhancement) {
+        if (enhancement == currentEnhancement && currentTable != null
+            && Bukkit.isPrimaryThread())
+            currentTable.activations[currentSlot]++;
+    }
+
+    /**
+     * Copy the current (partial) hour and the last complete hour.
+     *
+     * Must be called on the main thread.
+     *
+     * @return The current period first, then the previous one.
+     */
+    public List<Period> snapshot() {
+        return List.of(copy(current), copy(previous));
+    }
+
+    /**
+     * The size of a region's side, in blocks.
+     *
+     * @return The region size.
+     */
+    public int regionBlocks() {
+        return 1 << regionShift;
+    }
+
+    /**
+     * End the current hour.
+     */
+    private void roll() {
+        Table table = previous;
+        table.clear();
+        previous = current;
+        current = table;
+    }
+
+    /**
+     * Put `event`'s location into `location`.
+     *
+     * @param event The event.
+     * @return Whether `event` has a location.
+     */
+    private boolean locate(Event event) {
+        if (event instanceof BlockEvent blockEvent) {
+            Block block = blockEvent.getBlock();
+            location.setWorld(block.getWorld());
+            location.setX(block.getX());
+            location.setZ(block.getZ());
+            return true;
+        }
+
+        Entity entity = null;
+        if (event instanceof EntityEvent entityEvent)
+            entity = entityEvent.getEntity();
+        else if (event instanceof PlayerEvent playerEvent)
+            entity = playerEvent.getPlayer();
+        if (entity == null)
+            return false;
+
+        entity.getLocation(location);
+        return true;
+    }
+
+    /**
+     * The slot in `table` for the location in `location` and
+     * `enhancementId`.
+     *
+     * @return The slot, or -1 if the table is full or there are too many
+     *         worlds.
+     */
+    private int slot(Table table, int enhancementId) {
+        World world = location.getWorld();
+        if (world == null)
+            return -1;
+
+        Integer worldId = worldIds.get(world.getUID());
+        if (worldId == null) {
+            if (worldNames.size() >= MAX_WORLDS)
+                return -1;
+            worldId = worldNames.size();
+            worldIds.put(world.getUID(), worldId);
+            worldNames.add(world.getName());
+        }
+
+        long regionX = location.getBlockX() >> regionShift;
+        long regionZ = location.getBlockZ() >> regionShift;
+        long key = USED | ((long) worldId << 56) | ((long) enhancementId << 48)
+            | ((regionX & COORD_MASK) << 24) | (regionZ & COORD_MASK);
+        return table.slot(key);
+    }
+
+    private Period copy(Table table) {
+        ArrayList<Cell> cells = new ArrayList<>();
+        for (int slot = 0; slot < table.keys.length; slot++) {
+            long key = table.keys[slot];
+            if (key == 0)
+                continue;
+
+            cells.add(new Cell(worldNames.get((int) (key >>> 56) & 0x7F),
+                signExtend((key >>> 24) & COORD_MASK),
+                signExtend(key & COORD_MASK),
+                enhancementNames.get((int) (key >>> 48) & 0xFF),
+                table.activations[slot], table.invocations[slot],
+                table.nanos[slot]));
+        }
+        return new Period(table.startMillis, cells, table.dropped);
+    }
+
+    private static int signExtend(long coord) {
+        return (int) (coord << 40 >> 40);
+    }
+
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.metrics;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementInterceptor;
+import net.wandermc.socketenhancements.enhancement.EnhancementManager;
+import net.wandermc.socketenhancements.enhancement.EnhancementRarity;
+import net.wandermc.socketenhancements.instrument.ProbeSink;
+import net.wandermc.socketenhancements.util.event.BlockableAction;
+
+/**
+ * Records per-enhancement invocation counts, hit rates and handler latency.
+ *
+ * Acts as an EnhancementInterceptor to time every handler invocation and
+ * passive run, and as a ProbeSink to count hits and activations. Totals are
+ * rolled over once a minute (wall clock time, not ticks) to provide rolling
+ * windows.
+ *
+ * Also counts the plugin-wide points reported to Probe: socket reads, blocked
+ * actions, enhancement table rolls and crafting previews. These only ever
+ * grow.
+ */
+public class EnhancementMetrics implements EnhancementInterceptor, ProbeSink {
+    private static final long TICKS_PER_MINUTE = 20 * 60;
+
+    // By normalised name, so an enhancement recreated on reload keeps them
+    private final ConcurrentHashMap<String, EnhancementStats> stats =
+        new ConcurrentHashMap<>();
+
+    private final LongAdder fastDecodes = new LongAdder();
+    private final LongAdder fullDecodes = new LongAdder();
+    // Filled up front, so only ever read after construction
+    private final EnumMap<BlockableAction, LongAdder> denials =
+        new EnumMap<>(BlockableAction.class);
+    private final EnumMap<EnhancementRarity, LongAdder> tableRolls =
+        new EnumMap<>(EnhancementRarity.class);
+    private final ConcurrentHashMap<String, LongAdder> craftPreviews =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Create an EnhancementMetrics for `plugin`, and start rolling its totals.
+     *
+     * Note that it still needs to be added to the EnhancementManager and
+     * installed as Probe's sink to record anything.
+     *
+     * @param plugin The plugin to schedule tasks under.
+     */
+    public EnhancementMetrics(JavaPlugin plugin) {
+        for (BlockableAction action : BlockableAction.values())
+            denials.put(action, new LongAdder());
+        for (EnhancementRarity rarity : EnhancementRarity.values())
+            tableRolls.put(rarity, new LongAdder());
+
+        plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+            () -> stats.values().forEach(EnhancementStats::roll),
+            TICKS_PER_MINUTE, TICKS_PER_MINUTE);
+    }
+
+    public Invocation wrap(Enhancement enhancement, Invocation next) {
+        EnhancementStats enhancementStats = statsFor(enhancement);
+
+        return event -> {
+            enhancementStats.invocations.increment();
+            long start = System.nanoTime();
+            try {
+                next.proceed(event);
+            } finally {
+                enhancementStats.latency.record(System.nanoTime() - start);
+            }
+        };
+    }
+
+    public void hit(Enhancement enhancement) {
+        statsFor(enhancement).hits.increment();
+    }
+
+    public void activated(Enhancement enhancement) {
+        statsFor(enhancement).activations.increment();
+    }
+
+    public void decoded(boolean fastPath) {
+        (fastPath ? fastDecodes : fullDecodes).increment();
+    }
+
+    public void blocked(BlockableAction action) {
+        denials.get(action).increment();
+    }
+
+    public void tableRoll(EnhancementRarity rarity) {
+        tableRolls.get(rarity).increment();
+    }
+
+    public void craftPreview(String recipe) {
+        craftPreviews.computeIfAbsent(recipe, key -> new LongAdder())
+            .increment();
+    }
+
+    /**
+     * Get the stats for `enhancement`, creating them if needed.
+     *
+     * @param enhancement The Enhancement.
+     * @return Its stats.
+     */
+    private EnhancementStats statsFor(Enhancement enhancement) {
+        return stats.computeIfAbsent(
+            EnhancementManager.normalise(enhancement.name()),
+            EnhancementStats::new);
+    }
+
+    /**
+     * Get the stats for the enhancement called `name`.
+     *
+     * @param name The name of the Enhancement.
+     * @return Its stats, or null if nothing has been recorded for it.
+     */
+    public EnhancementStats get(String name) {
+        return stats.get(EnhancementManager.normalise(name));
+    }
+
+    /**
+     * Get the stats for every enhancement.
+     *
+     * @return All stats.
+     */
+    public Collection<EnhancementStats> getAll() {
+        return stats.values();
+    }
+
+    /**
+     * How many times items' sockets have been read.
+     *
+     * @param fastPath Whether to count reads of items with no data, which
+     *                 needed no decoding, or reads that decoded socket data.
+     * @return The number of reads.
+     */
+    public long decodes(boolean fastPath) {
+        return (fastPath ? fastDecodes : fullDecodes).sum();
+    }
+
+    /**
+     * How many times `action` has been blocked.
+     *
+     * @param action The BlockableAction.
+     * @return The number of times it was blocked.
+     */
+    public long denials(BlockableAction action) {
+        return denials.get(action).sum();
+    }
+
+    /**
+     * How many enhancements have been rolled from the table pool for
+     * `rarity`.
+     *
+     * @param rarity The pool's rarity.
+     * @return The number of rolls.
+     */
+    public long tableRolls(EnhancementRarity rarity) {
+        return tableRolls.get(rarity).sum();
+    }
+
+    /**
+     * Crafting previews computed per kind of recipe.
+     *
+     * @return The live counters, keyed by recipe.
+     */
+    public Map<String, LongAdder> craftPreviews() {
+        return craftPreviews;
+    }
+}
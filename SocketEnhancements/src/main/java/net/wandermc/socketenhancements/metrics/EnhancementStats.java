@@ -0,0 +1,163 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Invocation counts and handler latency for a single Enhancement.
+ *
+ * Counters only ever grow, rolling windows are computed by subtracting the
+ * totals recorded at the end of each minute (see `roll()`).
+ */
+public class EnhancementStats {
+    /**
+     * How many minutes of history are kept.
+     */
+    public static final int HISTORY_MINUTES = 15;
+
+    /**
+     * Totals over some period.
+     *
+     * @param invocations Handler invocations / passive runs.
+     * @param hits Times an item was found to have the enhancement.
+     * @param activations Times the enhancement applied its effect.
+     * @param latency Latency histogram bucket counts.
+     * @param max Longest invocation in nanoseconds.
+     */
+    public record Totals(long invocations, long hits, long activations,
+        long[] latency, long max) {
+        /**
+         * The `quantile` invocation latency.
+         *
+         * @param quantile The quantile, from 0 to 1.
+         * @return The latency in nanoseconds, never more than `max`.
+         */
+        public long latency(double quantile) {
+            return Math.min(max, LatencyHistogram.quantile(latency, quantile));
+        }
+    }
+
+    private final String name;
+
+    final LongAdder invocations = new LongAdder();
+    final LongAdder hits = new LongAdder();
+    final LongAdder activations = new LongAdder();
+    final LatencyHistogram latency = new LatencyHistogram();
+
+    // Totals at the end of each of the last HISTORY_MINUTES minutes, oldest
+    // first. Their `max` is the longest invocation during that minute.
+    private final ArrayDeque<Totals> history = new ArrayDeque<>();
+
+    /**
+     * Create an empty EnhancementStats.
+     *
+     * @param name The name of the Enhancement.
+     */
+    EnhancementStats(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The name of the Enhancement these stats are for.
+     *
+     * @return The name.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Totals since the Enhancement was registered, with `max` covering only
+     * the current minute.
+     *
+     * @return The current totals.
+     */
+    public Totals current() {
+        return new Totals(invocations.sum(), hits.sum(), activations.sum(),
+            latency.counts(), latency.max());
+    }
+
+    /**
+     * The total time spent in invocations since the Enhancement was
+     * registered.
+     *
+     * @return The total in nanoseconds.
+     */
+    public long latencySum() {
+        return latency.sum();
+    }
+
+    /**
+     * End the current minute.
+     */
+    synchronized void roll() {
+        long max = latency.resetMax();
+        Totals now = current();
+
+        history.addLast(new Totals(now.invocations(), now.hits(),
+            now.activations(), now.latency(), max));
+        if (history.size() > HISTORY_MINUTES)
+            history.removeFirst();
+    }
+
+    /**
+     * Totals over the last `minutes` minutes (including the current one).
+     *
+     * If less history is available, everything since the Enhancement was
+     * registered is included.
+     *
+     * @param minutes The size of the window, 1 to HISTORY_MINUTES.
+     * @return Totals within the window.
+     */
+    public synchronized Totals window(int minutes) {
+        Totals now = current();
+
+        // The window starts at the end of the minute `minutes` minutes ago,
+        // if there's not enough history every finished minute is included.
+        int skip = history.size() - minutes;
+        Totals base = null;
+        long max = now.max();
+
+        Iterator<Totals> iterator = history.iterator();
+        for (int i = 0; iterator.hasNext(); i++) {
+            Totals totals = iterator.next();
+            if (i < skip)
+                continue;
+
+            if (i == skip)
+                base = totals;
+            else
+                max = Math.max(max, totals.max());
+        }
+
+        if (base == null)
+            return new Totals(now.invocations(), now.hits(),
+                now.activations(), now.latency(), max);
+
+        long[] latencyCounts = now.latency();
+        for (int i = 0; i < latencyCounts.length; i++)
+            latencyCounts[i] -= base.latency()[i];
+
+        return new Totals(now.invocations() - base.invocations(),
+            now.hits() - base.hits(), now.activations() - base.activations(),
+            latencyCounts, max);
+    }
+}
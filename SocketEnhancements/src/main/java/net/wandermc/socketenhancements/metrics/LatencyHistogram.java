@@ -0,0 +1,126 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations in nanoseconds, with power-of-two buckets.
+ *
+ * Bucket `i` counts durations in [2^(i-1), 2^i), so percentiles are accurate
+ * to within a factor of two. Counts are kept in LongAdders, making recording
+ * cheap from any thread.
+ */
+public class LatencyHistogram {
+    /**
+     * The number of buckets, the last covers everything from ~4.6 minutes.
+     */
+    public static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Create an empty LatencyHistogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new LongAdder();
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param nanos The duration in nanoseconds, negative values count as 0.
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+
+        buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))]
+            .increment();
+        max.accumulate(nanos);
+        total.add(nanos);
+    }
+
+    /**
+     * The count of every bucket.
+     *
+     * @return A copy of the bucket counts.
+     */
+    public long[] counts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            counts[i] = buckets[i].sum();
+        return counts;
+    }
+
+    /**
+     * The longest duration recorded since the last call to `resetMax()`.
+     *
+     * @return The maximum duration in nanoseconds.
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * The sum of every duration recorded.
+     *
+     * @return The total in nanoseconds.
+     */
+    public long sum() {
+        return total.sum();
+    }
+
+    /**
+     * Get the longest duration recorded since the last call, then reset it.
+     *
+     * @return The maximum duration in nanoseconds.
+     */
+    public long resetMax() {
+        return max.getThenReset();
+    }
+
+    /**
+     * Estimate the `quantile` of a set of bucket counts.
+     *
+     * @param counts Bucket counts, as returned by `counts()`.
+     * @param quantile The quantile, from 0 to 1.
+     * @return The upper bound of the bucket containing `quantile`, in
+     *         nanoseconds. 0 if `counts` is empty.
+     */
+    public static long quantile(long[] counts, double quantile) {
+        long total = 0;
+        for (long count : counts)
+            total += count;
+        if (total == 0)
+            return 0;
+
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && seen > 0)
+                return i == 0 ? 0 : (1L << i) - 1;
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import net.wandermc.socketenhancements.enhancement.EnhancementRarity;
+import net.wandermc.socketenhancements.util.event.BlockableAction;
+
+/**
+ * Serves EnhancementMetrics over HTTP in the Prometheus text format, at
+ * `http://127.0.0.1:<port>/metrics`.
+ *
+ * Only listens on the loopback address. Requests are handled, and metrics
+ * rendered, on a single thread of the exporter's own: rendering only reads
+ * counters, and never waits on or schedules work for the main thread.
+ */
+public class PrometheusExporter {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final EnhancementMetrics metrics;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Create a PrometheusExporter and start serving `metrics`.
+     *
+     * @param metrics The metrics to serve.
+     * @param port The port to listen on.
+     * @throws IOException If the port couldn't be bound.
+     */
+    public PrometheusExporter(EnhancementMetrics metrics, int port)
+        throws IOException {
+        this.metrics = metrics;
+
+        this.server = HttpServer.create(new InetSocketAddress(
+            InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable,
+                "SocketEnhancements Prometheus exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Stop serving metrics.
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")
+                && !exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type",
+                "text/plain; version=0.0.4; charset=utf-8");
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Render every metric.
+     *
+     * @return The metrics in the Prometheus text format.
+     */
+    String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        header(out, "invocations_total", "counter",
+            "Enhancement handler invocations and passive runs.");
+        for (EnhancementStats stats : metrics.getAll())
+            sample(out, "invocations_total", "enhancement", stats.name(),
+                stats.current().invocations());
+
+        header(out, "hits_total", "counter",
+            "Times an item was found to have an enhancement.");
+        for (EnhancementStats stats : metrics.getAll())
+            sample(out, "hits_total", "enhancement", stats.name(),
+                stats.current().hits());
+
+        header(out, "activations_total", "counter",
+            "Times an enhancement applied its effect.");
+        for (EnhancementStats stats : metrics.getAll())
+            sample(out, "activations_total", "enhancement", stats.name(),
+                stats.current().activations());
+
+        header(out, "handler_latency_seconds", "summary",
+            "Enhancement handler latency, quantiles over the last minute.");
+        for (EnhancementStats stats : metrics.getAll()) {
+            EnhancementStats.Totals lastMinute = stats.window(1);
+            String name = escape(stats.name());
+            for (double quantile : QUANTILES) {
+                out.append("socketenhancements_handler_latency_seconds")
+                    .append("{enhancement=\"").append(name)
+                    .append("\",quantile=\"").append(quantile).append("\"} ")
+                    .append(lastMinute.latency(quantile) / 1e9).append('\n');
+            }
+            sample(out, "handler_latency_seconds_sum", "enhancement",
+                stats.name(), stats.latencySum() / 1e9);
+            sample(out, "handler_latency_seconds_count", "enhancement",
+                stats.name(), stats.current().invocations());
+        }
+
+        header(out, "socket_reads_total", "counter",
+            "Item socket reads, by whether the item had data to decode.");
+        sample(out, "socket_reads_total", "path", "fast",
+            metrics.decodes(true));
+        sample(out, "socket_reads_total", "path", "decode",
+            metrics.decodes(false));
+
+        header(out, "blocker_denials_total", "counter",
+            "Item uses blocked, by BlockableAction.");
+        for (BlockableAction action : BlockableAction.values())
+            sample(out, "blocker_denials_total", "action", action.name(),
+                metrics.denials(action));
+
+        header(out, "table_rolls_total", "counter",
+            "Enhancements rolled at enhancement tables, by rarity pool.");
+        for (EnhancementRarity rarity : EnhancementRarity.values()) {
+            if (rarity != EnhancementRarity.IMPOSSIBLE)
+                sample(out, "table_rolls_total", "pool", rarity.name(),
+                    metrics.tableRolls(rarity));
+        }
+
+        header(out, "craft_previews_total", "counter",
+            "Crafting results previewed, by recipe.");
+        metrics.craftPreviews().forEach((recipe, count) -> sample(out,
+            "craft_previews_total", "recipe", recipe, count.sum()));
+
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type,
+        String help) {
+        out.append("# HELP socketenhancements_").append(name).append(' ')
+            .append(help).append('\n');
+        out.append("# TYPE socketenhancements_").append(name).append(' ')
+            .append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String label,
+        String labelValue, double value) {
+        out.append("socketenhancements_").append(name).append('{')
+            .append(label).append("=\"").append(escape(labelValue))
+            .append("\"} ");
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            out.append((long) value);
+        else
+            out.append(value);
+        out.append('\n');
+    }
+
+    /**
+     * Escape `value` for use as a label value.
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"")
+            .replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.migrate;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal reader and writer for Minecraft's NBT format, enough to rewrite
+ * saved items offline without a server.
+ *
+ * Compounds are read into LinkedHashMaps (keeping their order), lists into
+ * ListTags and every other tag into the matching boxed primitive, String or
+ * array. Writing a tree read by `read()` reproduces it exactly.
+ */
+final class Nbt {
+    static final byte END = 0;
+    static final byte BYTE = 1;
+    static final byte SHORT = 2;
+    static final byte INT = 3;
+    static final byte LONG = 4;
+    static final byte FLOAT = 5;
+    static final byte DOUBLE = 6;
+    static final byte BYTE_ARRAY = 7;
+    static final byte STRING = 8;
+    static final byte LIST = 9;
+    static final byte COMPOUND = 10;
+    static final byte INT_ARRAY = 11;
+    static final byte LONG_ARRAY = 12;
+
+    // Same as the game's own limit
+    private static final int MAX_DEPTH = 512;
+
+    /**
+     * A list tag, every value is of type `type`.
+     *
+     * @param type The type of the list's values.
+     * @param values The values.
+     */
+    record ListTag(byte type, List<Object> values) {}
+
+    /**
+     * A named root compound, as stored in chunks and player files.
+     *
+     * @param name The root's name, usually empty.
+     * @param compound The root compound.
+     */
+    record Root(String name, Map<String, Object> compound) {}
+
+    private Nbt() {}
+
+    /**
+     * Read a named root compound from `in`.
+     *
+     * @param in The input.
+     * @return The root.
+     * @throws IOException If `in` can't be read or doesn't hold a compound.
+     */
+    static Root read(DataInput in) throws IOException {
+        if (in.readByte() != COMPOUND)
+            throw new IOException("Root tag isn't a compound");
+        String name = in.readUTF();
+        return new Root(name, readCompound(in, 0));
+    }
+
+    /**
+     * Write `root` to `out`.
+     *
+     * @param out The output.
+     * @param root The root to write.
+     */
+    static void write(DataOutput out, Root root) throws IOException {
+        out.writeByte(COMPOUND);
+        out.writeUTF(root.name());
+        writeCompound(out, root.compound());
+    }
+
+    private static Map<String, Object> readCompound(DataInput in, int depth)
+        throws IOException {
+        LinkedHashMap<String, Object> compound = new LinkedHashMap<>();
+        byte type;
+        while ((type = in.readByte()) != END) {
+            String name = in.readUTF();
+            compound.put(name, readPayload(in, type, depth + 1));
+        }
+        return compound;
+    }
+
+    private static Object readPayload(DataInput in, byte type, int depth)
+        throws IOException {
+        if (depth > MAX_DEPTH)
+            throw new IOException("NBT nested too deeply");
+
+        switch (type) {
+            case BYTE:
+                return in.readByte();
+            case SHORT:
+                return in.readShort();
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case FLOAT:
+                return in.readFloat();
+            case DOUBLE:
+                return in.readDouble();
+            case BYTE_ARRAY:
+                byte[] bytes = new byte[length(in)];
+                in.readFully(bytes);
+                return bytes;
+            case STRING:
+                return in.readUTF();
+            case LIST:
+                byte listType = in.readByte();
+                int size = length(in);
+                ArrayList<Object> values = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    values.add(readPayload(in, listType, depth + 1));
+                return new ListTag(listType, values);
+            case COMPOUND:
+                return readCompound(in, depth);
+            case INT_ARRAY:
+                int[] ints = new int[length(in)];
+                for (int i = 0; i < ints.length; i++)
+                    ints[i] = in.readInt();
+                return ints;
+            case LONG_ARRAY:
+                long[] longs = new long[length(in)];
+                for (int i = 0; i < longs.length; i++)
+                    longs[i] = in.readLong();
+                return longs;
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    private static int length(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            throw new IOException("Negative NBT length " + length);
+        return length;
+    }
+
+    private static void writeCompound(DataOutput out,
+        Map<String, Object> compound) throws IOException {
+        for (Map.Entry<String, Object> entry : compound.entrySet()) {
+            out.writeByte(typeOf(entry.getValue()));
+            out.writeUTF(entry.getKey());
+            writePayload(out, entry.getValue());
+        }
+        out.writeByte(END);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writePayload(DataOutput out, Object value)
+        throws IOException {
+        switch (value) {
+            case Byte b -> out.writeByte(b);
+            case Short s -> out.writeShort(s);
+            case Integer i -> out.writeInt(i);
+            case Long l -> out.writeLong(l);
+            case Float f -> out.writeFloat(f);
+            case Double d -> out.writeDouble(d);
+            case byte[] bytes -> {
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            case String string -> out.writeUTF(string);
+            case ListTag list -> {
+                out.writeByte(list.type());
+                out.writeInt(list.values().size());
+                for (Object element : list.values())
+                    writePayload(out, element);
+            }
+            case Map<?, ?> compound ->
+                writeCompound(out, (Map<String, Object>) compound);
+            case int[] ints -> {
+                out.writeInt(ints.length);
+                for (int i : ints)
+                    out.writeInt(i);
+            }
+            case long[] longs -> {
+                out.writeInt(longs.length);
+                for (long l : longs)
+                    out.writeLong(l);
+            }
+            default -> throw new IOException("Not an NBT value: "
+                + value.getClass().getName());
+        }
+    }
+
+    private static byte typeOf(Object value) throws IOException {
+        return switch (value) {
+            case Byte b -> BYTE;
+            case Short s -> SHORT;
+            case Integer i -> INT;
+            case Long l -> LONG;
+            case Float f -> FLOAT;
+            case Double d -> DOUBLE;
+            case byte[] bytes -> BYTE_ARRAY;
+            case String string -> STRING;
+            case ListTag list -> LIST;
+            case Map<?, ?> compound -> COMPOUND;
+            case int[] ints -> INT_ARRAY;
+            case long[] longs -> LONG_ARRAY;
+            default -> throw new IOException("Not an NBT value: "
+                + value.getClass().getName());
+        };
+    }
+}
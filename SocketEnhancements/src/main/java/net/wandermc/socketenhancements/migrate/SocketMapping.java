@@ -0,0 +1,106 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.migrate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * The changes to make to the sockets of every migrated item.
+ *
+ * Renamed enhancements are replaced in place, removed enhancements leave an
+ * empty socket behind, the same as `/sea replace` and `/sea remove`. When
+ * normalising, every name is first re-encoded the way the EnhancementManager
+ * stores names (lower case, no surrounding whitespace, spaces as
+ * underscores).
+ */
+final class SocketMapping {
+    // The name EmptySocket is stored under
+    private static final String EMPTY = "";
+
+    private final HashMap<String, String> replacements = new HashMap<>();
+    private boolean normalise;
+
+    /**
+     * Replace `from` with `to`.
+     *
+     * @param from The enhancement to replace.
+     * @param to Its replacement.
+     */
+    void rename(String from, String to) {
+        replacements.put(from, to);
+    }
+
+    /**
+     * Replace `name` with an empty socket.
+     *
+     * @param name The enhancement to remove.
+     */
+    void remove(String name) {
+        replacements.put(name, EMPTY);
+    }
+
+    /**
+     * Re-encode every name before renaming or removing.
+     */
+    void normalise() {
+        this.normalise = true;
+    }
+
+    /**
+     * Whether this mapping would never change anything.
+     *
+     * @return Whether this mapping is empty.
+     */
+    boolean isEmpty() {
+        return replacements.isEmpty() && !normalise;
+    }
+
+    /**
+     * Apply this mapping to `sockets`.
+     *
+     * @param sockets An item's socket list.
+     * @return The new socket list, or null if nothing changed.
+     */
+    List<String> apply(List<String> sockets) {
+        ArrayList<String> mapped = null;
+        for (int i = 0; i < sockets.size(); i++) {
+            String socket = sockets.get(i);
+            String result = normalise ? normalise(socket) : socket;
+            result = replacements.getOrDefault(result, result);
+
+            if (!result.equals(socket)) {
+                if (mapped == null)
+                    mapped = new ArrayList<>(sockets);
+                mapped.set(i, result);
+            }
+        }
+        return mapped;
+    }
+
+    /**
+     * Normalise `name` the same way the EnhancementManager does.
+     *
+     * @param name The name to normalise.
+     * @return The normal form.
+     */
+    static String normalise(String name) {
+        return name.toLowerCase().strip().replace(' ', '_');
+    }
+}
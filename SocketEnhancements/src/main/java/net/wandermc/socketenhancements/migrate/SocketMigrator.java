@@ -0,0 +1,578 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.migrate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+import net.wandermc.socketenhancements.migrate.Nbt.ListTag;
+import net.wandermc.socketenhancements.migrate.Nbt.Root;
+
+/**
+ * Rewrites the sockets of every item saved in a world, for when an
+ * enhancement is renamed or retired.
+ *
+ * Must be run while the server is stopped, with the plugin's jar:
+ * `java -jar SocketEnhancements.jar [options] {world folders}`
+ *
+ * Options:
+ * - --rename {from}={to} - Replace enhancement `from` with `to`.
+ * - --remove {name} - Replace enhancement `name` with an empty socket.
+ * - --normalise - Re-encode every enhancement name the way the plugin stores
+ *   names, applied before renames and removals.
+ * - --dry-run - Count what would change without writing anything.
+ * - --threads {n} - How many threads to use, defaults to one per core.
+ *
+ * Block entities and entities in region files (`region/` and `entities/`)
+ * and players' inventories and ender chests in `playerdata/` are migrated,
+ * including items nested in shulker boxes, bundles and other containers.
+ * Files are memory-mapped and chunks decompressed in parallel, chunks that
+ * don't mention the sockets key at all are never parsed. Changed files are
+ * written to a temporary file first and then moved over the original.
+ *
+ * Item lore isn't touched, since enhancement descriptions can't be rendered
+ * without the server. It's rewritten the next time the item is updated.
+ */
+public final class SocketMigrator {
+    private static final String SOCKETS_KEY = "socketenhancements:sockets";
+    private static final byte[] SOCKETS_KEY_BYTES = SOCKETS_KEY.getBytes();
+
+    private static final int SECTOR = 4096;
+    private static final int CHUNKS = 1024;
+    private static final int MAX_SECTORS = 255;
+
+    private static final byte GZIP = 1;
+    private static final byte ZLIB = 2;
+    private static final byte UNCOMPRESSED = 3;
+
+    private final SocketMapping mapping;
+    private final boolean dryRun;
+
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder changedItems = new LongAdder();
+    private final LongAdder changedChunks = new LongAdder();
+    private final LongAdder changedFiles = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Create a SocketMigrator.
+     *
+     * @param mapping The changes to make.
+     * @param dryRun Whether to only count changes, without writing them.
+     */
+    SocketMigrator(SocketMapping mapping, boolean dryRun) {
+        this.mapping = mapping;
+        this.dryRun = dryRun;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SocketMapping mapping = new SocketMapping();
+        ArrayList<Path> worlds = new ArrayList<>();
+        boolean dryRun = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--rename" -> {
+                    String[] pair = i + 1 < args.length
+                        ? args[++i].split("=", 2) : new String[0];
+                    if (pair.length != 2)
+                        usage("--rename expects {from}={to}");
+                    mapping.rename(pair[0], pair[1]);
+                }
+                case "--remove" -> {
+                    if (i + 1 >= args.length)
+                        usage("--remove expects an enhancement name");
+                    mapping.remove(args[++i]);
+                }
+                case "--normalise" -> mapping.normalise();
+                case "--dry-run" -> dryRun = true;
+                case "--threads" -> {
+                    try {
+                        threads = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException
+                        | ArrayIndexOutOfBoundsException e) {
+                        threads = -1;
+                    }
+                    if (threads < 1)
+                        usage("--threads expects a positive number");
+                }
+                default -> {
+                    if (arg.startsWith("--"))
+                        usage("Unknown option " + arg);
+                    worlds.add(Path.of(arg));
+                }
+            }
+        }
+        if (worlds.isEmpty())
+            usage("No world folders given");
+        if (mapping.isEmpty())
+            usage("Nothing to do, give --rename, --remove or --normalise");
+
+        ArrayList<Path> files = new ArrayList<>();
+        for (Path world : worlds) {
+            if (!Files.isDirectory(world))
+                usage(world + " isn't a folder");
+            if (isLocked(world))
+                usage(world + " is in use, stop the server first");
+            files.addAll(findFiles(world));
+        }
+
+        SocketMigrator migrator = new SocketMigrator(mapping, dryRun);
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> files.parallelStream()
+                .forEach(migrator::migrateFile)).get();
+        } finally {
+            pool.shutdown();
+        }
+        migrator.report(System.nanoTime() - start);
+
+        System.exit(migrator.failed.sum() > 0 ? 1 : 0);
+    }
+
+    /**
+     * Migrate one region or player file, counting any failure.
+     *
+     * @param file The file.
+     */
+    void migrateFile(Path file) {
+        try {
+            if (file.toString().endsWith(".mca"))
+                migrateRegion(file);
+            else
+                migratePlayer(file);
+            files.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            System.err.println("Unable to migrate " + file + ": " + e);
+        }
+    }
+
+    /**
+     * Migrate every chunk in the region file `file`.
+     *
+     * Chunks are decompressed and migrated in parallel. Unchanged chunks,
+     * including those stored in their own `.mcc` file, are copied to the new
+     * file as they are. If a chunk is damaged, the region file is left alone.
+     */
+    private void migrateRegion(Path file) throws IOException {
+        MappedByteBuffer region;
+        try (FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 2 * SECTOR)
+                return;
+            bytes.add(size);
+            region = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        byte[][] rewritten = new byte[CHUNKS][];
+        LongAdder changed = new LongAdder();
+        IntStream.range(0, CHUNKS).parallel().forEach(index -> {
+            int offset = chunkOffset(region, index);
+            if (offset < 0)
+                return;
+
+            chunks.increment();
+            try {
+                rewritten[index] = migrateChunk(region, offset);
+            } catch (IOException e) {
+                throw new RuntimeException("Chunk " + index + ": "
+                    + e.getMessage(), e);
+            }
+            if (rewritten[index] != null)
+                changed.increment();
+        });
+
+        if (changed.sum() == 0)
+            return;
+        changedChunks.add(changed.sum());
+        changedFiles.increment();
+        if (dryRun)
+            return;
+
+        int now = (int) (System.currentTimeMillis() / 1000);
+        ByteBuffer header = ByteBuffer.allocate(2 * SECTOR);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+            region.capacity());
+        out.write(header.array(), 0, 2 * SECTOR);
+
+        int sector = 2;
+        for (int index = 0; index < CHUNKS; index++) {
+            byte[] data = rewritten[index];
+            int timestamp = region.getInt(SECTOR + index * 4);
+            if (data != null) {
+                timestamp = now;
+            } else {
+                data = storedChunk(region, index);
+                if (data == null)
+                    continue;
+            }
+
+            int sectors = (data.length + SECTOR - 1) / SECTOR;
+            out.write(data, 0, data.length);
+            out.write(new byte[sectors * SECTOR - data.length], 0,
+                sectors * SECTOR - data.length);
+            header.putInt(index * 4, (sector << 8) | sectors);
+            header.putInt(SECTOR + index * 4, timestamp);
+            sector += sectors;
+        }
+
+        byte[] result = out.toByteArray();
+        System.arraycopy(header.array(), 0, result, 0, 2 * SECTOR);
+        replace(file, output -> output.write(result));
+    }
+
+    /**
+     * Where chunk `index` starts in `region`.
+     *
+     * @return The offset of the chunk's length, or -1 if the chunk is absent,
+     *         damaged or stored in its own file.
+     */
+    private static int chunkOffset(ByteBuffer region, int index) {
+        int location = region.getInt(index * 4);
+        long offset = (long) (location >>> 8) * SECTOR;
+        if (location == 0 || offset + 5 > region.capacity())
+            return -1;
+
+        int length = region.getInt((int) offset);
+        // Chunks too big for the region file live in a separate .mcc file
+        if (length < 2 || offset + 4 + length > region.capacity()
+            || (region.get((int) offset + 4) & 0x80) != 0)
+            return -1;
+        return (int) offset;
+    }
+
+    /**
+     * Chunk `index` as stored in `region`, to copy it unchanged.
+     *
+     * For chunks stored in their own `.mcc` file, only the stub holding the
+     * length and compression type is in the region file, and that is copied.
+     *
+     * @return The chunk, with its length and compression type, or null if the
+     *         chunk is absent.
+     * @throws IOException If the chunk's location or length is damaged, as it
+     *         would otherwise be lost.
+     */
+    private static byte[] storedChunk(ByteBuffer region, int index)
+        throws IOException {
+        int location = region.getInt(index * 4);
+        if (location == 0)
+            return null;
+
+        long offset = (long) (location >>> 8) * SECTOR;
+        int length = offset + 5 > region.capacity() ? -1
+            : region.getInt((int) offset);
+        if (length < 1 || offset + 4 + length > region.capacity())
+            throw new IOException("Chunk " + index + " is damaged, the "
+                + "region file was left unchanged");
+
+        byte[] data = new byte[length + 4];
+        region.get((int) offset, data);
+        return data;
+    }
+
+    /**
+     * Migrate the chunk starting at `offset` in `region`.
+     *
+     * @return The new chunk, with its length and compression type, or null if
+     *         it didn't change.
+     */
+    private byte[] migrateChunk(ByteBuffer region, int offset)
+        throws IOException {
+        int length = region.getInt(offset);
+        byte compression = region.get(offset + 4);
+        ByteBuffer data = region.slice(offset + 5, length - 1);
+
+        byte[] nbt = switch (compression) {
+            case GZIP -> gunzip(data);
+            case ZLIB -> inflate(data);
+            case UNCOMPRESSED -> {
+                byte[] raw = new byte[data.remaining()];
+                data.get(raw);
+                yield raw;
+            }
+            // LZ4 or custom compression, which need the server
+            default -> null;
+        };
+        if (nbt == null) {
+            skipped.increment();
+            return null;
+        }
+
+        // Most chunks hold no enhanced items at all
+        if (!contains(nbt, SOCKETS_KEY_BYTES))
+            return null;
+
+        Root root = Nbt.read(new DataInputStream(
+            new ByteArrayInputStream(nbt)));
+        int changed = migrate(root.compound());
+        if (changed == 0)
+            return null;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(nbt.length);
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(0);
+        header.writeByte(compression);
+        try (DataOutputStream body = new DataOutputStream(switch (compression) {
+            case GZIP -> new GZIPOutputStream(out);
+            case ZLIB -> new DeflaterOutputStream(out);
+            default -> out;
+        })) {
+            Nbt.write(body, root);
+        }
+
+        byte[] chunk = out.toByteArray();
+        if (chunk.length > MAX_SECTORS * SECTOR) {
+            skipped.increment();
+            return null;
+        }
+        ByteBuffer.wrap(chunk).putInt(0, chunk.length - 4);
+
+        changedItems.add(changed);
+        return chunk;
+    }
+
+    /**
+     * Migrate a gzip compressed player file.
+     */
+    private void migratePlayer(Path file) throws IOException {
+        byte[] nbt;
+        try (FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.READ)) {
+            long size = channel.size();
+            bytes.add(size);
+            nbt = gunzip(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+        if (!contains(nbt, SOCKETS_KEY_BYTES))
+            return;
+
+        Root root = Nbt.read(new DataInputStream(
+            new ByteArrayInputStream(nbt)));
+        int changed = migrate(root.compound());
+        if (changed == 0)
+            return;
+
+        changedItems.add(changed);
+        changedFiles.increment();
+        if (dryRun)
+            return;
+
+        replace(file, output -> {
+            try (DataOutputStream out = new DataOutputStream(
+                new GZIPOutputStream(output))) {
+                Nbt.write(out, root);
+            }
+        });
+    }
+
+    /**
+     * Apply the mapping to every item in `tag` and its children.
+     *
+     * Any compound with a sockets list in its `PublicBukkitValues` is an
+     * enhanced item, whether stored under the item components of current
+     * versions or the `tag` of older ones.
+     *
+     * @param tag The tag to search.
+     * @return How many items changed.
+     */
+    @SuppressWarnings("unchecked")
+    private int migrate(Object tag) {
+        int changed = 0;
+        if (tag instanceof Map<?, ?> compound) {
+            if (compound.get("PublicBukkitValues") instanceof Map<?, ?> values
+                && values.get(SOCKETS_KEY) instanceof ListTag list
+                && list.type() == Nbt.STRING) {
+                List<String> mapped = mapping.apply(
+                    (List<String>) (List<?>) list.values());
+                if (mapped != null) {
+                    ((Map<String, Object>) values).put(SOCKETS_KEY,
+                        new ListTag(Nbt.STRING, new ArrayList<>(mapped)));
+                    changed++;
+                }
+            }
+
+            for (Object value : compound.values())
+                changed += migrate(value);
+        } else if (tag instanceof ListTag list
+            && (list.type() == Nbt.COMPOUND || list.type() == Nbt.LIST)) {
+            for (Object value : list.values())
+                changed += migrate(value);
+        }
+        return changed;
+    }
+
+    /**
+     * Print what was done.
+     *
+     * @param nanos How long it took.
+     */
+    private void report(long nanos) {
+        double seconds = nanos / 1e9;
+        double megabytes = bytes.sum() / (1024.0 * 1024.0);
+        System.out.printf("Scanned %d files (%.1f MB, %d chunks) in %.1fs, "
+            + "%.1f MB/s%n", files.sum(), megabytes, chunks.sum(), seconds,
+            megabytes / Math.max(seconds, 1e-9));
+        System.out.printf("%s %d items in %d chunks, %d files%n",
+            dryRun ? "Would change" : "Changed", changedItems.sum(),
+            changedChunks.sum(), changedFiles.sum());
+        if (skipped.sum() > 0)
+            System.out.println("Skipped " + skipped.sum() + " chunks with "
+                + "unsupported compression or too large to rewrite");
+        if (failed.sum() > 0)
+            System.out.println(failed.sum() + " files failed, see above");
+    }
+
+    /**
+     * Every region and player file in `world`.
+     */
+    private static List<Path> findFiles(Path world) throws IOException {
+        try (Stream<Path> paths = Files.walk(world)) {
+            return paths.filter(Files::isRegularFile).filter(path -> {
+                String name = path.getFileName().toString();
+                String parent = path.getParent().getFileName().toString();
+                if (name.endsWith(".mca"))
+                    return parent.equals("region")
+                        || parent.equals("entities");
+                return name.endsWith(".dat") && parent.equals("playerdata");
+            }).toList();
+        }
+    }
+
+    /**
+     * Whether a server holds `world`'s session lock.
+     */
+    private static boolean isLocked(Path world) throws IOException {
+        Path lock = world.resolve("session.lock");
+        if (!Files.exists(lock))
+            return false;
+
+        try (FileChannel channel = FileChannel.open(lock,
+            StandardOpenOption.WRITE)) {
+            FileLock held = channel.tryLock();
+            if (held == null)
+                return true;
+            held.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            return true;
+        }
+    }
+
+    private static byte[] gunzip(ByteBuffer data) throws IOException {
+        byte[] compressed = new byte[data.remaining()];
+        data.get(compressed);
+        try (InputStream in = new GZIPInputStream(
+            new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] out = new byte[Math.max(data.remaining() * 4, 1024)];
+            int size = 0;
+            while (!inflater.finished()) {
+                if (size == out.length)
+                    out = Arrays.copyOf(out, out.length * 2);
+                int inflated = inflater.inflate(out, size, out.length - size);
+                if (inflated == 0 && (inflater.needsInput()
+                    || inflater.needsDictionary()))
+                    throw new IOException("Truncated chunk");
+                size += inflated;
+            }
+            return Arrays.copyOf(out, size);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt chunk", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static boolean contains(byte[] data, byte[] needle) {
+        outer:
+        for (int i = 0; i <= data.length - needle.length; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (data[i + j] != needle[j])
+                    continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: java -jar SocketEnhancements.jar "
+            + "[--rename {from}={to}]... [--remove {name}]... [--normalise] "
+            + "[--dry-run] [--threads {n}] {world folders}");
+        System.exit(2);
+    }
+
+    /**
+     * Replace `file` with whatever `writer` writes, by way of a temporary file
+     * next to it.
+     */
+    private static void replace(Path file, Writer writer) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            writer.write(out);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private interface Writer {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.profiler;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Samples the server's tick threads, keeping only stacks that pass through
+ * SocketEnhancements' code.
+ *
+ * Samples are taken on a daemon thread at a fixed interval and aggregated by
+ * stack, so memory is bounded by the number of distinct stacks kept rather
+ * than the length of the run. Once that limit is reached, samples with new
+ * stacks are only counted as dropped.
+ *
+ * Results are written in the collapsed stack format (one
+ * `frame;frame;frame count` line per stack, root first), which flame graph
+ * tools such as flamegraph.pl and speedscope read directly.
+ *
+ * The main thread is always sampled. On Folia, the region scheduler threads
+ * are sampled as well, looked up again every few seconds.
+ */
+public class SamplingProfiler {
+    private static final String PACKAGE = "net.wandermc.socketenhancements.";
+    private static final String PROFILER_CLASS =
+        SamplingProfiler.class.getName();
+    private static final String REGION_THREAD_PREFIX =
+        "Region Scheduler Thread";
+    private static final int MAX_DEPTH = 256;
+    private static final long TARGET_REFRESH_NANOS = 5_000_000_000L;
+
+    private static final DateTimeFormatter FILE_NAME =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final JavaPlugin plugin;
+    private final Thread mainThread;
+    private final boolean folia;
+    private final long intervalMillis;
+    private final int maxStacks;
+
+    private volatile Thread sampler;
+
+    /**
+     * Create a SamplingProfiler, must be called on the main thread.
+     *
+     * `config` defaults:
+     * interval_ms: 10
+     * max_stacks: 20000
+     *
+     * @param plugin The plugin to write profiles for.
+     * @param config Configuration options.
+     */
+    public SamplingProfiler(JavaPlugin plugin, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.mainThread = Thread.currentThread();
+        this.folia = isFolia();
+
+        long intervalMillis = config.getLong("interval_ms", 10);
+        if (intervalMillis < 1)
+            intervalMillis = 10;
+        this.intervalMillis = intervalMillis;
+
+        int maxStacks = config.getInt("max_stacks", 20000);
+        if (maxStacks < 1)
+            maxStacks = 20000;
+        this.maxStacks = maxStacks;
+    }
+
+    /**
+     * Start sampling for `seconds`, then write the profile to the plugin's
+     * `profiles` folder.
+     *
+     * `done` is called on the main thread with the written file, or null if
+     * the profile couldn't be written.
+     *
+     * @param seconds How long to sample for.
+     * @param done Called once the profile is written.
+     * @return Whether sampling started, false if already profiling.
+     */
+    public synchronized boolean start(int seconds, Consumer<File> done) {
+        if (isProfiling())
+            return false;
+
+        File file = new File(new File(plugin.getDataFolder(), "profiles"),
+            "profile-" + LocalDateTime.now().format(FILE_NAME)
+            + ".collapsed");
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+
+        Thread thread = new Thread(() -> {
+            File written = run(end, file);
+            if (plugin.isEnabled())
+                plugin.getServer().getScheduler().runTask(plugin,
+                    () -> done.accept(written));
+        }, "SocketEnhancements Profiler");
+        thread.setDaemon(true);
+        this.sampler = thread;
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Stop sampling early, the profile taken so far is still written.
+     *
+     * @return Whether a profile was running.
+     */
+    public synchronized boolean stop() {
+        Thread thread = sampler;
+        if (thread == null || !thread.isAlive())
+            return false;
+
+        thread.interrupt();
+        return true;
+    }
+
+    /**
+     * Whether a profile is being taken.
+     *
+     * @return Whether sampling.
+     */
+    public boolean isProfiling() {
+        Thread thread = sampler;
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Sample until `end` (System.nanoTime()) or interrupted, then write the
+     * result to `file`.
+     *
+     * @return `file`, or null if it couldn't be written.
+     */
+    private File run(long end, File file) {
+        HashMap<String, long[]> stacks = new HashMap<>();
+        long samples = 0;
+        long dropped = 0;
+
+        StringBuilder builder = new StringBuilder(1024);
+        List<Thread> targets = targets();
+        long refreshAt = System.nanoTime() + TARGET_REFRESH_NANOS;
+        while (System.nanoTime() < end) {
+            if (folia && System.nanoTime() >= refreshAt) {
+                targets = targets();
+                refreshAt = System.nanoTime() + TARGET_REFRESH_NANOS;
+            }
+
+            for (Thread thread : targets) {
+                String stack = collapse(thread.getStackTrace(), builder);
+                if (stack == null)
+                    continue;
+
+                samples++;
+                long[] count = stacks.get(stack);
+                if (count != null)
+                    count[0]++;
+                else if (stacks.size() < maxStacks)
+                    stacks.put(stack, new long[] {1});
+                else
+                    dropped++;
+            }
+
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+
+        try {
+            file.getParentFile().mkdirs();
+            write(file, stacks);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE,
+                "Unable to write profile to " + file, e);
+            return null;
+        }
+
+        plugin.getLogger().info("Profile written to " + file + ", " + samples
+            + " samples in " + stacks.size() + " stacks"
+            + (dropped > 0 ? ", " + dropped + " samples dropped" : ""));
+        return file;
+    }
+
+    /**
+     * The threads to sample.
+     *
+     * Threads are enumerated through their thread groups, which doesn't
+     * capture any stack traces.
+     */
+    private List<Thread> targets() {
+        if (!folia)
+            return List.of(mainThread);
+
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null)
+            root = root.getParent();
+
+        Thread[] all = new Thread[root.activeCount() * 2 + 16];
+        int count = root.enumerate(all, true);
+
+        ArrayList<Thread> threads = new ArrayList<>();
+        threads.add(mainThread);
+        for (int i = 0; i < count; i++) {
+            if (all[i].getName().startsWith(REGION_THREAD_PREFIX))
+                threads.add(all[i]);
+        }
+        return threads;
+    }
+
+    /**
+     * Collapse `trace` into a root first, semicolon separated line.
+     *
+     * @param trace The stack trace, innermost frame first.
+     * @param builder Reused to build the line.
+     * @return The line, or null if no frame is in SocketEnhancements' code.
+     */
+    private static String collapse(StackTraceElement[] trace,
+        StringBuilder builder) {
+        boolean ours = false;
+        for (StackTraceElement frame : trace) {
+            String className = frame.getClassName();
+            if (className.startsWith(PACKAGE)
+                && !className.startsWith(PROFILER_CLASS)) {
+                ours = true;
+                break;
+            }
+        }
+        if (!ours)
+            return null;
+
+        builder.setLength(0);
+        // Keep the innermost frames of very deep stacks
+        int depth = Math.min(trace.length, MAX_DEPTH);
+        for (int i = depth - 1; i >= 0; i--) {
+            StackTraceElement frame = trace[i];
+            builder.append(frame.getClassName()).append('.')
+                .append(frame.getMethodName());
+            if (i > 0)
+                builder.append(';');
+        }
+        return builder.toString();
+    }
+
+    private static void write(File file, Map<String, long[]> stacks)
+        throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file.toPath(),
+            StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, long[]> stack : stacks.entrySet()) {
+                out.write(stack.getKey());
+                out.write(' ');
+                out.write(Long.toString(stack.getValue()[0]));
+                out.newLine();
+            }
+        }
+    }
+
+    private static boolean isFolia() {
+        try {
+            Class.forName(
+                "io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.recording;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EntityEquipment;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementInterceptor;
+import net.wandermc.socketenhancements.instrument.Probe;
+import net.wandermc.socketenhancements.instrument.ProbeSink;
+import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.recording.RecordedEvent.Actor;
+import net.wandermc.socketenhancements.recording.RecordedEvent.Equipped;
+import net.wandermc.socketenhancements.recording.RecordedEvent.Outcome;
+
+/**
+ * Records the events handled by enhancements to binary trace files, for
+ * replaying offline.
+ *
+ * Each recorded event holds the entities involved, their socketed equipment
+ * and what every enhancement handler did with it. Events fired from within a
+ * handler (Explosive's extra BlockBreakEvents, for instance) aren't recorded,
+ * as replaying the outer event fires them again.
+ *
+ * Only main thread events are recorded. Events are encoded and written on a
+ * separate thread, in batches. While not recording, the only cost is a single
+ * volatile read per handler invocation.
+ *
+ * Installs itself as a ProbeSink while recording, to know which invocations
+ * activated their enhancement.
+ */
+public class EventRecorder implements EnhancementInterceptor, ProbeSink {
+    private static final int BATCH_SIZE = 512;
+    private static final DateTimeFormatter FILE_NAME =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    /**
+     * A single recording.
+     *
+     * Everything but `file` and `writer` is only touched on the main thread,
+     * `writer` is only touched on `io`'s thread.
+     */
+    private class Session {
+        private final File file;
+        private final long limit;
+        private final long start = System.nanoTime();
+        private final ExecutorService io =
+            Executors.newSingleThreadExecutor();
+        private TraceWriter writer;
+
+        private final HashMap<UUID, Integer> ids = new HashMap<>();
+        private ArrayList<RecordedEvent> batch = new ArrayList<>();
+        private long recorded;
+
+        // The event currently being handled
+        private Event current;
+        private long currentTime;
+        private String detail;
+        private double amount;
+        private Actor entity;
+        private Actor other;
+        private ArrayList<Outcome> outcomes;
+        private int depth;
+
+        private Enhancement lastActivated;
+
+        private Session(File file, long limit) {
+            this.file = file;
+            this.limit = limit;
+        }
+    }
+
+    private final JavaPlugin plugin;
+    private final EnhancedItemForge forge;
+    private final File directory;
+    private final long maxEvents;
+
+    private volatile Session session;
+
+    /**
+     * Create an EventRecorder for `plugin`, not yet recording.
+     *
+     * Note that it still needs to be added to the EnhancementManager and
+     * installed as Probe's sink to record anything.
+     *
+     * `config` defaults:
+     * max_events: 1000000
+     *
+     * @param plugin The plugin to run under, traces are saved to its
+     *               `recordings` folder.
+     * @param forge The EnhancedItemForge to read socket contents with.
+     * @param config Configuration options.
+     */
+    public EventRecorder(JavaPlugin plugin, EnhancedItemForge forge,
+        ConfigurationSection config) {
+        this.plugin = plugin;
+        this.forge = forge;
+        this.directory = new File(plugin.getDataFolder(), "recordings");
+
+        long maxEvents = config.getLong("max_events", 1_000_000);
+        if (maxEvents < 1)
+            maxEvents = 1_000_000;
+        this.maxEvents = maxEvents;
+    }
+
+    public Invocation wrap(Enhancement enhancement, Invocation next) {
+        String name = enhancement.name();
+
+        return event -> {
+            Session session = this.session;
+            if (session == null || event == null || !Bukkit.isPrimaryThread()) {
+                next.proceed(event);
+                return;
+            }
+
+            if (event != session.current) {
+                // Fired from within a handler, replaying will fire it again
+                if (session.depth > 0) {
+                    next.proceed(event);
+                    return;
+                }
+                if (!begin(session, event)) {
+                    next.proceed(event);
+                    return;
+                }
+            }
+
+            session.lastActivated = null;
+            session.depth++;
+            long start = System.nanoTime();
+            try {
+                next.proceed(event);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                session.depth--;
+                session.outcomes.add(new Outcome(name,
+                    session.lastActivated == enhancement, nanos));
+            }
+        };
+    }
+
+    public void hit(Enhancement enhancement) {}
+
+    public void activated(Enhancement enhancement) {
+        Session session = this.session;
+        if (session != null && Bukkit.isPrimaryThread())
+            session.lastActivated = enhancement;
+    }
+
+    /**
+     * Start recording to a new trace file.
+     *
+     * Must be called on the main thread.
+     *
+     * @param limit Stop after this many events, values under 1 use the
+     *              configured `max_events`.
+     * @return The trace file, or null if already recording.
+     */
+    public File start(long limit) {
+        if (session != null)
+            return null;
+
+        directory.mkdirs();
+        File file = new File(directory, LocalDateTime.now().format(FILE_NAME)
+            + ".setrace");
+
+        Session session = new Session(file, limit < 1 ? maxEvents : limit);
+        session.io.execute(() -> {
+            try {
+                session.writer = new TraceWriter(new FileOutputStream(file));
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE,
+                    "Unable to create trace file " + file, e);
+            }
+        });
+        this.session = session;
+        Probe.install(this);
+
+        plugin.getLogger().info("Recording events to " + file);
+        return file;
+    }
+
+    /**
+     * Stop recording, writing out any remaining events.
+     *
+     * Must be called on the main thread.
+     *
+     * @return The number of events recorded, or -1 if not recording.
+     */
+    public long stop() {
+        Session session = this.session;
+        if (session == null)
+            return -1;
+        this.session = null;
+        Probe.uninstall(this);
+
+        finish(session);
+        submit(session);
+        session.io.execute(() -> {
+            try {
+                if (session.writer != null)
+                    session.writer.close();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE,
+                    "Unable to close trace file " + session.file, e);
+            }
+        });
+        session.io.shutdown();
+
+        plugin.getLogger().info("Recorded " + session.recorded + " events to "
+            + session.file);
+        return session.recorded;
+    }
+
+    /**
+     * Whether a recording is running.
+     *
+     * @return Whether events are being recorded.
+     */
+    public boolean isRecording() {
+        return session != null;
+    }
+
+    /**
+     * How many events the current recording holds.
+     *
+     * @return The number of events, or -1 if not recording.
+     */
+    public long recorded() {
+        Session session = this.session;
+        return session == null ? -1 : session.recorded;
+    }
+
+    /**
+     * Finish the previous event and start capturing `event`.
+     *
+     * @param session The current recording.
+     * @param event The event to capture.
+     * @return Whether `event` is being captured, false if the recording was
+     *         stopped for reaching its limit.
+     */
+    private boolean begin(Session session, Event event) {
+        finish(session);
+        if (session.recorded >= session.limit) {
+            stop();
+            return false;
+        }
+
+        session.current = event;
+        session.currentTime = System.nanoTime() - session.start;
+        session.outcomes = new ArrayList<>(4);
+
+        session.detail = "";
+        if (event instanceof BlockEvent blockEvent)
+            session.detail = blockEvent.getBlock().getType().name();
+        else if (event instanceof PlayerInteractEvent interactEvent)
+            session.detail = interactEvent.getAction().name();
+        else if (event instanceof EntityDamageEvent damageEvent)
+            session.detail = damageEvent.getCause().name();
+
+        session.amount = event instanceof EntityDamageEvent damageEvent
+            ? damageEvent.getDamage() : 0;
+
+        Entity entity = null;
+        if (event instanceof EntityEvent entityEvent)
+            entity = entityEvent.getEntity();
+        else if (event instanceof PlayerEvent playerEvent)
+            entity = playerEvent.getPlayer();
+        else if (event instanceof BlockBreakEvent breakEvent)
+            entity = breakEvent.getPlayer();
+        session.entity = actor(session, entity);
+
+        session.other = event instanceof EntityDamageByEntityEvent damageEvent
+            ? actor(session, damageEvent.getDamager()) : null;
+        return true;
+    }
+
+    /**
+     * Add the event being captured to the batch, if any.
+     *
+     * @param session The current recording.
+     */
+    private void finish(Session session) {
+        if (session.current == null)
+            return;
+
+        session.batch.add(new RecordedEvent(session.currentTime,
+            session.current.getEventName(), session.detail, session.amount,
+            session.entity, session.other, session.outcomes));
+        session.recorded++;
+        session.current = null;
+
+        if (session.batch.size() >= BATCH_SIZE)
+            submit(session);
+    }
+
+    /**
+     * Hand the current batch over to be written.
+     *
+     * @param session The current recording.
+     */
+    private void submit(Session session) {
+        if (session.batch.isEmpty())
+            return;
+
+        List<RecordedEvent> batch = session.batch;
+        session.batch = new ArrayList<>();
+        session.io.execute(() -> {
+            if (session.writer == null)
+                return;
+
+            try {
+                for (RecordedEvent event : batch)
+                    session.writer.write(event);
+                session.writer.flush();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE,
+                    "Unable to write to trace file " + session.file, e);
+            }
+        });
+    }
+
+    /**
+     * Capture `entity` and its socketed equipment.
+     *
+     * @param session The current recording.
+     * @param entity The entity, may be null.
+     * @return The Actor, or null if `entity` is null.
+     */
+    private Actor actor(Session session, Entity entity) {
+        if (entity == null)
+            return null;
+
+        int id = session.ids.computeIfAbsent(entity.getUniqueId(),
+            key -> session.ids.size());
+
+        ArrayList<Equipped> equipment = new ArrayList<>();
+        if (entity instanceof LivingEntity living
+            && living.getEquipment() != null) {
+            EntityEquipment entityEquipment = living.getEquipment();
+            for (EquipmentSlot slot : EquipmentSlot.values()) {
+                if (!living.canUseEquipmentSlot(slot))
+                    continue;
+
+                ItemStack item = entityEquipment.getItem(slot);
+                List<String> sockets = forge.socketContents(item);
+                if (!sockets.isEmpty())
+                    equipment.add(new Equipped(slot.name(),
+                        item.getType().name(), sockets));
+            }
+        }
+
+        return new Actor(id, entity.getType().name(), List.copyOf(equipment));
+    }
+}
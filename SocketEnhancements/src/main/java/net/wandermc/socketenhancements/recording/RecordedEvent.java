@@ -0,0 +1,70 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.recording;
+
+import java.util.List;
+
+/**
+ * A single event handled by SocketEnhancements, as captured by an
+ * EventRecorder.
+ *
+ * Entities are identified by small ids, assigned in order of first appearance
+ * within a trace, so traces can be shared without exposing player UUIDs.
+ *
+ * @param time Nanoseconds since the start of the trace.
+ * @param event The event's name, e.g. `EntityDamageByEntityEvent`.
+ * @param detail Event-specific detail: the broken block's type, the
+ *               interaction's action or the damage cause. Empty if none.
+ * @param amount Event-specific amount, the final damage for damage events.
+ * @param entity The entity the event is about, may be null.
+ * @param other The other entity involved, the damager for damage events. May
+ *              be null.
+ * @param outcomes What each enhancement handler did with the event.
+ */
+public record RecordedEvent(long time, String event, String detail,
+    double amount, Actor entity, Actor other, List<Outcome> outcomes) {
+    /**
+     * An entity involved in an event.
+     *
+     * @param id The entity's id within the trace.
+     * @param type The entity's type, e.g. `PLAYER`.
+     * @param equipment What the entity had equipped, empty if nothing
+     *                  socketable.
+     */
+    public record Actor(int id, String type, List<Equipped> equipment) {}
+
+    /**
+     * An item equipped by an Actor.
+     *
+     * @param slot The slot it was in, e.g. `HAND`.
+     * @param material The item's type.
+     * @param sockets The name of the enhancement in each socket, empty
+     *                sockets included.
+     */
+    public record Equipped(String slot, String material,
+        List<String> sockets) {}
+
+    /**
+     * What an enhancement handler did with an event.
+     *
+     * @param enhancement The enhancement's name.
+     * @param activated Whether the enhancement took effect.
+     * @param nanos How long the handler took.
+     */
+    public record Outcome(String enhancement, boolean activated, long nanos) {}
+}
@@ -0,0 +1,189 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.recording;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.wandermc.socketenhancements.recording.RecordedEvent.Actor;
+import net.wandermc.socketenhancements.recording.RecordedEvent.Equipped;
+import net.wandermc.socketenhancements.recording.RecordedEvent.Outcome;
+
+import static net.wandermc.socketenhancements.recording.TraceWriter.*;
+
+/**
+ * Reads a binary trace written by a TraceWriter.
+ *
+ * Strings and equipment lists are shared between the events that use them, so
+ * reading a trace into memory costs little more than its unique contents.
+ *
+ * Not thread-safe.
+ */
+public class TraceReader implements Closeable {
+    private final DataInputStream in;
+
+    private final ArrayList<String> strings = new ArrayList<>();
+    private final ArrayList<List<Equipped>> equipment = new ArrayList<>();
+    private long lastTime;
+
+    /**
+     * Create a TraceReader, reading the trace header from `in`.
+     *
+     * @param in The trace to read, closed along with this reader.
+     * @throws IOException If `in` isn't a trace of a supported version.
+     */
+    public TraceReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+
+        if (this.in.readInt() != MAGIC)
+            throw new IOException("Not a SocketEnhancements trace");
+        int version = this.in.readUnsignedByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported trace version " + version);
+
+        equipment.add(List.of());
+    }
+
+    /**
+     * Read the next event.
+     *
+     * @return The event, or null at the end of the trace.
+     * @throws IOException If reading failed or the trace is corrupt.
+     */
+    public RecordedEvent next() throws IOException {
+        while (true) {
+            int tag = in.read();
+            switch (tag) {
+                case -1:
+                    return null;
+                case TAG_STRING:
+                    expect(strings.size());
+                    strings.add(in.readUTF());
+                    break;
+                case TAG_EQUIPMENT:
+                    expect(equipment.size());
+                    equipment.add(readEquipment());
+                    break;
+                case TAG_EVENT:
+                    return readEvent();
+                default:
+                    throw new IOException("Unknown record tag " + tag);
+            }
+        }
+    }
+
+    /**
+     * Read every remaining event.
+     *
+     * @return The events, in order.
+     * @throws IOException If reading failed or the trace is corrupt.
+     */
+    public List<RecordedEvent> readAll() throws IOException {
+        ArrayList<RecordedEvent> events = new ArrayList<>();
+        RecordedEvent event;
+        while ((event = next()) != null)
+            events.add(event);
+        return events;
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private RecordedEvent readEvent() throws IOException {
+        lastTime += readVarLong();
+        String event = string();
+        String detail = string();
+        double amount = in.readFloat();
+
+        int flags = in.readUnsignedByte();
+        Actor entity = (flags & HAS_ENTITY) != 0 ? readActor() : null;
+        Actor other = (flags & HAS_OTHER) != 0 ? readActor() : null;
+
+        int count = readVarInt();
+        ArrayList<Outcome> outcomes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            outcomes.add(new Outcome(string(), in.readBoolean(),
+                readVarLong()));
+
+        return new RecordedEvent(lastTime, event, detail, amount, entity,
+            other, outcomes);
+    }
+
+    private Actor readActor() throws IOException {
+        int id = readVarInt();
+        String type = string();
+        int equipmentId = readVarInt();
+        if (equipmentId >= equipment.size())
+            throw new IOException("Undefined equipment " + equipmentId);
+        return new Actor(id, type, equipment.get(equipmentId));
+    }
+
+    private List<Equipped> readEquipment() throws IOException {
+        int count = readVarInt();
+        ArrayList<Equipped> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String slot = string();
+            String material = string();
+            int sockets = readVarInt();
+            ArrayList<String> names = new ArrayList<>(sockets);
+            for (int j = 0; j < sockets; j++)
+                names.add(string());
+            items.add(new Equipped(slot, material, List.copyOf(names)));
+        }
+        return List.copyOf(items);
+    }
+
+    /**
+     * Read a definition's id, which must be the next free one.
+     *
+     * @param next The next free id.
+     */
+    private void expect(int next) throws IOException {
+        int id = readVarInt();
+        if (id != next)
+            throw new IOException("Out of order definition " + id);
+    }
+
+    private String string() throws IOException {
+        int id = readVarInt();
+        if (id >= strings.size())
+            throw new IOException("Undefined string " + id);
+        return strings.get(id);
+    }
+
+    private int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
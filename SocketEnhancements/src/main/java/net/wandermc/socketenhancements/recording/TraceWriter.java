@@ -0,0 +1,219 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.recording;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+
+import net.wandermc.socketenhancements.recording.RecordedEvent.Actor;
+import net.wandermc.socketenhancements.recording.RecordedEvent.Equipped;
+import net.wandermc.socketenhancements.recording.RecordedEvent.Outcome;
+
+/**
+ * Writes RecordedEvents to a compact binary trace, readable by a TraceReader.
+ *
+ * A trace starts with a 4 byte magic number and a version byte, followed by
+ * tagged records. Strings and equipment sets are written once, the first time
+ * they're seen, and referred to by id afterwards. Event times are stored as
+ * deltas and all integers as varints, so a typical event takes a few dozen
+ * bytes.
+ *
+ * Not thread-safe.
+ */
+public class TraceWriter implements Closeable {
+    static final int MAGIC = 0x53455452; // "SETR"
+    static final int VERSION = 1;
+
+    static final int TAG_STRING = 0;
+    static final int TAG_EQUIPMENT = 1;
+    static final int TAG_EVENT = 2;
+
+    static final int HAS_ENTITY = 1;
+    static final int HAS_OTHER = 2;
+
+    private final DataOutputStream out;
+
+    private final HashMap<String, Integer> strings = new HashMap<>();
+    // Equipment id 0 means nothing equipped
+    private final HashMap<List<Equipped>, Integer> equipment = new HashMap<>();
+    private long lastTime;
+
+    /**
+     * Create a TraceWriter, writing the trace header to `out`.
+     *
+     * @param out Where to write the trace, closed along with this writer.
+     * @throws IOException If the header couldn't be written.
+     */
+    public TraceWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+    }
+
+    /**
+     * Write `event`.
+     *
+     * Events must be written in order of time.
+     *
+     * @param event The event to write.
+     * @throws IOException If writing failed.
+     */
+    public void write(RecordedEvent event) throws IOException {
+        // Definitions must come before the event that uses them
+        int eventId = string(event.event());
+        int detailId = string(event.detail());
+        int entityEquipment = define(event.entity());
+        int otherEquipment = define(event.other());
+        int[] outcomeIds = new int[event.outcomes().size()];
+        for (int i = 0; i < outcomeIds.length; i++)
+            outcomeIds[i] = string(event.outcomes().get(i).enhancement());
+
+        out.writeByte(TAG_EVENT);
+        writeVarLong(event.time() - lastTime);
+        lastTime = event.time();
+        writeVarInt(eventId);
+        writeVarInt(detailId);
+        out.writeFloat((float) event.amount());
+
+        int flags = (event.entity() != null ? HAS_ENTITY : 0)
+            | (event.other() != null ? HAS_OTHER : 0);
+        out.writeByte(flags);
+        writeActor(event.entity(), entityEquipment);
+        writeActor(event.other(), otherEquipment);
+
+        writeVarInt(outcomeIds.length);
+        for (int i = 0; i < outcomeIds.length; i++) {
+            Outcome outcome = event.outcomes().get(i);
+            writeVarInt(outcomeIds[i]);
+            out.writeBoolean(outcome.activated());
+            writeVarLong(outcome.nanos());
+        }
+    }
+
+    /**
+     * Flush everything written so far.
+     *
+     * @throws IOException If flushing failed.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Write an actor's fields, if `actor` isn't null.
+     *
+     * @param actor The actor to write.
+     * @param equipmentId Id of the actor's equipment.
+     */
+    private void writeActor(Actor actor, int equipmentId) throws IOException {
+        if (actor == null)
+            return;
+
+        writeVarInt(actor.id());
+        writeVarInt(string(actor.type()));
+        writeVarInt(equipmentId);
+    }
+
+    /**
+     * Define the strings and equipment used by `actor`, if not yet defined.
+     *
+     * @param actor The actor, may be null.
+     * @return The id of the actor's equipment, 0 if it has none.
+     */
+    private int define(Actor actor) throws IOException {
+        if (actor == null)
+            return 0;
+
+        string(actor.type());
+        if (actor.equipment().isEmpty())
+            return 0;
+
+        Integer id = equipment.get(actor.equipment());
+        if (id != null)
+            return id;
+
+        int[] ids = new int[actor.equipment().size() * 2];
+        for (int i = 0; i < actor.equipment().size(); i++) {
+            Equipped equipped = actor.equipment().get(i);
+            ids[i * 2] = string(equipped.slot());
+            ids[i * 2 + 1] = string(equipped.material());
+            for (String socket : equipped.sockets())
+                string(socket);
+        }
+
+        id = equipment.size() + 1;
+        equipment.put(actor.equipment(), id);
+
+        out.writeByte(TAG_EQUIPMENT);
+        writeVarInt(id);
+        writeVarInt(actor.equipment().size());
+        for (int i = 0; i < actor.equipment().size(); i++) {
+            List<String> sockets = actor.equipment().get(i).sockets();
+            writeVarInt(ids[i * 2]);
+            writeVarInt(ids[i * 2 + 1]);
+            writeVarInt(sockets.size());
+            for (String socket : sockets)
+                writeVarInt(strings.get(socket));
+        }
+        return id;
+    }
+
+    /**
+     * Get the id of `string`, defining it if not yet defined.
+     *
+     * @param string The string, null is treated as empty.
+     * @return The string's id.
+     */
+    private int string(String string) throws IOException {
+        if (string == null)
+            string = "";
+
+        Integer id = strings.get(string);
+        if (id != null)
+            return id;
+
+        id = strings.size();
+        strings.put(string, id);
+
+        out.writeByte(TAG_STRING);
+        writeVarInt(id);
+        out.writeUTF(string);
+        return id;
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
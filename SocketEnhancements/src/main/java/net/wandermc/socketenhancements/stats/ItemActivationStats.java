@@ -0,0 +1,412 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.stats;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.event.player.PlayerItemHeldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.destroystokyo.paper.event.player.PlayerArmorChangeEvent;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementManager;
+import net.wandermc.socketenhancements.instrument.ProbeSink;
+import net.wandermc.socketenhancements.item.EnhancedItemForge;
+import net.wandermc.socketenhancements.item.ItemStamp;
+
+/**
+ * Counts how many times each enhancement activated on each item, and writes
+ * the counts into the items' data in batches.
+ *
+ * Activations are attributed to the item an enhancement was last found on,
+ * and kept in memory keyed by the item's ItemStamp ID. Writing a counter on
+ * every activation would rewrite the item (and resend its slot) each time,
+ * instead pending counts are flushed into a player's items a tick after they
+ * change what they're holding or wearing, when they open an inventory (before
+ * anything can be moved into it), when they quit, and every
+ * `flush_interval_seconds`. Items are also flushed as they're dropped, as a
+ * player dies and when an opened inventory is closed.
+ *
+ * Items that leave every player's inventory some other way can't be flushed,
+ * their counts are forgotten once they haven't activated anything for
+ * `expiry_seconds`.
+ *
+ * Only stamped items are counted, so creating an ItemActivationStats turns
+ * item stamps on. Items written before then are counted once next updated.
+ *
+ * Must be installed as a ProbeSink to count anything. Main thread only.
+ */
+public class ItemActivationStats implements ProbeSink, Listener {
+    private final JavaPlugin plugin;
+    private final EnhancementManager manager;
+    private final EnhancedItemForge forge;
+    private final NamespacedKey activationsKey;
+    private final int maxPending;
+    private final int expiryTicks;
+
+    /**
+     * One item's pending counts.
+     */
+    private static class Counts {
+        // Indexed by enhancement ID
+        private long[] byId;
+        // Server tick of the item's last activation
+        private int lastActive;
+
+        private Counts(int size) {
+            this.byId = new long[size];
+        }
+    }
+
+    // Counts by item stamp ID
+    private final HashMap<Long, Counts> pending = new HashMap<>();
+    private final HashSet<UUID> toFlush = new HashSet<>();
+    private long dropped;
+    private int lastExpiry = Integer.MIN_VALUE;
+
+    // The item an enhancement was last found on
+    private Enhancement lastHit;
+    private long lastHitId;
+
+    /**
+     * Create an ItemActivationStats for `plugin`, turning on `forge`'s item
+     * stamps and registering its listeners.
+     *
+     * `config` defaults:
+     * flush_interval_seconds: 300
+     * max_pending: 50000
+     * expiry_seconds: 3600
+     *
+     * @param plugin The plugin to run under.
+     * @param manager The manager enhancement IDs come from.
+     * @param forge The forge items are read with.
+     * @param config Configuration options.
+     */
+    public ItemActivationStats(JavaPlugin plugin, EnhancementManager manager,
+        EnhancedItemForge forge, ConfigurationSection config) {
+        this.plugin = plugin;
+        this.manager = manager;
+        this.forge = forge;
+        this.activationsKey = new NamespacedKey(plugin, "activations");
+
+        int maxPending = config.getInt("max_pending", 50000);
+        if (maxPending < 1)
+            maxPending = 50000;
+        this.maxPending = maxPending;
+
+        long interval = config.getLong("flush_interval_seconds", 300);
+        if (interval < 1)
+            interval = 300;
+
+        int expiry = config.getInt("expiry_seconds", 3600);
+        if (expiry < 1 || expiry > Integer.MAX_VALUE / 20)
+            expiry = 3600;
+        this.expiryTicks = expiry * 20;
+
+        forge.enableStamps();
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        plugin.getServer().getScheduler().runTaskTimer(plugin, this::flushAll,
+            interval * 20, interval * 20);
+    }
+
+    public void hit(Enhancement enhancement) {}
+
+    public void hit(Enhancement enhancement, ItemStack item) {
+        if (!Bukkit.isPrimaryThread())
+            return;
+
+        ItemStamp stamp = forge.stamp(item);
+        this.lastHit = enhancement;
+        this.lastHitId = stamp == null ? 0 : stamp.id();
+    }
+
+    public void activated(Enhancement enhancement) {
+        if (enhancement != lastHit || lastHitId == 0
+            || !Bukkit.isPrimaryThread())
+            return;
+
+        int id = manager.id(enhancement);
+        if (id < 1)
+            return;
+
+        int now = Bukkit.getCurrentTick();
+        Counts counts = pending.get(lastHitId);
+        if (counts == null) {
+            // Make room, at most once a second
+            if (pending.size() >= maxPending && now - lastExpiry >= 20)
+                expire(now);
+            if (pending.size() >= maxPending) {
+                dropped++;
+                return;
+            }
+            counts = new Counts(id + 1);
+            pending.put(lastHitId, counts);
+        } else if (id >= counts.byId.length) {
+            counts.byId = Arrays.copyOf(counts.byId, id + 1);
+        }
+        counts.byId[id]++;
+        counts.lastActive = now;
+    }
+
+    /**
+     * Every activation count of `item`, those written to it and those still
+     * pending. Doesn't flush anything.
+     *
+     * @param item The item to read.
+     * @return Counts by enhancement name, in no particular order.
+     */
+    public Map<String, Long> counts(ItemStack item) {
+        LinkedHashMap<String, Long> counts = new LinkedHashMap<>();
+        if (item == null || !item.hasItemMeta())
+            return counts;
+
+        PersistentDataContainer stored = item.getPersistentDataContainer()
+            .get(activationsKey, PersistentDataType.TAG_CONTAINER);
+        if (stored != null) {
+            for (NamespacedKey key : stored.getKeys()) {
+                Long count = stored.get(key, PersistentDataType.LONG);
+                if (count != null)
+                    counts.put(key.getKey(), count);
+            }
+        }
+
+        ItemStamp stamp = forge.stamp(item);
+        Counts pendingCounts = stamp == null ? null : pending.get(stamp.id());
+        if (pendingCounts != null) {
+            long[] unflushed = pendingCounts.byId;
+            for (int id = 1; id < unflushed.length; id++) {
+                if (unflushed[id] > 0)
+                    counts.merge(manager.byId(id).name(), unflushed[id],
+                        Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * How many items have counts waiting to be written.
+     *
+     * @return The number of pending items.
+     */
+    public int pending() {
+        return pending.size();
+    }
+
+    /**
+     * How many activations went uncounted because too many items were
+     * pending, or were forgotten because their item expired.
+     *
+     * @return The number of dropped activations.
+     */
+    public long dropped() {
+        return dropped;
+    }
+
+    /**
+     * Write the pending counts of every item in `player`'s inventory.
+     *
+     * @param player The player whose items to flush.
+     */
+    public void flush(Player player) {
+        if (pending.isEmpty())
+            return;
+
+        flush(player.getInventory());
+    }
+
+    /**
+     * Write the pending counts of every item in `inventory`.
+     *
+     * @param inventory The inventory whose items to flush.
+     */
+    private void flush(Inventory inventory) {
+        for (int slot = 0; slot < inventory.getSize(); slot++) {
+            ItemStack item = inventory.getItem(slot);
+            if (flush(item))
+                inventory.setItem(slot, item);
+        }
+    }
+
+    /**
+     * Write `item`'s pending counts to it.
+     *
+     * @param item The item to write to, may be null.
+     * @return Whether `item` had pending counts.
+     */
+    private boolean flush(ItemStack item) {
+        ItemStamp stamp = forge.stamp(item);
+        Counts counts = stamp == null ? null : pending.remove(stamp.id());
+        if (counts == null)
+            return false;
+
+        write(item, counts.byId);
+        return true;
+    }
+
+    /**
+     * Write the pending counts of every online player's items, then forget
+     * those of expired items.
+     */
+    public void flushAll() {
+        for (Player player : plugin.getServer().getOnlinePlayers())
+            flush(player);
+        expire(Bukkit.getCurrentTick());
+    }
+
+    /**
+     * Forget the counts of items which haven't activated anything for
+     * `expiryTicks`, they are no longer in any player's inventory.
+     *
+     * @param now The current server tick.
+     */
+    private void expire(int now) {
+        lastExpiry = now;
+        pending.values().removeIf(counts -> {
+            if (now - counts.lastActive < expiryTicks)
+                return false;
+
+            for (long count : counts.byId)
+                dropped += count;
+            return true;
+        });
+    }
+
+    /**
+     * Add `counts` to those stored on `item`.
+     *
+     * @param item The item to write to.
+     * @param counts Counts indexed by enhancement ID.
+     */
+    private void write(ItemStack item, long[] counts) {
+        item.editMeta(meta -> {
+            PersistentDataContainer data = meta.getPersistentDataContainer();
+            PersistentDataContainer stored = data.get(activationsKey,
+                PersistentDataType.TAG_CONTAINER);
+            if (stored == null)
+                stored = data.getAdapterContext().newPersistentDataContainer();
+
+            for (int id = 1; id < counts.length; id++) {
+                Enhancement enhancement = manager.byId(id);
+                if (counts[id] == 0 || enhancement == manager.empty())
+                    continue;
+
+                NamespacedKey key = new NamespacedKey(plugin,
+                    enhancement.name());
+                stored.set(key, PersistentDataType.LONG, counts[id]
+                    + stored.getOrDefault(key, PersistentDataType.LONG, 0L));
+            }
+            data.set(activationsKey, PersistentDataType.TAG_CONTAINER,
+                stored);
+        });
+    }
+
+    /**
+     * Flush `player`'s items on the next tick, once the change that triggered
+     * it has settled.
+     *
+     * @param player The player to flush.
+     */
+    private void flushSoon(Player player) {
+        if (pending.isEmpty() || !toFlush.add(player.getUniqueId()))
+            return;
+
+        plugin.getServer().getScheduler().runTask(plugin, () -> {
+            toFlush.remove(player.getUniqueId());
+            if (player.isOnline())
+                flush(player);
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onHeldChange(PlayerItemHeldEvent event) {
+        flushSoon(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSwapHands(PlayerSwapHandItemsEvent event) {
+        flushSoon(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onArmorChange(PlayerArmorChangeEvent event) {
+        flushSoon(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        flush(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDrop(PlayerDropItemEvent event) {
+        Item drop = event.getItemDrop();
+        ItemStack item = drop.getItemStack();
+        if (flush(item))
+            drop.setItemStack(item);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDeath(PlayerDeathEvent event) {
+        for (ItemStack item : event.getDrops())
+            flush(item);
+    }
+
+    // Before anything can be moved into another inventory or traded away
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        if (event.getPlayer() instanceof Player player && !pending.isEmpty())
+            flush(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClose(InventoryCloseEvent event) {
+        if (pending.isEmpty())
+            return;
+
+        HumanEntity player = event.getPlayer();
+        if (event.getInventory() != player.getInventory())
+            flush(event.getInventory());
+        if (player instanceof Player online)
+            flushSoon(online);
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.watchdog;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementInterceptor;
+import net.wandermc.socketenhancements.enhancement.EnhancementManager;
+
+import static net.wandermc.socketenhancements.util.Dice.roll;
+
+/**
+ * Tracks how long each enhancement's handlers take per tick, and reins in
+ * enhancements which repeatedly go over budget.
+ *
+ * Every tick an enhancement uses more than `budget` of main thread time counts
+ * as a strike. After `throttleAfter` strikes the enhancement is throttled,
+ * each of its invocations then has a `dropChance` chance of being skipped.
+ * After `tripAfter` strikes the breaker trips, and the enhancement isn't
+ * invoked at all until reset with `reset()`. Strikes are forgiven after
+ * `recoverAfter` consecutive ticks within budget, which also lifts a throttle
+ * (but not a tripped breaker).
+ *
+ * Every state change is logged.
+ */
+public class EnhancementWatchdog implements EnhancementInterceptor, Listener {
+    /**
+     * The state of a single enhancement.
+     */
+    public enum State {
+        /**
+         * Invoked as normal.
+         */
+        NORMAL,
+
+        /**
+         * Some invocations are dropped.
+         */
+        THROTTLED,
+
+        /**
+         * Not invoked at all.
+         */
+        TRIPPED;
+    }
+
+    /**
+     * Per-enhancement accounting, only touched on the main thread.
+     */
+    public static class Guard {
+        private final String name;
+        private volatile State state = State.NORMAL;
+
+        private long tickNanos;
+        private long lastOverrun;
+        private int strikes;
+        private int calmTicks;
+
+        private Guard(String name) {
+            this.name = name;
+        }
+
+        /**
+         * The name of the guarded Enhancement.
+         *
+         * @return The name.
+         */
+        public String name() {
+            return name;
+        }
+
+        /**
+         * The current state of the guarded Enhancement.
+         *
+         * @return The state.
+         */
+        public State state() {
+            return state;
+        }
+
+        /**
+         * How many strikes the guarded Enhancement has.
+         *
+         * @return The number of strikes.
+         */
+        public int strikes() {
+            return strikes;
+        }
+
+        /**
+         * Main thread time used in the last tick that went over budget.
+         *
+         * @return The time in nanoseconds, 0 if never over budget.
+         */
+        public long lastOverrun() {
+            return lastOverrun;
+        }
+    }
+
+    private final JavaPlugin plugin;
+
+    private final long budgetNanos;
+    private final int throttleAfter;
+    private final double dropChance;
+    private final int tripAfter;
+    private final int recoverAfter;
+
+    // By normalised name, so an enhancement recreated on reload keeps its
+    // Guard
+    private final ConcurrentHashMap<String, Guard> guards =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Create an EnhancementWatchdog for `plugin`.
+     *
+     * Note that it still needs to be added to the EnhancementManager to guard
+     * anything.
+     *
+     * `config` defaults:
+     * budget_ms: 5.0
+     * throttle_after: 3
+     * throttle_drop_chance: 0.5
+     * trip_after: 20
+     * recover_after: 200
+     *
+     * @param plugin The plugin to run under.
+     * @param config Configuration options.
+     */
+    public EnhancementWatchdog(JavaPlugin plugin, ConfigurationSection config) {
+        this.plugin = plugin;
+
+        double budget = config.getDouble("budget_ms", 5.0);
+        if (budget <= 0)
+            budget = 5.0;
+        this.budgetNanos = (long) (budget * 1_000_000);
+
+        int throttleAfter = config.getInt("throttle_after", 3);
+        if (throttleAfter < 1)
+            throttleAfter = 3;
+        this.throttleAfter = throttleAfter;
+
+        double dropChance = config.getDouble("throttle_drop_chance", 0.5);
+        if (dropChance < 0 || dropChance > 1)
+            dropChance = 0.5;
+        this.dropChance = dropChance;
+
+        int tripAfter = config.getInt("trip_after", 20);
+        if (tripAfter < throttleAfter)
+            tripAfter = Math.max(20, throttleAfter);
+        this.tripAfter = tripAfter;
+
+        int recoverAfter = config.getInt("recover_after", 200);
+        if (recoverAfter < 1)
+            recoverAfter = 200;
+        this.recoverAfter = recoverAfter;
+
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
+    public Invocation wrap(Enhancement enhancement, Invocation next) {
+        Guard guard = guards.computeIfAbsent(
+            EnhancementManager.normalise(enhancement.name()), Guard::new);
+
+        return event -> {
+            State state = guard.state;
+            if (state == State.TRIPPED
+                || (state == State.THROTTLED && roll(dropChance)))
+                return;
+
+            // Only main thread time counts towards the budget.
+            if (!Bukkit.isPrimaryThread()) {
+                next.proceed(event);
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                next.proceed(event);
+            } finally {
+                guard.tickNanos += System.nanoTime() - start;
+            }
+        };
+    }
+
+    /**
+     * Check every enhancement's time over the tick that just ended.
+     *
+     * @param event The event.
+     */
+    @EventHandler(priority=EventPriority.MONITOR)
+    public void checkTick(ServerTickEndEvent event) {
+        for (Guard guard : guards.values()) {
+            long used = guard.tickNanos;
+            guard.tickNanos = 0;
+
+            if (used > budgetNanos) {
+                guard.lastOverrun = used;
+                guard.strikes++;
+                guard.calmTicks = 0;
+
+                if (guard.state == State.NORMAL
+                    && guard.strikes >= throttleAfter) {
+                    change(guard, State.THROTTLED, used);
+                } else if (guard.state == State.THROTTLED
+                    && guard.strikes >= tripAfter) {
+                    change(guard, State.TRIPPED, used);
+                }
+            } else if (guard.strikes > 0 && ++guard.calmTicks >= recoverAfter) {
+                guard.strikes = 0;
+                guard.calmTicks = 0;
+
+                if (guard.state == State.THROTTLED)
+                    change(guard, State.NORMAL, used);
+            }
+        }
+    }
+
+    /**
+     * Move `guard` to `state` and log the change.
+     *
+     * @param guard The Guard to change.
+     * @param state The new state.
+     * @param used Time used in the tick that caused the change, nanoseconds.
+     */
+    private void change(Guard guard, State state, long used) {
+        State old = guard.state;
+        guard.state = state;
+
+        Level level = state == State.TRIPPED ? Level.SEVERE : Level.WARNING;
+        if (state == State.NORMAL)
+            level = Level.INFO;
+
+        plugin.getLogger().log(level, String.format(
+            "Watchdog: %s %s -> %s (%d strikes, %.2fms last tick, budget " +
+            "%.2fms)", guard.name, old, state, guard.strikes, used / 1e6,
+            budgetNanos / 1e6));
+    }
+
+    /**
+     * Reset the enhancement called `name` to NORMAL, clearing its strikes.
+     *
+     * @param name The name of the enhancement.
+     * @return Whether an enhancement called `name` is being guarded.
+     */
+    public boolean reset(String name) {
+        Guard guard = guards.get(EnhancementManager.normalise(name));
+        if (guard == null)
+            return false;
+
+        reset(guard);
+        return true;
+    }
+
+    /**
+     * Reset every enhancement to NORMAL, clearing their strikes.
+     */
+    public void resetAll() {
+        guards.values().forEach(this::reset);
+    }
+
+    /**
+     * Reset `guard` to NORMAL, clearing its strikes.
+     *
+     * @param guard The Guard to reset.
+     */
+    private void reset(Guard guard) {
+        guard.strikes = 0;
+        guard.calmTicks = 0;
+        if (guard.state != State.NORMAL)
+            change(guard, State.NORMAL, 0);
+    }
+
+    /**
+     * All guards, one per guarded enhancement.
+     *
+     * @return Every Guard.
+     */
+    public Collection<Guard> getAll() {
+        return guards.values();
+    }
+}
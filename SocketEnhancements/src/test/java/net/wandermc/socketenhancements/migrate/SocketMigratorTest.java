@@ -0,0 +1,154 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.migrate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import net.wandermc.socketenhancements.migrate.Nbt.ListTag;
+import net.wandermc.socketenhancements.migrate.Nbt.Root;
+
+class SocketMigratorTest {
+    private static final String SOCKETS_KEY = "socketenhancements:sockets";
+    private static final int SECTOR = 4096;
+    private static final int TIMESTAMP = 1_700_000_000;
+
+    // The stub left in the region file for a chunk stored in a .mcc file:
+    // a length of 1, then zlib compression with the external flag set.
+    private static final byte[] EXTERNAL_CHUNK = {0, 0, 0, 1, (byte) 0x82};
+
+    @TempDir
+    Path world;
+
+    @Test
+    void keepsExternalChunksWhenRewritingRegion() throws IOException {
+        Path file = world.resolve("r.0.0.mca");
+        byte[] original = region(new int[] {2, 3},
+            chunk(enhancedItem("old")), EXTERNAL_CHUNK);
+        Files.write(file, original);
+
+        migrator().migrateFile(file);
+
+        ByteBuffer region = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertNotEquals(ByteBuffer.wrap(original), region);
+        assertEquals(List.of("new"), sockets(region, 0));
+
+        int location = region.getInt(4);
+        assertNotEquals(0, location);
+        byte[] stub = new byte[EXTERNAL_CHUNK.length];
+        region.get((location >>> 8) * SECTOR, stub);
+        assertArrayEquals(EXTERNAL_CHUNK, stub);
+        assertEquals(TIMESTAMP + 1, region.getInt(SECTOR + 4));
+    }
+
+    @Test
+    void leavesRegionWithDamagedChunkUnchanged() throws IOException {
+        Path file = world.resolve("r.0.0.mca");
+        // The second chunk's location points past the end of the file
+        byte[] original = region(new int[] {2, 50},
+            chunk(enhancedItem("old")), EXTERNAL_CHUNK);
+        Files.write(file, original);
+
+        migrator().migrateFile(file);
+
+        assertArrayEquals(original, Files.readAllBytes(file));
+    }
+
+    private static SocketMigrator migrator() {
+        SocketMapping mapping = new SocketMapping();
+        mapping.rename("old", "new");
+        return new SocketMigrator(mapping, false);
+    }
+
+    /**
+     * A region file holding `chunks` as chunks 0, 1 and so on, chunk `i`
+     * written at sector `sectors[i]` but only if it fits in the file.
+     */
+    private static byte[] region(int[] sectors, byte[]... chunks) {
+        ByteBuffer region = ByteBuffer.allocate((2 + chunks.length) * SECTOR);
+        for (int i = 0; i < chunks.length; i++) {
+            region.putInt(i * 4, (sectors[i] << 8) | 1);
+            region.putInt(SECTOR + i * 4, TIMESTAMP + i);
+            if ((sectors[i] + 1) * SECTOR <= region.capacity())
+                region.put(sectors[i] * SECTOR, chunks[i]);
+        }
+        return region.array();
+    }
+
+    /**
+     * `root` as a zlib compressed chunk, with its length and compression
+     * type.
+     */
+    private static byte[] chunk(Root root) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(0);
+        header.writeByte(2);
+        try (DataOutputStream body = new DataOutputStream(
+            new DeflaterOutputStream(out))) {
+            Nbt.write(body, root);
+        }
+
+        byte[] chunk = out.toByteArray();
+        ByteBuffer.wrap(chunk).putInt(0, chunk.length - 4);
+        return chunk;
+    }
+
+    private static Root enhancedItem(String socket) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put(SOCKETS_KEY, new ListTag(Nbt.STRING, List.of(socket)));
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("PublicBukkitValues", values);
+        return new Root("", item);
+    }
+
+    /**
+     * The socket list of the item in chunk `index` of `region`.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object> sockets(ByteBuffer region, int index)
+        throws IOException {
+        int offset = (region.getInt(index * 4) >>> 8) * SECTOR;
+        byte[] compressed = new byte[region.getInt(offset) - 1];
+        region.get(offset + 5, compressed);
+
+        Root root = Nbt.read(new DataInputStream(new InflaterInputStream(
+            new ByteArrayInputStream(compressed))));
+        Map<String, Object> values = (Map<String, Object>) root.compound()
+            .get("PublicBukkitValues");
+        return ((ListTag) values.get(SOCKETS_KEY)).values();
+    }
+}
@@ -44,6 +44,17 @@ public class EmptySocket implements Enhancement {
      * @param config Configuration options for EmptySocket.
      */
     public EmptySocket(ConfigurationSection config) {
+        configure(config);
+    }
+
+    /**
+     * Replace this EmptySocket's socket message with the one in `config`.
+     *
+     * Only items updated afterwards show the new message.
+     *
+     * @param config Configuration options for EmptySocket.
+     */
+    public void configure(ConfigurationSection config) {
         this.socketMessage = (TextComponent) config.getRichMessage(
             "empty_socket_message", MiniMessage.miniMessage().deserialize(
             "<!italic><white><Empty Socket>"));
@@ -0,0 +1,61 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.enhancement;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+
+/**
+ * Wraps every invocation of an Enhancement: each call to one of an
+ * ActiveEnhancement's event handlers and each run of a PassiveEnhancement.
+ *
+ * Interceptors are added to an EnhancementManager, and only affect
+ * enhancements registered after they were added. If no interceptors are
+ * added, enhancements are registered directly, without any wrapping at all.
+ */
+public interface EnhancementInterceptor {
+    /**
+     * A single invocation of an Enhancement.
+     */
+    @FunctionalInterface
+    public interface Invocation {
+        /**
+         * Run the invocation.
+         *
+         * @param event The event being handled, null for passive runs.
+         * @throws EventException If the handler threw an exception.
+         */
+        public void proceed(Event event) throws EventException;
+    }
+
+    /**
+     * Wrap `next`, an invocation of `enhancement`.
+     *
+     * Called once for each event handler (or passive run) while
+     * `enhancement` is being registered, so any per-enhancement lookups
+     * should be done here rather than in the returned Invocation.
+     *
+     * The returned Invocation is responsible for calling `next.proceed()`,
+     * it may choose not to.
+     *
+     * @param enhancement The Enhancement being invoked.
+     * @param next The invocation to wrap.
+     * @return The wrapped invocation.
+     */
+    public Invocation wrap(Enhancement enhancement, Invocation next);
+}
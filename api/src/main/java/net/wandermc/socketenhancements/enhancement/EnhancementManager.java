@@ -17,18 +17,40 @@
  */
 package net.wandermc.socketenhancements.enhancement;
 
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.EventExecutor;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import net.wandermc.socketenhancements.enhancement.EnhancementInterceptor.Invocation;
+import net.wandermc.socketenhancements.registration.HandlerBinding;
 
 /**
  * Manages storing, registering and activating enhancements.
  *
  * Only one EnhancementManager should be active at a time, as creating multiple
  * could lead to enhancements being registered multiple times.
+ *
+ * If any EnhancementInterceptors have been added, enhancements are registered
+ * with their handlers wrapped by those interceptors. Otherwise they are
+ * registered directly.
+ *
+ * Each enhancement is given a stable ID by the manager's EnhancementRegistry
+ * when registered. Aliases listed in the registry resolve to the same
+ * enhancement as its current name, through the same single table lookup.
  */
 public class EnhancementManager {
     private final PluginManager pluginManager;
@@ -36,6 +58,19 @@ public class EnhancementManager {
 
     private final HashMap<String, Enhancement> enhancementStore =
         new HashMap<String, Enhancement>();
+    // Current names and aliases, both normalised
+    private final HashMap<String, Enhancement> lookup = new HashMap<>();
+    // Aliases, as written in the registry, by normalised current name
+    private final HashMap<String, List<String>> aliasTable = new HashMap<>();
+    // Tasks running PassiveEnhancements, by normalised name
+    private final HashMap<String, BukkitTask> passiveTasks = new HashMap<>();
+
+    private final EnhancementRegistry registry;
+    // Indexed by ID, for constant time lookups
+    private Enhancement[] byId = new Enhancement[0];
+
+    private final ArrayList<EnhancementInterceptor> interceptors =
+        new ArrayList<>();
 
     private final EmptySocket emptySocket;
 
@@ -46,19 +81,38 @@ public class EnhancementManager {
      * @param emptySocket EmptySocket instance to use.
      */
     public EnhancementManager(JavaPlugin plugin, EmptySocket emptySocket) {
+        this(plugin, emptySocket, new EnhancementRegistry());
+    }
+
+    /**
+     * Create an EnhancementManager for `plugin`, with IDs and aliases kept in
+     * `registry`.
+     *
+     * @param plugin The plugin this manager will run under.
+     * @param emptySocket EmptySocket instance to use.
+     * @param registry The registry of IDs and aliases.
+     */
+    public EnhancementManager(JavaPlugin plugin, EmptySocket emptySocket,
+        EnhancementRegistry registry) {
         this.pluginManager = plugin.getServer().getPluginManager();
         this.plugin = plugin;
         this.emptySocket = emptySocket;
+        this.registry = registry;
     }
 
     /**
      * Normalise Enhancement name `name`.
      *
+     * Also for anything keeping per-enhancement state by name, so it
+     * outlives the Enhancement being recreated on reload.
+     *
      * @param name Name of Enhancement.
      * @return Normalised version of `name`
      */
-    private String normalise(String name) {
-        return name.toLowerCase().strip().replaceAll("\s", "_");
+    public static String normalise(String name) {
+        // Each step returns `name` itself when there's nothing to change, so
+        // already normal names don't allocate.
+        return name.toLowerCase().strip().replace(' ', '_');
     }
 
     /**
@@ -73,15 +127,41 @@ public class EnhancementManager {
      *         instance of a known Enhancement subtype.
      */
     public boolean register(Enhancement enhancement) {
+        return register(enhancement, null);
+    }
+
+    /**
+     * Store and activate `enhancement`, registering `handlers` as its event
+     * handlers instead of looking them up reflectively.
+     *
+     * `handlers` usually comes from an EnhancementEntry in a generated
+     * EnhancementIndex. If it is null, handlers are looked up as with
+     * `register(enhancement)`.
+     *
+     * @param enhancement The Enhancement to store.
+     * @param handlers The enhancement's event handlers, or null.
+     * @return Whether the enhancement was registered.
+     * @throws IllegalArgumentException If `enhancement` is not an
+     *         instance of a known Enhancement subtype.
+     */
+    public boolean register(Enhancement enhancement,
+        List<HandlerBinding> handlers) {
         String name = normalise(enhancement.name());
         if (enhancementStore.containsKey(name))
             return false;
 
         if (enhancement instanceof ActiveEnhancement active) {
-            pluginManager.registerEvents(active, plugin);
+            if (handlers != null)
+                registerHandlers(active, handlers);
+            else if (interceptors.isEmpty())
+                pluginManager.registerEvents(active, plugin);
+            else
+                registerHandlers(active, findHandlers(active));
         } else if (enhancement instanceof PassiveEnhancement passive) {
-            plugin.getServer().getScheduler().runTaskTimer(plugin, passive,
+            BukkitTask task = plugin.getServer().getScheduler().runTaskTimer(
+                plugin, interceptors.isEmpty() ? passive : intercepted(passive),
                 passive.period(), passive.period());
+            passiveTasks.put(name, task);
         } else {
             throw new IllegalArgumentException("enhancement \"" +
                 enhancement.name() + "\" is not a valid extension " +
@@ -89,10 +169,245 @@ public class EnhancementManager {
         }
 
         enhancementStore.put(name, enhancement);
+        int id = registry.assign(name);
+        if (id >= byId.length)
+            byId = Arrays.copyOf(byId, Math.max(id + 1, byId.length * 2));
+        byId[id] = enhancement;
+        // A current name always wins over another enhancement's alias
+        lookup.put(name, enhancement);
+        dropAlias(name);
+        addAliases(name, enhancement);
+
+        return true;
+    }
+
+    /**
+     * Deactivate and forget the enhancement stored under `name`.
+     *
+     * Its handlers are unregistered, or its task cancelled, and neither its
+     * name nor its aliases resolve to it any more. Its ID stays reserved in
+     * the registry, so registering it again restores the same ID.
+     *
+     * @param name The name of the Enhancement.
+     * @return Whether an enhancement was unregistered.
+     */
+    public boolean unregister(String name) {
+        String normalName = normalise(name);
+        Enhancement enhancement = enhancementStore.remove(normalName);
+        if (enhancement == null)
+            return false;
+
+        if (enhancement instanceof ActiveEnhancement active)
+            HandlerList.unregisterAll(active);
+        BukkitTask task = passiveTasks.remove(normalName);
+        if (task != null)
+            task.cancel();
+
+        lookup.values().removeIf(stored -> stored == enhancement);
+        aliasTable.remove(normalName);
+        int id = registry.id(normalName);
+        if (id < byId.length && byId[id] == enhancement)
+            byId[id] = null;
 
         return true;
     }
 
+    /**
+     * Re-read the registry's manifest, and rebuild the alias table from it.
+     *
+     * Any registered enhancement missing from the manifest is given a new ID.
+     */
+    public void reloadRegistry() {
+        registry.reload(enhancementStore.keySet());
+
+        lookup.clear();
+        aliasTable.clear();
+        lookup.putAll(enhancementStore);
+        enhancementStore.forEach(this::addAliases);
+
+        Enhancement[] newById = new Enhancement[registry.maxId() + 1];
+        enhancementStore.forEach((name, enhancement) ->
+            newById[registry.id(name)] = enhancement);
+        this.byId = newById;
+    }
+
+    /**
+     * Adopt `shared`'s IDs and aliases, then rebuild the alias table.
+     *
+     * @param shared The registry to adopt, usually shared by a network.
+     */
+    public void adoptRegistry(EnhancementRegistry shared) {
+        registry.adopt(shared);
+        reloadRegistry();
+    }
+
+    /**
+     * This manager's registry of IDs and aliases.
+     *
+     * @return The EnhancementRegistry.
+     */
+    public EnhancementRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Make each of `name`'s aliases in the registry resolve to `enhancement`.
+     *
+     * Aliases which are the current name of an enhancement are ignored.
+     *
+     * @param name The normalised name of `enhancement`.
+     * @param enhancement The Enhancement.
+     */
+    private void addAliases(String name, Enhancement enhancement) {
+        List<String> aliases = registry.aliases().get(name);
+        if (aliases == null)
+            return;
+
+        ArrayList<String> usable = new ArrayList<>(aliases.size());
+        for (String alias : aliases) {
+            String normalAlias = normalise(alias);
+            if (enhancementStore.containsKey(normalAlias)) {
+                plugin.getLogger().warning("Ignoring alias " + alias + " of "
+                    + name + ", an enhancement already has that name.");
+                continue;
+            }
+            lookup.put(normalAlias, enhancement);
+            usable.add(alias);
+        }
+        aliasTable.put(name, List.copyOf(usable));
+    }
+
+    /**
+     * Remove `name` from every enhancement's aliases, now that it is an
+     * enhancement's current name.
+     *
+     * @param name The normalised name.
+     */
+    private void dropAlias(String name) {
+        aliasTable.replaceAll((owner, aliases) -> {
+            for (String alias : aliases) {
+                if (normalise(alias).equals(name)) {
+                    plugin.getLogger().warning("Ignoring alias " + alias
+                        + " of " + owner + ", an enhancement now has that "
+                        + "name.");
+                    return aliases.stream().filter(other ->
+                        !normalise(other).equals(name)).toList();
+                }
+            }
+            return aliases;
+        });
+    }
+
+    /**
+     * Add `interceptor`, wrapping every enhancement registered from now on.
+     *
+     * Interceptors are applied in the order they were added, the first being
+     * outermost.
+     *
+     * @param interceptor The EnhancementInterceptor to add.
+     */
+    public void addInterceptor(EnhancementInterceptor interceptor) {
+        interceptors.add(interceptor);
+    }
+
+    /**
+     * Wrap `invocation`, an invocation of `enhancement`, in all interceptors.
+     *
+     * @param enhancement The Enhancement being invoked.
+     * @param invocation The invocation to wrap.
+     * @return The wrapped invocation.
+     */
+    private Invocation intercept(Enhancement enhancement,
+        Invocation invocation) {
+        for (int i = interceptors.size() - 1; i >= 0; i--)
+            invocation = interceptors.get(i).wrap(enhancement, invocation);
+        return invocation;
+    }
+
+    /**
+     * Find each of `enhancement`'s event handlers.
+     *
+     * Handlers are found the same way `registerEvents()` finds them: any
+     * method annotated with EventHandler taking a single Event.
+     *
+     * @param enhancement The ActiveEnhancement to search.
+     * @return Its handlers, with executors calling them reflectively.
+     */
+    private List<HandlerBinding> findHandlers(ActiveEnhancement enhancement) {
+        HashSet<Method> methods = new HashSet<>(
+            List.of(enhancement.getClass().getMethods()));
+        methods.addAll(List.of(enhancement.getClass().getDeclaredMethods()));
+
+        ArrayList<HandlerBinding> handlers = new ArrayList<>();
+        for (Method method : methods) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            if (handler == null || method.isBridge() || method.isSynthetic()
+                || method.getParameterCount() != 1
+                || !Event.class.isAssignableFrom(method.getParameterTypes()[0]))
+                continue;
+
+            Class<? extends Event> eventType = method.getParameterTypes()[0]
+                .asSubclass(Event.class);
+            method.setAccessible(true);
+
+            handlers.add(new HandlerBinding(eventType, handler.priority(),
+                handler.ignoreCancelled(),
+                EventExecutor.create(method, eventType)));
+        }
+        return handlers;
+    }
+
+    /**
+     * Register each of `handlers` for `enhancement`, wrapped in all
+     * interceptors.
+     *
+     * @param enhancement The ActiveEnhancement to register.
+     * @param handlers Its event handlers.
+     */
+    private void registerHandlers(ActiveEnhancement enhancement,
+        List<HandlerBinding> handlers) {
+        for (HandlerBinding handler : handlers) {
+            Class<? extends Event> eventType = handler.eventType();
+            EventExecutor executor = handler.executor();
+            if (interceptors.isEmpty()) {
+                pluginManager.registerEvent(eventType, enhancement,
+                    handler.priority(), executor, plugin,
+                    handler.ignoreCancelled());
+                continue;
+            }
+
+            Invocation invocation = intercept(enhancement,
+                event -> executor.execute(enhancement, event));
+
+            pluginManager.registerEvent(eventType, enhancement,
+                handler.priority(), (listener, event) -> {
+                    // Events sharing a HandlerList with `eventType` are passed
+                    // here too, they aren't invocations of this handler.
+                    if (eventType.isInstance(event))
+                        invocation.proceed(event);
+                }, plugin, handler.ignoreCancelled());
+        }
+    }
+
+    /**
+     * Wrap `enhancement`'s run in all interceptors.
+     *
+     * @param enhancement The PassiveEnhancement to wrap.
+     * @return A Runnable running the wrapped invocation.
+     */
+    private Runnable intercepted(PassiveEnhancement enhancement) {
+        Invocation invocation = intercept(enhancement,
+            event -> enhancement.run());
+
+        return () -> {
+            try {
+                invocation.proceed(null);
+            } catch (EventException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        };
+    }
+
     /**
      * Retrieve the enhancement stored under `name`.
      *
@@ -103,7 +418,51 @@ public class EnhancementManager {
      * @return The Enhancement.
      */
     public Enhancement get(String name) {
-        return enhancementStore.getOrDefault(normalise(name), emptySocket);
+        return lookup.getOrDefault(normalise(name), emptySocket);
+    }
+
+    /**
+     * The current name of the enhancement `name` refers to.
+     *
+     * @param name The current name or an alias of an Enhancement.
+     * @return The Enhancement's name, or `name` itself if it isn't known.
+     */
+    public String canonicalName(String name) {
+        Enhancement enhancement = lookup.get(normalise(name));
+        return enhancement == null ? name : enhancement.name();
+    }
+
+    /**
+     * The old names items may still carry `name` under.
+     *
+     * @param name The current name of an Enhancement.
+     * @return Its aliases, empty if it has none.
+     */
+    public List<String> aliases(String name) {
+        return aliasTable.getOrDefault(normalise(name), List.of());
+    }
+
+    /**
+     * The stable ID of `enhancement`.
+     *
+     * @param enhancement The Enhancement.
+     * @return Its ID, or 0 if it isn't registered.
+     */
+    public int id(Enhancement enhancement) {
+        return registry.id(normalise(enhancement.name()));
+    }
+
+    /**
+     * Retrieve the enhancement with stable ID `id`.
+     *
+     * @param id The ID.
+     * @return The Enhancement, or an EmptySocket if `id` isn't registered.
+     */
+    public Enhancement byId(int id) {
+        Enhancement[] enhancements = byId;
+        if (id < 0 || id >= enhancements.length || enhancements[id] == null)
+            return emptySocket;
+        return enhancements[id];
     }
 
     /**
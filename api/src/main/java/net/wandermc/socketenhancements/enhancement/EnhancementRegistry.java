@@ -0,0 +1,313 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.enhancement;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+/**
+ * A manifest of stable numeric IDs and alias names for enhancements, kept in
+ * a YAML file so it survives restarts and renames.
+ *
+ * Each enhancement is given the next free ID the first time it's registered,
+ * and keeps it from then on, IDs are never reused. Renaming an enhancement is
+ * done by moving its entry to the new name and listing the old name as an
+ * alias, items carrying the old name then keep working.
+ *
+ * The file may be edited while the server is running and re-read with
+ * `EnhancementManager.reloadRegistry()`.
+ *
+ * Servers sharing items should share a manifest, two registries agree when
+ * their hashes do. A registry can be exported for other servers, and can
+ * adopt the IDs and aliases of another.
+ *
+ * Not thread-safe, only to be used on the main thread.
+ */
+public class EnhancementRegistry {
+    private static final List<String> HEADER = List.of(
+        "Stable IDs and aliases of enhancements, maintained by the plugin.",
+        "To rename an enhancement, move its entry to the new name and add the",
+        "old name to its aliases. Never reuse or change an ID.");
+
+    private final File file;
+    private final Logger logger;
+
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private final HashMap<Integer, String> names = new HashMap<>();
+    private final HashMap<String, List<String>> aliases = new HashMap<>();
+    private int nextId = 1;
+    // Cleared on every change
+    private String hash;
+
+    /**
+     * Create an EnhancementRegistry kept in `file`, reading it if it exists.
+     *
+     * @param file The manifest file.
+     * @param logger Where to report problems with the manifest.
+     */
+    public EnhancementRegistry(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+        load();
+    }
+
+    /**
+     * Create an EnhancementRegistry only kept in memory, without aliases.
+     */
+    public EnhancementRegistry() {
+        this.file = null;
+        this.logger = null;
+    }
+
+    /**
+     * The ID of `name`, assigning and saving the next free one if it has none.
+     *
+     * @param name The normalised name of an enhancement.
+     * @return Its ID.
+     */
+    public int assign(String name) {
+        Integer id = ids.get(name);
+        if (id != null)
+            return id;
+
+        id = nextId++;
+        ids.put(name, id);
+        names.put(id, name);
+        hash = null;
+        save();
+        return id;
+    }
+
+    /**
+     * The ID of `name`.
+     *
+     * @param name The normalised name of an enhancement.
+     * @return Its ID, or 0 if it has none.
+     */
+    public int id(String name) {
+        return ids.getOrDefault(name, 0);
+    }
+
+    /**
+     * The name with ID `id`.
+     *
+     * @param id The ID.
+     * @return The normalised name, or null if `id` isn't assigned.
+     */
+    public String name(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * Each enhancement's aliases.
+     *
+     * @return Aliases by normalised enhancement name, only enhancements with
+     *         aliases are included.
+     */
+    public Map<String, List<String>> aliases() {
+        return aliases;
+    }
+
+    /**
+     * The highest ID assigned so far.
+     *
+     * @return The highest ID, 0 if none are assigned.
+     */
+    public int maxId() {
+        return nextId - 1;
+    }
+
+    /**
+     * A hash of every entry's ID, name and aliases.
+     *
+     * Registries with the same hash resolve every name and ID the same way.
+     *
+     * @return The hash as 16 hex digits.
+     */
+    public String hash() {
+        if (hash != null)
+            return hash;
+
+        StringBuilder entries = new StringBuilder();
+        ArrayList<Integer> assigned = new ArrayList<>(names.keySet());
+        assigned.sort(null);
+        for (int id : assigned) {
+            String name = names.get(id);
+            ArrayList<String> sortedAliases = new ArrayList<>(
+                aliases.getOrDefault(name, List.of()));
+            sortedAliases.sort(null);
+            entries.append(id).append(' ').append(name).append(' ')
+                .append(String.join(",", sortedAliases)).append('\n');
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                entries.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(16);
+            for (int i = 0; i < 8; i++)
+                hex.append(String.format("%02x", digest[i]));
+            this.hash = hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM must support SHA-256
+            throw new IllegalStateException(e);
+        }
+        return hash;
+    }
+
+    /**
+     * Replace every entry with `other`'s, keeping IDs of names `other`
+     * doesn't have out of its way.
+     *
+     * Registered enhancements missing from `other` should be given new IDs
+     * with `reload()` afterwards.
+     *
+     * @param other The registry to adopt.
+     */
+    public void adopt(EnhancementRegistry other) {
+        ids.clear();
+        names.clear();
+        aliases.clear();
+        ids.putAll(other.ids);
+        names.putAll(other.names);
+        aliases.putAll(other.aliases);
+        nextId = Math.max(nextId, other.nextId);
+        hash = null;
+        save();
+    }
+
+    /**
+     * Write this registry to `target`, for other servers to check against or
+     * adopt.
+     *
+     * @param target Where to write.
+     * @throws IOException If `target` can't be written.
+     */
+    public void export(File target) throws IOException {
+        write(target);
+    }
+
+    /**
+     * Re-read the manifest if kept in a file, then assign IDs to any of
+     * `registered` missing one.
+     *
+     * @param registered The normalised names of all registered enhancements.
+     */
+    public void reload(Iterable<String> registered) {
+        if (file != null) {
+            ids.clear();
+            names.clear();
+            aliases.clear();
+            nextId = 1;
+            hash = null;
+            load();
+        }
+
+        for (String name : registered)
+            assign(name);
+    }
+
+    /**
+     * Read the manifest into memory.
+     *
+     * Entries with a missing or duplicate ID are dropped, and get a new ID if
+     * they're registered again.
+     */
+    private void load() {
+        if (file == null || !file.exists())
+            return;
+
+        YamlConfiguration manifest = YamlConfiguration.loadConfiguration(file);
+        ConfigurationSection enhancements = manifest
+            .getConfigurationSection("enhancements");
+        if (enhancements != null) {
+            for (String name : enhancements.getKeys(false)) {
+                ConfigurationSection entry = enhancements
+                    .getConfigurationSection(name);
+                int id = entry == null ? 0 : entry.getInt("id", 0);
+                if (id < 1 || names.containsKey(id)) {
+                    logger.warning("Ignoring registry entry " + name
+                        + ", its ID is missing or already in use.");
+                    continue;
+                }
+
+                ids.put(name, id);
+                names.put(id, name);
+                nextId = Math.max(nextId, id + 1);
+
+                List<String> entryAliases = entry.getStringList("aliases");
+                if (!entryAliases.isEmpty())
+                    aliases.put(name, List.copyOf(entryAliases));
+            }
+        }
+
+        // Kept so IDs of removed entries aren't reused
+        nextId = Math.max(nextId, manifest.getInt("next_id", 1));
+    }
+
+    /**
+     * Write the manifest, if this registry is kept in a file.
+     */
+    private void save() {
+        if (file == null)
+            return;
+
+        try {
+            write(file);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Unable to save the enhancement registry"
+                + " to " + file, e);
+        }
+    }
+
+    /**
+     * Write this registry to `target`, keeping the order IDs were assigned
+     * in.
+     *
+     * The hash is included for reference only, it's recomputed when read.
+     */
+    private void write(File target) throws IOException {
+        YamlConfiguration manifest = new YamlConfiguration();
+        manifest.options().setHeader(HEADER);
+        manifest.set("hash", hash());
+        manifest.set("next_id", nextId);
+
+        ArrayList<Integer> assigned = new ArrayList<>(names.keySet());
+        assigned.sort(null);
+        for (int id : assigned) {
+            String name = names.get(id);
+            manifest.set("enhancements." + name + ".id", id);
+            if (aliases.containsKey(name))
+                manifest.set("enhancements." + name + ".aliases",
+                    aliases.get(name));
+        }
+
+        manifest.save(target);
+    }
+}
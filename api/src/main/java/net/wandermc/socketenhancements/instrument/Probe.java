@@ -0,0 +1,147 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument;
+
+import java.util.Arrays;
+
+import org.bukkit.inventory.ItemStack;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementRarity;
+import net.wandermc.socketenhancements.util.event.BlockableAction;
+
+/**
+ * Instrumentation points reported from inside enhancements, EnhancedItemForge,
+ * ItemEventBlockers and the item managers.
+ *
+ * With no ProbeSinks installed, reporting a point costs a single field read.
+ */
+public final class Probe {
+    private static volatile ProbeSink[] sinks = new ProbeSink[0];
+
+    private Probe() {}
+
+    /**
+     * Install `sink`, so it receives all points reported from now on.
+     *
+     * @param sink The ProbeSink to report to.
+     */
+    public static synchronized void install(ProbeSink sink) {
+        ProbeSink[] installed = Arrays.copyOf(sinks, sinks.length + 1);
+        installed[sinks.length] = sink;
+        sinks = installed;
+    }
+
+    /**
+     * Stop reporting to `sink`.
+     *
+     * @param sink The ProbeSink to remove.
+     */
+    public static synchronized void uninstall(ProbeSink sink) {
+        sinks = Arrays.stream(sinks).filter(installed -> installed != sink)
+            .toArray(ProbeSink[]::new);
+    }
+
+    /**
+     * Whether any ProbeSinks are installed.
+     *
+     * For points that take extra work to report, which can be skipped when
+     * nothing would receive them.
+     *
+     * @return Whether reported points are received.
+     */
+    public static boolean active() {
+        return sinks.length > 0;
+    }
+
+    /**
+     * Report that an item was found to have `enhancement` bound to it.
+     *
+     * @param enhancement The Enhancement that was found.
+     */
+    public static void hit(Enhancement enhancement) {
+        for (ProbeSink sink : sinks)
+            sink.hit(enhancement);
+    }
+
+    /**
+     * Report that `item` was found to have `enhancement` bound to it.
+     *
+     * @param enhancement The Enhancement that was found.
+     * @param item The item it was found on.
+     */
+    public static void hit(Enhancement enhancement, ItemStack item) {
+        for (ProbeSink sink : sinks)
+            sink.hit(enhancement, item);
+    }
+
+    /**
+     * Report that `enhancement` applied its effect.
+     *
+     * Enhancements should report this once per activation, after deciding to
+     * apply their effect (chance rolled, cost met, etc.).
+     *
+     * @param enhancement The Enhancement that was activated.
+     */
+    public static void activated(Enhancement enhancement) {
+        for (ProbeSink sink : sinks)
+            sink.activated(enhancement);
+    }
+
+    /**
+     * Report that an item's sockets were read.
+     *
+     * @param fastPath Whether the item had no data at all, so nothing had to
+     *                 be decoded.
+     */
+    public static void decoded(boolean fastPath) {
+        for (ProbeSink sink : sinks)
+            sink.decoded(fastPath);
+    }
+
+    /**
+     * Report that an ItemEventBlocker blocked `action`.
+     *
+     * @param action The action that was blocked.
+     */
+    public static void blocked(BlockableAction action) {
+        for (ProbeSink sink : sinks)
+            sink.blocked(action);
+    }
+
+    /**
+     * Report that an enhancement was rolled from an enhancement table's pool
+     * for `rarity`.
+     *
+     * @param rarity The rarity of the pool rolled from.
+     */
+    public static void tableRoll(EnhancementRarity rarity) {
+        for (ProbeSink sink : sinks)
+            sink.tableRoll(rarity);
+    }
+
+    /**
+     * Report that a crafting result was previewed.
+     *
+     * @param recipe What kind of recipe, e.g. `orb_of_binding`.
+     */
+    public static void craftPreview(String recipe) {
+        for (ProbeSink sink : sinks)
+            sink.craftPreview(recipe);
+    }
+}
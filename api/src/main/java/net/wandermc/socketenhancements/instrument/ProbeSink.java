@@ -0,0 +1,89 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument;
+
+import org.bukkit.inventory.ItemStack;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementRarity;
+import net.wandermc.socketenhancements.util.event.BlockableAction;
+
+/**
+ * Receives the points reported to Probe.
+ *
+ * All methods are called on whichever thread reported them, which will almost
+ * always be the main thread.
+ *
+ * Points other than `hit` and `activated` are ignored unless overridden.
+ */
+public interface ProbeSink {
+    /**
+     * An item was found to have `enhancement` bound to it.
+     *
+     * @param enhancement The Enhancement that was found.
+     */
+    public void hit(Enhancement enhancement);
+
+    /**
+     * `item` was found to have `enhancement` bound to it.
+     *
+     * Reported instead of `hit(Enhancement)` where the item is known, passes
+     * the point on to it unless overridden.
+     *
+     * @param enhancement The Enhancement that was found.
+     * @param item The item it was found on, not to be modified.
+     */
+    public default void hit(Enhancement enhancement, ItemStack item) {
+        hit(enhancement);
+    }
+
+    /**
+     * `enhancement` applied its effect.
+     *
+     * @param enhancement The Enhancement that was activated.
+     */
+    public void activated(Enhancement enhancement);
+
+    /**
+     * An item's sockets were read.
+     *
+     * @param fastPath Whether the item had no data, so nothing was decoded.
+     */
+    public default void decoded(boolean fastPath) {}
+
+    /**
+     * An ItemEventBlocker blocked `action`.
+     *
+     * @param action The action that was blocked.
+     */
+    public default void blocked(BlockableAction action) {}
+
+    /**
+     * An enhancement was rolled from the enhancement table pool for `rarity`.
+     *
+     * @param rarity The rarity of the pool.
+     */
+    public default void tableRoll(EnhancementRarity rarity) {}
+
+    /**
+     * A crafting result was previewed.
+     *
+     * @param recipe What kind of recipe.
+     */
+    public default void craftPreview(String recipe) {}
+}
@@ -0,0 +1,44 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: an ItemEventBlocker deciding whether to block an event.
+ */
+@Name("socketenhancements.BlockerVerdict")
+@Label("Blocker Verdict")
+@Category("SocketEnhancements")
+@Description("An ItemEventBlocker deciding whether to block an event")
+@StackTrace(false)
+public class BlockerVerdict extends jdk.jfr.Event {
+    @Label("Action")
+    public String action;
+
+    @Label("Trigger")
+    @Description("The Bukkit event checked")
+    public String trigger;
+
+    @Label("Blocked")
+    public boolean blocked;
+}
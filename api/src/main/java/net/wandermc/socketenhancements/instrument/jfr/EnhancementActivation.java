@@ -0,0 +1,50 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: a single invocation of an enhancement's event handler or passive
+ * run.
+ */
+@Name("socketenhancements.EnhancementActivation")
+@Label("Enhancement Activation")
+@Category("SocketEnhancements")
+@Description("An enhancement's event handler or passive run")
+@StackTrace(false)
+public class EnhancementActivation extends jdk.jfr.Event {
+    @Label("Enhancement")
+    public String enhancement;
+
+    @Label("Trigger")
+    @Description("The Bukkit event handled, or \"passive\" for passive runs")
+    public String trigger;
+
+    @Label("Entity Type")
+    @Description("Type of the entity the event is about, if any")
+    public String entityType;
+
+    @Label("Activated")
+    @Description("Whether the enhancement applied its effect")
+    public boolean activated;
+}
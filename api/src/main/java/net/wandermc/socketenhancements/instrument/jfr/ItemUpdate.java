@@ -0,0 +1,47 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: an EnhancedItem's changes being written to its ItemStack.
+ */
+@Name("socketenhancements.ItemUpdate")
+@Label("Item Update")
+@Category("SocketEnhancements")
+@Description("An EnhancedItem's changes being written to its ItemStack")
+@StackTrace(false)
+public class ItemUpdate extends jdk.jfr.Event {
+    @Label("Material")
+    public String material;
+
+    @Label("Lore Lines")
+    @Description("Lines of lore written")
+    public int loreLines;
+
+    @Label("Bytes Changed")
+    @Description("Change in the item's serialised size")
+    @DataAmount
+    public long bytesChanged;
+}
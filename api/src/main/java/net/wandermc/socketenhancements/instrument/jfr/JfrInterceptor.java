@@ -0,0 +1,105 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument.jfr;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.player.PlayerEvent;
+
+import jdk.jfr.EventType;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementInterceptor;
+import net.wandermc.socketenhancements.enhancement.EnhancementManager;
+import net.wandermc.socketenhancements.instrument.ProbeSink;
+
+/**
+ * Emits an EnhancementActivation JFR event for every enhancement invocation,
+ * while a recording with the event enabled is running.
+ *
+ * Must be installed as a ProbeSink as well as added to the
+ * EnhancementManager, to know which invocations activated their enhancement.
+ */
+public class JfrInterceptor implements EnhancementInterceptor, ProbeSink {
+    private static final EventType activationType = EventType.getEventType(
+        EnhancementActivation.class);
+
+    // Activations per enhancement, only counted while recording. By
+    // normalised name, so an enhancement recreated on reload reuses its count
+    private final ConcurrentHashMap<String, LongAdder> activations =
+        new ConcurrentHashMap<>();
+
+    public Invocation wrap(Enhancement enhancement, Invocation next) {
+        String name = enhancement.name();
+        LongAdder count = activations.computeIfAbsent(
+            EnhancementManager.normalise(name), key -> new LongAdder());
+
+        return event -> {
+            EnhancementActivation activation = new EnhancementActivation();
+            if (!activation.isEnabled()) {
+                next.proceed(event);
+                return;
+            }
+
+            long before = count.sum();
+            activation.begin();
+            try {
+                next.proceed(event);
+            } finally {
+                activation.end();
+                if (activation.shouldCommit()) {
+                    activation.enhancement = name;
+                    activation.trigger = event == null ? "passive"
+                        : event.getEventName();
+                    activation.entityType = entityType(event);
+                    activation.activated = count.sum() != before;
+                    activation.commit();
+                }
+            }
+        };
+    }
+
+    public void hit(Enhancement enhancement) {}
+
+    public void activated(Enhancement enhancement) {
+        if (!activationType.isEnabled())
+            return;
+
+        LongAdder count = activations.get(
+            EnhancementManager.normalise(enhancement.name()));
+        if (count != null)
+            count.increment();
+    }
+
+    /**
+     * The type of the entity `event` is about.
+     *
+     * @param event The event, may be null.
+     * @return The entity type's name, or an empty string if there isn't one.
+     */
+    private static String entityType(Event event) {
+        if (event instanceof EntityEvent entityEvent)
+            return entityEvent.getEntityType().name();
+        if (event instanceof PlayerEvent)
+            return "PLAYER";
+        return "";
+    }
+}
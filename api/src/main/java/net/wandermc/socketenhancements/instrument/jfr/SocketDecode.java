@@ -0,0 +1,44 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event: the socket list of an item being read.
+ */
+@Name("socketenhancements.SocketDecode")
+@Label("Socket Decode")
+@Category("SocketEnhancements")
+@Description("The socket list of an item being read")
+@StackTrace(false)
+public class SocketDecode extends jdk.jfr.Event {
+    @Label("Material")
+    public String material;
+
+    @Label("Sockets")
+    public int sockets;
+
+    @Label("Fast Path")
+    @Description("Whether the item was rejected without reading its data")
+    public boolean fastPath;
+}
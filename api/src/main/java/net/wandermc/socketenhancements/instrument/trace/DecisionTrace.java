@@ -0,0 +1,158 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument.trace;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+
+/**
+ * Per-player tracing of enhancement decisions.
+ *
+ * While a player is traced, every enhancement handler invoked for them (see
+ * DecisionTraceInterceptor) records its steps into the player's TraceBuffer:
+ * the event handled, guards that rejected it, socket decodes, cost checks and
+ * whether it activated.
+ *
+ * With nobody traced, a handler invocation costs a single volatile read, and
+ * each step reported with `note()` a plain field read, so tracing can be left
+ * compiled into production builds. Steps that need building should be guarded
+ * with `isTracing()`:
+ *
+ * if (DecisionTrace.isTracing())
+ *     DecisionTrace.note("cost met: " + met);
+ */
+public final class DecisionTrace {
+    // Immutable once published, replaced as a whole. Null if nobody is traced.
+    private static volatile Map<UUID, TraceBuffer> traced = null;
+
+    // The handler invocation being traced, main thread only.
+    private static TraceBuffer current;
+    private static String currentEnhancement;
+
+    private DecisionTrace() {}
+
+    /**
+     * Start tracing the player with `uuid`, replacing any current trace.
+     *
+     * @param uuid The player's UUID.
+     * @param capacity How many steps to keep.
+     * @param enhancement Only trace the enhancement with this name, null for
+     *                    all.
+     * @return The player's new TraceBuffer.
+     */
+    public static synchronized TraceBuffer start(UUID uuid, int capacity,
+        String enhancement) {
+        TraceBuffer buffer = new TraceBuffer(capacity, enhancement);
+
+        HashMap<UUID, TraceBuffer> updated = traced == null ? new HashMap<>()
+            : new HashMap<>(traced);
+        updated.put(uuid, buffer);
+        traced = Map.copyOf(updated);
+        return buffer;
+    }
+
+    /**
+     * Stop tracing the player with `uuid`.
+     *
+     * @param uuid The player's UUID.
+     * @return Their TraceBuffer, or null if they weren't traced.
+     */
+    public static synchronized TraceBuffer stop(UUID uuid) {
+        if (traced == null || !traced.containsKey(uuid))
+            return null;
+
+        HashMap<UUID, TraceBuffer> updated = new HashMap<>(traced);
+        TraceBuffer buffer = updated.remove(uuid);
+        traced = updated.isEmpty() ? null : Map.copyOf(updated);
+        return buffer;
+    }
+
+    /**
+     * Stop tracing everyone.
+     */
+    public static synchronized void stopAll() {
+        traced = null;
+    }
+
+    /**
+     * Every traced player's TraceBuffer.
+     *
+     * @return The buffers keyed by player UUID, null if nobody is traced.
+     */
+    public static Map<UUID, TraceBuffer> traced() {
+        return traced;
+    }
+
+    /**
+     * Whether the current handler invocation is being traced.
+     *
+     * @return Whether steps reported now would be recorded.
+     */
+    public static boolean isTracing() {
+        return current != null && Bukkit.isPrimaryThread();
+    }
+
+    /**
+     * Record `step` for the current handler invocation, if it's being traced.
+     *
+     * @param step What happened.
+     */
+    public static void note(String step) {
+        TraceBuffer buffer = current;
+        if (buffer != null && Bukkit.isPrimaryThread())
+            buffer.record(Bukkit.getCurrentTick(), currentEnhancement, step);
+    }
+
+    /**
+     * Start tracing a handler invocation into `buffer`.
+     *
+     * @param buffer The traced player's buffer.
+     * @param enhancement The enhancement being handled.
+     * @return The previous traced invocation's buffer, to be restored with
+     *         `exit()` (handlers can fire events of their own).
+     */
+    static TraceBuffer enter(TraceBuffer buffer, String enhancement) {
+        TraceBuffer previous = current;
+        current = buffer;
+        currentEnhancement = enhancement;
+        return previous;
+    }
+
+    /**
+     * Stop tracing the current handler invocation.
+     *
+     * @param previous What `enter()` returned.
+     * @param previousEnhancement The previous invocation's enhancement.
+     */
+    static void exit(TraceBuffer previous, String previousEnhancement) {
+        current = previous;
+        currentEnhancement = previousEnhancement;
+    }
+
+    /**
+     * The enhancement being handled in the current traced invocation.
+     *
+     * @return Its name, or null if not tracing.
+     */
+    static String currentEnhancement() {
+        return currentEnhancement;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument.trace;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.player.PlayerEvent;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementInterceptor;
+import net.wandermc.socketenhancements.instrument.ProbeSink;
+
+/**
+ * Traces the handler invocations of players being traced with DecisionTrace.
+ *
+ * An invocation is traced if the player the event is about (or the damager,
+ * for damage events) is being traced. Passive runs and events off the main
+ * thread aren't traced.
+ *
+ * Must be installed as a ProbeSink as well as added to the
+ * EnhancementManager, to trace hits and activations.
+ */
+public class DecisionTraceInterceptor implements EnhancementInterceptor,
+    ProbeSink {
+    public Invocation wrap(Enhancement enhancement, Invocation next) {
+        String name = enhancement.name();
+
+        return event -> {
+            Map<UUID, TraceBuffer> traced = DecisionTrace.traced();
+            if (traced == null || event == null) {
+                next.proceed(event);
+                return;
+            }
+
+            TraceBuffer buffer = bufferFor(traced, event);
+            if (buffer == null || !buffer.accepts(name)
+                || !Bukkit.isPrimaryThread()) {
+                next.proceed(event);
+                return;
+            }
+
+            String previousEnhancement = DecisionTrace.currentEnhancement();
+            TraceBuffer previous = DecisionTrace.enter(buffer, name);
+            DecisionTrace.note("handling " + event.getEventName());
+            long start = System.nanoTime();
+            try {
+                next.proceed(event);
+            } finally {
+                DecisionTrace.note(String.format("done in %.1fµs",
+                    (System.nanoTime() - start) / 1000.0));
+                DecisionTrace.exit(previous, previousEnhancement);
+            }
+        };
+    }
+
+    public void hit(Enhancement enhancement) {
+        if (DecisionTrace.isTracing())
+            DecisionTrace.note("item has " + enhancement.name());
+    }
+
+    public void activated(Enhancement enhancement) {
+        if (DecisionTrace.isTracing())
+            DecisionTrace.note("activated " + enhancement.name());
+    }
+
+    /**
+     * Find the buffer of the traced player involved in `event`.
+     *
+     * @param traced Every traced player's buffer.
+     * @param event The event.
+     * @return The buffer, or null if no traced player is involved.
+     */
+    private static TraceBuffer bufferFor(Map<UUID, TraceBuffer> traced,
+        Event event) {
+        Entity entity = null;
+        if (event instanceof PlayerEvent playerEvent)
+            entity = playerEvent.getPlayer();
+        else if (event instanceof EntityEvent entityEvent)
+            entity = entityEvent.getEntity();
+        else if (event instanceof BlockBreakEvent breakEvent)
+            entity = breakEvent.getPlayer();
+
+        TraceBuffer buffer = entity instanceof Player
+            ? traced.get(entity.getUniqueId()) : null;
+        if (buffer == null
+            && event instanceof EntityDamageByEntityEvent damageEvent
+            && damageEvent.getDamager() instanceof Player damager)
+            buffer = traced.get(damager.getUniqueId());
+        return buffer;
+    }
+}
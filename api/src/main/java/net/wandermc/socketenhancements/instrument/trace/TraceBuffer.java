@@ -0,0 +1,122 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.instrument.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-size ring buffer of decision steps for one traced player.
+ *
+ * Once full, each new step overwrites the oldest. Steps are recorded on the
+ * main thread, `snapshot()` is synchronised with recording so it may be called
+ * from anywhere.
+ */
+public class TraceBuffer {
+    /**
+     * A single recorded step.
+     *
+     * @param millis Wall clock time, as from `System.currentTimeMillis()`.
+     * @param tick The server tick.
+     * @param enhancement The name of the enhancement being handled.
+     * @param step What happened.
+     */
+    public record Step(long millis, int tick, String enhancement,
+        String step) {}
+
+    private final String filter;
+
+    private final long[] millis;
+    private final int[] ticks;
+    private final String[] enhancements;
+    private final String[] steps;
+    private int next;
+    private int size;
+
+    /**
+     * Create an empty TraceBuffer.
+     *
+     * @param capacity How many steps to keep.
+     * @param filter Only trace the enhancement with this name, null for all.
+     * @throws IllegalArgumentException If `capacity` is less than 1.
+     */
+    public TraceBuffer(int capacity, String filter) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive");
+
+        this.filter = filter;
+        this.millis = new long[capacity];
+        this.ticks = new int[capacity];
+        this.enhancements = new String[capacity];
+        this.steps = new String[capacity];
+    }
+
+    /**
+     * Whether steps of the enhancement called `enhancement` are traced.
+     *
+     * @param enhancement The enhancement's name.
+     * @return Whether it passes this buffer's filter.
+     */
+    public boolean accepts(String enhancement) {
+        return filter == null || filter.equals(enhancement);
+    }
+
+    /**
+     * The enhancement this buffer is limited to.
+     *
+     * @return The enhancement's name, or null if all are traced.
+     */
+    public String filter() {
+        return filter;
+    }
+
+    /**
+     * Record a step, overwriting the oldest if full.
+     *
+     * @param tick The current server tick.
+     * @param enhancement The name of the enhancement being handled.
+     * @param step What happened.
+     */
+    public synchronized void record(int tick, String enhancement,
+        String step) {
+        millis[next] = System.currentTimeMillis();
+        ticks[next] = tick;
+        enhancements[next] = enhancement;
+        steps[next] = step;
+
+        next = (next + 1) % steps.length;
+        if (size < steps.length)
+            size++;
+    }
+
+    /**
+     * Copy every step currently held.
+     *
+     * @return The steps, oldest first.
+     */
+    public synchronized List<Step> snapshot() {
+        ArrayList<Step> snapshot = new ArrayList<>(size);
+        int first = (next - size + steps.length) % steps.length;
+        for (int i = 0; i < size; i++) {
+            int index = (first + i) % steps.length;
+            snapshot.add(new Step(millis[index], ticks[index],
+                enhancements[index], steps[index]));
+        }
+        return snapshot;
+    }
+}
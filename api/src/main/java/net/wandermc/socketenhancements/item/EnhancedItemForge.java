@@ -18,8 +18,11 @@
 package net.wandermc.socketenhancements.item;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.EnumMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
@@ -30,28 +33,59 @@ import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import io.papermc.paper.persistence.PersistentDataContainerView;
+
 import net.kyori.adventure.text.Component;
 
 import net.wandermc.socketenhancements.enhancement.Enhancement;
 import net.wandermc.socketenhancements.enhancement.EnhancementManager;
+import net.wandermc.socketenhancements.instrument.Probe;
+import net.wandermc.socketenhancements.instrument.jfr.ItemUpdate;
+import net.wandermc.socketenhancements.instrument.jfr.SocketDecode;
+import net.wandermc.socketenhancements.instrument.trace.DecisionTrace;
 
 /**
  * Class for the creation of EnhancedItem instances.
  *
  * Where EnhancementManager is responsible for managing Enhancements,
  * EnhancedItem handles storing those Enhancements on items.
+ *
+ * Written items are stamped with a schema version next to their sockets.
+ * Items without a stamp are version 1. Upgrades registered for later versions
+ * are applied when an EnhancedItem is created, so they are saved the next
+ * time the item is written anyway.
+ *
+ * If enabled, written items are also given an ItemStamp, which caches of
+ * anything derived from an item's sockets can be keyed on.
  */
 public class EnhancedItemForge {
+    /**
+     * The schema version of items without a version stamp.
+     */
+    public static final int BASE_VERSION = 1;
+
     private final EnhancementManager manager;
     private final NamespacedKey socketsKey;
-    private final EnumMap<Material, Integer> socketLimits;
-    private final int defaultSocketLimit;
+    private final NamespacedKey versionKey;
+    private final TreeMap<Integer, SocketUpgrade> upgrades = new TreeMap<>();
+    private int currentVersion = BASE_VERSION;
+    private final NamespacedKey stampKey;
+    private boolean stampItems;
+    // Swapped whole by setLimits(), so readers never see a mix
+    private volatile SocketLimits limits;
+
+    /**
+     * Socket limits by Material, and the limit for anything else.
+     */
+    private record SocketLimits(EnumMap<Material, Integer> byMaterial,
+        int fallback) {}
 
     /**
      * Create an EnhancedItemForge for `plugin`.
      *
      * `config` defaults:
      * default: 0
+     * stamp_items: false
      *
      * `config` is expected to have a sub-configuration section "limits", With
      * set limits for specific Materials.
@@ -64,13 +98,64 @@ public class EnhancedItemForge {
         ConfigurationSection config) {
         this.manager = manager;
         this.socketsKey = new NamespacedKey(plugin, "sockets");
+        this.versionKey = new NamespacedKey(plugin, "sockets_version");
 
-        this.socketLimits = parseLimits(config);
+        this.stampKey = new NamespacedKey(plugin, "stamp");
+        this.stampItems = config.getBoolean("stamp_items", false);
 
+        setLimits(config);
+    }
+
+    /**
+     * Replace the socket limits with those in `config`.
+     *
+     * Items keep any sockets they already have past their new limit.
+     *
+     * `config` defaults:
+     * default: 0
+     *
+     * @param config Configuration options, with limits for specific
+     *               Materials in a "limits" section.
+     */
+    public void setLimits(ConfigurationSection config) {
         int dsl = config.getInt("default", 0);
         if (dsl < 0)
             dsl = 0;
-        this.defaultSocketLimit = dsl;
+        this.limits = new SocketLimits(parseLimits(config), dsl);
+    }
+
+    /**
+     * Register `upgrade` to be applied to items with a schema version below
+     * `version`, after any upgrades for earlier versions.
+     *
+     * Items are stamped with the highest registered version once written, so
+     * a version must never be reused for a different upgrade.
+     *
+     * `has()` never applies upgrades, see SocketUpgrade. A renaming upgrade
+     * needs its old names registered as aliases.
+     *
+     * @param version The schema version `upgrade` brings items up to.
+     * @param upgrade The upgrade.
+     * @throws IllegalArgumentException if `version` isn't above BASE_VERSION
+     *         or already has an upgrade.
+     */
+    public void addUpgrade(int version, SocketUpgrade upgrade) {
+        if (version <= BASE_VERSION)
+            throw new IllegalArgumentException("Upgrade versions start at "
+                + (BASE_VERSION + 1));
+        if (upgrades.putIfAbsent(version, upgrade) != null)
+            throw new IllegalArgumentException("Version " + version
+                + " already has an upgrade");
+        currentVersion = Math.max(currentVersion, version);
+    }
+
+    /**
+     * The schema version written items are stamped with.
+     *
+     * @return The current schema version.
+     */
+    public int currentVersion() {
+        return currentVersion;
     }
 
     /**
@@ -118,7 +203,7 @@ public class EnhancedItemForge {
      * @return All enhanceable materials.
      */
     public Set<Material> enhanceableMaterials() {
-        return socketLimits.keySet();
+        return limits.byMaterial().keySet();
     }
 
     /**
@@ -127,42 +212,185 @@ public class EnhancedItemForge {
      * @return Socket limit for `mat`.
      */
     public int socketLimit(Material mat) {
-        return socketLimits.getOrDefault(mat, -1);
+        return limits.byMaterial().getOrDefault(mat, -1);
     }
 
     /**
      * How many sockets are currently on `item`.
      *
-     * Shortcut for create(item).sockets();
+     * Equivalent to create(item).sockets(), but reads the item's data directly
+     * rather than cloning its ItemMeta.
      *
      * @return The number of sockets.
      */
     public int sockets(ItemStack item) {
-        return create(item).sockets();
+        return readSockets(item).size();
+    }
+
+    /**
+     * The name bound to each of `item`'s sockets, empty sockets included.
+     *
+     * Reads the item's data directly rather than cloning its ItemMeta.
+     *
+     * @param item The item to read, may be null.
+     * @return The names in socket order, empty if `item` has no sockets.
+     */
+    public List<String> socketContents(ItemStack item) {
+        return List.copyOf(readSockets(item));
+    }
+
+    /**
+     * Stamp items from now on, whatever `stamp_items` is set to.
+     *
+     * For features that key data on ItemStamps.
+     */
+    public void enableStamps() {
+        this.stampItems = true;
+    }
+
+    /**
+     * The stamp identifying the current revision of `item`'s sockets.
+     *
+     * Reads the item's data directly rather than cloning its ItemMeta.
+     *
+     * @param item The item to read, may be null.
+     * @return The stamp, or null if `item` has none. Items are only stamped
+     *         when written with `stamp_items` enabled.
+     */
+    public ItemStamp stamp(ItemStack item) {
+        if (item == null || !item.hasItemMeta())
+            return null;
+
+        return toStamp(item.getPersistentDataContainer().get(stampKey,
+            PersistentDataType.LONG_ARRAY));
+    }
+
+    /**
+     * Parse a stored stamp.
+     *
+     * @param stored The stored ID and revision, may be null.
+     * @return The stamp, or null if `stored` isn't a valid stamp.
+     */
+    private static ItemStamp toStamp(long[] stored) {
+        if (stored == null || stored.length != 2 || stored[0] == 0)
+            return null;
+        return new ItemStamp(stored[0], stored[1]);
     }
 
     /**
      * Whether `item` has `enhancement` currently bound to it.
      *
-     * Shortcut for create(item).has(enhancement)
+     * Equivalent to create(item).has(enhancement), but reads the item's data
+     * directly rather than cloning its ItemMeta.
      *
      * @param enhancement The Enhancement to look for.
      * @return Whether it's bound.
      */
     public boolean has(ItemStack item, Enhancement enhancement) {
-        return create(item).has(enhancement.name());
+        if (!has(item, enhancement.name()))
+            return false;
+
+        Probe.hit(enhancement, item);
+        return true;
     }
 
     /**
      * Whether `item` has `enhancementName` currently bound to it.
      *
-     * Shortcut for create(item).has(enhancementName)
+     * Equivalent to create(item).has(enhancementName), but reads the item's
+     * data directly rather than cloning its ItemMeta.
      *
      * @param enhancement The name of the Enhancement to look for.
      * @return Whether it's bound.
      */
     public boolean has(ItemStack item, String enhancementName) {
-        return create(item).has(enhancementName);
+        List<String> sockets = readSockets(item);
+        boolean has = sockets.contains(enhancementName)
+            || hasAlias(sockets, enhancementName);
+        if (DecisionTrace.isTracing())
+            DecisionTrace.note("item has " + enhancementName + ": " + has);
+        return has;
+    }
+
+    /**
+     * Whether `sockets` holds one of `enhancementName`'s aliases.
+     *
+     * @param sockets An item's socket list.
+     * @param enhancementName The current name of an Enhancement.
+     * @return Whether an old name of it is bound.
+     */
+    private boolean hasAlias(List<String> sockets, String enhancementName) {
+        if (sockets.isEmpty())
+            return false;
+
+        List<String> aliases = manager.aliases(enhancementName);
+        for (int i = 0; i < aliases.size(); i++) {
+            if (sockets.contains(aliases.get(i)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Read the socket list stored on `item` without cloning its ItemMeta.
+     *
+     * Items without any data at all (which includes AIR), are rejected
+     * before their data container is looked at.
+     *
+     * @param item The item to read.
+     * @return The item's socket list, empty if it has none. Not to be
+     *         modified.
+     */
+    private List<String> readSockets(ItemStack item) {
+        SocketDecode decode = new SocketDecode();
+        decode.begin();
+
+        List<String> sockets = null;
+        boolean fastPath = item == null || !item.hasItemMeta();
+        if (!fastPath)
+            sockets = decode(item.getPersistentDataContainer());
+        if (sockets == null)
+            sockets = List.of();
+
+        decode.end();
+        if (decode.shouldCommit()) {
+            decode.material = item == null ? "" : item.getType().name();
+            decode.sockets = sockets.size();
+            decode.fastPath = fastPath;
+            decode.commit();
+        }
+        Probe.decoded(fastPath);
+        if (DecisionTrace.isTracing())
+            DecisionTrace.note(fastPath ? "read sockets: item has no data"
+                : "read sockets of " + item.getType() + ": " + sockets);
+
+        return sockets;
+    }
+
+    /**
+     * Read the socket list in `container`.
+     *
+     * Every schema version stores sockets as the same list of names, versions
+     * only differ in what the names mean, which upgrades take care of.
+     *
+     * @param container The item's data.
+     * @return The socket list, or null if there isn't one.
+     */
+    private List<String> decode(PersistentDataContainerView container) {
+        return container.get(socketsKey, PersistentDataType.LIST.strings());
+    }
+
+    /**
+     * The schema version `container` was written with.
+     *
+     * @param container The item's data.
+     * @return The version, BASE_VERSION if it has no stamp.
+     */
+    private int version(PersistentDataContainerView container) {
+        Integer version = container.get(versionKey,
+            PersistentDataType.INTEGER);
+        return version == null || version < BASE_VERSION ? BASE_VERSION
+            : version;
     }
 
     /**
@@ -183,21 +411,38 @@ public class EnhancedItemForge {
          * @param item The item to work on.
          */
         private EnhancedItem(ItemStack item) {
+            SocketDecode decode = new SocketDecode();
+            decode.begin();
+
             this.item = item;
             this.itemMeta = item.getItemMeta();
 
             PersistentDataContainer dataContainer = itemMeta
                 .getPersistentDataContainer();
 
-            if (!dataContainer.has(socketsKey)) {
-                dataContainer.set(socketsKey, PersistentDataType.LIST.strings(),
-                     new ArrayList<String>());
+            List<String> sockets = decode(dataContainer);
+            this.socketList = sockets == null ? new ArrayList<String>()
+                : new ArrayList<String>(sockets);
+
+            // Saved along with any other change, in update()
+            // Aliases are resolved last, upgrades may rename to old names.
+            if (sockets != null) {
+                for (SocketUpgrade upgrade : upgrades.tailMap(
+                    version(dataContainer), false).values())
+                    upgrade.upgrade(socketList);
+                socketList.replaceAll(manager::canonicalName);
             }
 
-            this.socketList = new ArrayList<String>(dataContainer
-                .get(socketsKey, PersistentDataType.LIST.strings()));
-
             this.hasExtraLore = socketList.size() == 0 && itemMeta.hasLore();
+
+            decode.end();
+            if (decode.shouldCommit()) {
+                decode.material = item.getType().name();
+                decode.sockets = socketList.size();
+                decode.fastPath = false;
+                decode.commit();
+            }
+            Probe.decoded(false);
         }
 
         /**
@@ -256,8 +501,9 @@ public class EnhancedItemForge {
          * @return The maximum allowed sockets.
          */
         public int socketLimit() {
-            return socketLimits.getOrDefault(item.getType(),
-                defaultSocketLimit);
+            SocketLimits limits = EnhancedItemForge.this.limits;
+            return limits.byMaterial().getOrDefault(item.getType(),
+                limits.fallback());
         }
 
         /**
@@ -415,18 +661,62 @@ public class EnhancedItemForge {
                 && hasEmptySocket();
         }
 
+        /**
+         * The stamp to write next: the item's current one with its revision
+         * advanced, or a new random ID at revision 1.
+         *
+         * @param dataContainer The item's data.
+         * @return The ID and revision to store.
+         */
+        private long[] nextStamp(PersistentDataContainer dataContainer) {
+            ItemStamp stamp = toStamp(dataContainer.get(stampKey,
+                PersistentDataType.LONG_ARRAY));
+            if (stamp != null)
+                return new long[] {stamp.id(), stamp.revision() + 1};
+
+            long id;
+            do {
+                id = ThreadLocalRandom.current().nextLong();
+            } while (id == 0);
+            return new long[] {id, 1};
+        }
+
         /**
          * Apply all enhancement/socket changes to the ItemStack.
          * 
          * @return The ItemStack.
          */
         public ItemStack update() {
-            itemMeta.getPersistentDataContainer().set(socketsKey,
-                PersistentDataType.LIST.strings(), socketList);
+            ItemUpdate event = new ItemUpdate();
+            // Serialising the item is only worth it while recording.
+            long sizeBefore = event.isEnabled()
+                ? item.serializeAsBytes().length : 0;
+            event.begin();
+
+            PersistentDataContainer dataContainer = itemMeta
+                .getPersistentDataContainer();
+            dataContainer.set(socketsKey, PersistentDataType.LIST.strings(),
+                socketList);
+            dataContainer.set(versionKey, PersistentDataType.INTEGER,
+                currentVersion);
+            if (stampItems)
+                dataContainer.set(stampKey, PersistentDataType.LONG_ARRAY,
+                    nextStamp(dataContainer));
 
             updateLore();
 
             item.setItemMeta(itemMeta);
+
+            event.end();
+            if (event.shouldCommit()) {
+                event.material = item.getType().name();
+                event.loreLines = itemMeta.hasLore() ? itemMeta.lore().size()
+                    : 0;
+                event.bytesChanged = item.serializeAsBytes().length
+                    - sizeBefore;
+                event.commit();
+            }
+
             return item;
         }
     }
@@ -0,0 +1,36 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.item;
+
+/**
+ * Identifies one revision of an enhanced item's socket data, for keying caches
+ * of anything derived from it.
+ *
+ * `id` is drawn at random the first time an item is written, and stays with
+ * the item (and any copies of it) from then on. `revision` counts how many
+ * times the item has been written since. An item whose stamp hasn't changed
+ * has the same sockets it had when the stamp was read.
+ *
+ * Copies of an item share its stamp, which is fine while they're identical.
+ * Copies updated separately may end up with equal stamps but different
+ * sockets, caches that need to tell those apart must compare the data itself.
+ *
+ * @param id The item's random ID, never 0.
+ * @param revision How many times the item has been written, starting at 1.
+ */
+public record ItemStamp(long id, long revision) {}
@@ -0,0 +1,61 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.item;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A change to the sockets of items written before a given schema version,
+ * registered with `EnhancedItemForge.addUpgrade()`.
+ *
+ * Upgrades are applied lazily: only when an EnhancedItem is created for an
+ * item, so the item is upgraded the next time it is written anyway. Reading
+ * an item's sockets through the forge never applies upgrades, so
+ * `EnhancedItemForge.has()` only sees what an upgrade changes once the item
+ * has been rewritten. Anything an un-upgraded item must keep doing has to
+ * work without the upgrade, for a rename that means registry aliases.
+ */
+@FunctionalInterface
+public interface SocketUpgrade {
+    /**
+     * Upgrade `sockets` in place.
+     *
+     * @param sockets The names bound to each socket, empty sockets included.
+     */
+    public void upgrade(List<String> sockets);
+
+    /**
+     * An upgrade replacing each key of `renames` with its value.
+     *
+     * Every old name must also be listed under its new name's `aliases` in
+     * `registry.yml`. The upgrade only rewrites items as they're written,
+     * until then they still carry the old name, and socket checks only
+     * resolve it through the alias. Without one, old items stop activating
+     * the renamed enhancement until they're next written.
+     *
+     * @param renames Old enhancement names mapped to new ones, each old name
+     *                an alias of the new one.
+     * @return The upgrade.
+     */
+    public static SocketUpgrade renaming(Map<String, String> renames) {
+        Map<String, String> copy = Map.copyOf(renames);
+        return sockets -> sockets.replaceAll(
+            name -> copy.getOrDefault(name, name));
+    }
+}
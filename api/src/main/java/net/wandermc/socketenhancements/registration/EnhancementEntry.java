@@ -0,0 +1,32 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.registration;
+
+import java.util.List;
+
+/**
+ * An enhancement in a generated EnhancementIndex.
+ *
+ * @param section The name of its configuration section.
+ * @param enabledByDefault Whether it's enabled if its configuration doesn't
+ *                         say.
+ * @param factory Creates it from its configuration section.
+ * @param handlers Its event handlers, empty for PassiveEnhancements.
+ */
+public record EnhancementEntry(String section, boolean enabledByDefault,
+    EnhancementFactory factory, List<HandlerBinding> handlers) {}
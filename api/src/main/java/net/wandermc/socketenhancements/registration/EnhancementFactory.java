@@ -0,0 +1,39 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.registration;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.item.EnhancedItemForge;
+
+/**
+ * Creates an enhancement from its configuration section.
+ */
+@FunctionalInterface
+public interface EnhancementFactory {
+    /**
+     * Create the enhancement.
+     *
+     * @param forge The current EnhancedItemForge.
+     * @param config The enhancement's configuration section.
+     * @return The Enhancement.
+     */
+    public Enhancement create(EnhancedItemForge forge,
+        ConfigurationSection config);
+}
@@ -0,0 +1,34 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.registration;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.plugin.EventExecutor;
+
+/**
+ * One of an enhancement's event handlers, with an executor calling it
+ * directly.
+ *
+ * @param eventType The event handled.
+ * @param priority The handler's EventHandler priority.
+ * @param ignoreCancelled The handler's EventHandler ignoreCancelled.
+ * @param executor Calls the handler on the enhancement it's given.
+ */
+public record HandlerBinding(Class<? extends Event> eventType,
+    EventPriority priority, boolean ignoreCancelled, EventExecutor executor) {}
@@ -0,0 +1,66 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.registration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an enhancement for the generated EnhancementIndex of its package.
+ *
+ * At compile time, the API's annotation processor adds an EnhancementEntry
+ * for each marked class to a class called EnhancementIndex in the same
+ * package, with a factory calling its constructor and direct event
+ * executors for its EventHandler methods. Nothing is looked up reflectively
+ * at runtime.
+ *
+ * The class must have a constructor taking an EnhancedItemForge, optionally
+ * followed by either a ConfigurationSection or a record marked with
+ * ConfigRecord, which is bound from the enhancement's configuration section.
+ * Handler methods must not be private.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface RegisteredEnhancement {
+    /**
+     * The name of the enhancement's configuration section.
+     *
+     * @return The section name.
+     */
+    public String section();
+
+    /**
+     * Whether the enhancement is enabled when its configuration doesn't say.
+     *
+     * @return Whether it's enabled by default.
+     */
+    public boolean enabledByDefault() default true;
+
+    /**
+     * Where the enhancement comes in the index, lowest first, ties broken by
+     * section name.
+     *
+     * Handlers of the same event at the same priority run in the order they
+     * were registered, so this decides which enhancement sees an event first.
+     *
+     * @return The enhancement's position.
+     */
+    public int order() default 0;
+}
@@ -0,0 +1,68 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.registration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * How a component of a ConfigRecord is read.
+ *
+ * Values outside `min` and `max` are invalid and reset to the default, the
+ * same as hand-written configuration code.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface Setting {
+    /**
+     * The default value, written as it would be in YAML.
+     *
+     * @return The default.
+     */
+    public String value();
+
+    /**
+     * The key to read, defaults to the component's name in snake_case.
+     *
+     * @return The key.
+     */
+    public String path() default "";
+
+    /**
+     * The lowest valid value, for numbers.
+     *
+     * @return The minimum.
+     */
+    public double min() default Double.NEGATIVE_INFINITY;
+
+    /**
+     * The highest valid value, for numbers.
+     *
+     * @return The maximum.
+     */
+    public double max() default Double.POSITIVE_INFINITY;
+
+    /**
+     * Whether `min` and `max` are themselves invalid.
+     *
+     * @return Whether the bounds are exclusive.
+     */
+    public boolean exclusive() default false;
+}
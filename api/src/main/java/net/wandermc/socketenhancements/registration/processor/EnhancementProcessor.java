@@ -0,0 +1,562 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.registration.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+import net.wandermc.socketenhancements.registration.ConfigRecord;
+import net.wandermc.socketenhancements.registration.RegisteredEnhancement;
+import net.wandermc.socketenhancements.registration.Setting;
+
+/**
+ * Generates EnhancementIndex classes from RegisteredEnhancements, and binders
+ * from ConfigRecords.
+ *
+ * Each package with RegisteredEnhancements gets one EnhancementIndex, so all
+ * of a package's enhancements must be compiled together. Problems with
+ * annotated classes are reported as compile errors against them.
+ */
+@SupportedAnnotationTypes({
+    "net.wandermc.socketenhancements.registration.RegisteredEnhancement",
+    "net.wandermc.socketenhancements.registration.ConfigRecord"
+})
+public class EnhancementProcessor extends AbstractProcessor {
+    private static final String GENERATED = "@javax.annotation.processing"
+        + ".Generated(\"" + EnhancementProcessor.class.getName() + "\")";
+    private static final String INDEX = "EnhancementIndex";
+
+    private static final String ENHANCEMENT =
+        "net.wandermc.socketenhancements.enhancement.Enhancement";
+    private static final String ACTIVE_ENHANCEMENT =
+        "net.wandermc.socketenhancements.enhancement.ActiveEnhancement";
+    private static final String FORGE =
+        "net.wandermc.socketenhancements.item.EnhancedItemForge";
+    private static final String CONFIGURATION_SECTION =
+        "org.bukkit.configuration.ConfigurationSection";
+    private static final String EVENT = "org.bukkit.event.Event";
+    private static final String EVENT_HANDLER = "org.bukkit.event.EventHandler";
+
+    /**
+     * A RegisteredEnhancement, ready to be written into an index.
+     */
+    private record Indexed(int order, String section, String source) {}
+
+    private Elements elements;
+    private Types types;
+
+    // Packages already given an index, they can only be written once
+    private final HashSet<String> indexed = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations,
+        RoundEnvironment round) {
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+
+        for (Element element : round.getElementsAnnotatedWith(
+            ConfigRecord.class)) {
+            if (element.getKind() != ElementKind.RECORD) {
+                error(element, "@ConfigRecord can only be used on records");
+                continue;
+            }
+            writeBinder((TypeElement) element);
+        }
+
+        TreeMap<String, List<Indexed>> packages = new TreeMap<>();
+        for (Element element : round.getElementsAnnotatedWith(
+            RegisteredEnhancement.class)) {
+            Indexed entry = index((TypeElement) element);
+            if (entry != null)
+                packages.computeIfAbsent(elements.getPackageOf(element)
+                    .getQualifiedName().toString(), key -> new ArrayList<>())
+                    .add(entry);
+        }
+        packages.forEach(this::writeIndex);
+
+        return true;
+    }
+
+    /**
+     * Write the binder for `record`.
+     */
+    private void writeBinder(TypeElement record) {
+        String packageName = elements.getPackageOf(record).getQualifiedName()
+            .toString();
+        String binder = binderName(record);
+        String recordName = record.getQualifiedName().toString();
+
+        StringBuilder body = new StringBuilder();
+        ArrayList<String> arguments = new ArrayList<>();
+        for (RecordComponentElement component
+            : record.getRecordComponents()) {
+            String line = bindComponent(component);
+            if (line == null)
+                return;
+            body.append(line);
+            arguments.add(component.getSimpleName().toString());
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n")
+            .append(" * Binds ").append(record.getSimpleName())
+            .append(" from a ConfigurationSection, generated from its ")
+            .append("Settings.\n */\n")
+            .append(GENERATED).append('\n')
+            .append("public final class ").append(binder).append(" {\n")
+            .append("    private ").append(binder).append("() {}\n\n")
+            .append("    /**\n")
+            .append("     * Read `config`, resetting invalid values to their ")
+            .append("defaults.\n")
+            .append("     *\n")
+            .append("     * @param config The configuration section.\n")
+            .append("     * @return The bound configuration.\n")
+            .append("     */\n")
+            .append("    public static ").append(recordName)
+            .append(" bind(").append(CONFIGURATION_SECTION)
+            .append(" config) {\n")
+            .append(body)
+            .append("        return new ").append(recordName).append('(')
+            .append(String.join(", ", arguments)).append(");\n")
+            .append("    }\n")
+            .append("}\n");
+
+        write(packageName, binder, source, record);
+    }
+
+    /**
+     * The statements reading and validating `component`.
+     *
+     * @return The statements, or null if `component` isn't bindable.
+     */
+    private String bindComponent(RecordComponentElement component) {
+        Setting setting = component.getAnnotation(Setting.class);
+        String name = component.getSimpleName().toString();
+        if (setting == null) {
+            error(component, "ConfigRecord components need a @Setting");
+            return null;
+        }
+        if (name.equals("config")) {
+            error(component, "ConfigRecord components can't be called config");
+            return null;
+        }
+
+        String path = setting.path().isEmpty() ? snakeCase(name)
+            : setting.path();
+        TypeMirror type = component.asType();
+        String typeName;
+        String getter;
+        Object fallback;
+        try {
+            switch (type.getKind()) {
+                case BOOLEAN:
+                    if (!setting.value().equals("true")
+                        && !setting.value().equals("false"))
+                        throw new NumberFormatException();
+                    typeName = "boolean";
+                    getter = "getBoolean";
+                    fallback = Boolean.parseBoolean(setting.value());
+                    break;
+                case INT:
+                    typeName = "int";
+                    getter = "getInt";
+                    fallback = Integer.parseInt(setting.value());
+                    break;
+                case LONG:
+                    typeName = "long";
+                    getter = "getLong";
+                    fallback = Long.parseLong(setting.value());
+                    break;
+                case DOUBLE:
+                    typeName = "double";
+                    getter = "getDouble";
+                    fallback = Double.parseDouble(setting.value());
+                    break;
+                default:
+                    if (!isType(type, "java.lang.String")) {
+                        error(component, "Unsupported setting type " + type);
+                        return null;
+                    }
+                    typeName = "String";
+                    getter = "getString";
+                    fallback = setting.value();
+            }
+        } catch (NumberFormatException e) {
+            error(component, "\"" + setting.value() + "\" isn't a valid "
+                + type);
+            return null;
+        }
+
+        boolean bounded = setting.min() != Double.NEGATIVE_INFINITY
+            || setting.max() != Double.POSITIVE_INFINITY;
+        if (bounded && !(fallback instanceof Number)) {
+            error(component, "Only numbers can have a min or max");
+            return null;
+        }
+
+        String literal = elements.getConstantExpression(fallback);
+        StringBuilder statements = new StringBuilder()
+            .append("        ").append(typeName).append(' ').append(name)
+            .append(" = config.").append(getter).append("(")
+            .append(elements.getConstantExpression(path)).append(", ")
+            .append(literal).append(");\n");
+        if (!bounded)
+            return statements.toString();
+
+        ArrayList<String> invalid = new ArrayList<>();
+        String below = setting.exclusive() ? " <= " : " < ";
+        String above = setting.exclusive() ? " >= " : " > ";
+        if (setting.min() != Double.NEGATIVE_INFINITY)
+            invalid.add(name + below + bound(setting.min(), fallback));
+        if (setting.max() != Double.POSITIVE_INFINITY)
+            invalid.add(name + above + bound(setting.max(), fallback));
+
+        double value = ((Number) fallback).doubleValue();
+        if (setting.exclusive() ? value <= setting.min()
+            || value >= setting.max() : value < setting.min()
+            || value > setting.max()) {
+            error(component, "The default is outside min and max");
+            return null;
+        }
+
+        return statements.append("        if (")
+            .append(String.join(" || ", invalid)).append(")\n")
+            .append("            ").append(name).append(" = ")
+            .append(literal).append(";\n").toString();
+    }
+
+    /**
+     * `bound` as a literal comparable with `fallback`'s type.
+     */
+    private String bound(double bound, Object fallback) {
+        if (fallback instanceof Double || bound != Math.rint(bound))
+            return elements.getConstantExpression(bound);
+        if (fallback instanceof Integer && bound >= Integer.MIN_VALUE
+            && bound <= Integer.MAX_VALUE)
+            return elements.getConstantExpression((int) bound);
+        return elements.getConstantExpression((long) bound);
+    }
+
+    /**
+     * Check `type` and describe it for an index.
+     *
+     * @return The entry, or null if `type` can't be registered.
+     */
+    private Indexed index(TypeElement type) {
+        RegisteredEnhancement registered = type.getAnnotation(
+            RegisteredEnhancement.class);
+
+        if (type.getKind() != ElementKind.CLASS
+            || type.getModifiers().contains(Modifier.ABSTRACT)
+            || !isSubtype(type.asType(), ENHANCEMENT)) {
+            error(type, "@RegisteredEnhancement can only be used on concrete "
+                + "Enhancement classes");
+            return null;
+        }
+
+        String factory = factory(type);
+        if (factory == null) {
+            error(type, "@RegisteredEnhancement classes need a constructor "
+                + "taking an EnhancedItemForge, optionally followed by a "
+                + "ConfigurationSection or a @ConfigRecord");
+            return null;
+        }
+
+        ArrayList<String> handlers = new ArrayList<>();
+        if (isSubtype(type.asType(), ACTIVE_ENHANCEMENT)) {
+            for (ExecutableElement method : ElementFilter.methodsIn(
+                elements.getAllMembers(type))) {
+                AnnotationMirror handler = annotation(method, EVENT_HANDLER);
+                if (handler == null)
+                    continue;
+
+                String binding = handler(type, method, handler);
+                if (binding == null)
+                    return null;
+                handlers.add(binding);
+            }
+        }
+
+        String source = "        new net.wandermc.socketenhancements"
+            + ".registration.EnhancementEntry("
+            + elements.getConstantExpression(registered.section()) + ", "
+            + registered.enabledByDefault() + ",\n"
+            + "            " + factory + ",\n"
+            + "            java.util.List.of("
+            + (handlers.isEmpty() ? "" : "\n" + String.join(",\n", handlers))
+            + "))";
+        return new Indexed(registered.order(), registered.section(), source);
+    }
+
+    /**
+     * A factory calling the best of `type`'s constructors.
+     *
+     * @return The factory lambda, or null if there is no usable constructor.
+     */
+    private String factory(TypeElement type) {
+        String name = type.getQualifiedName().toString();
+        String best = null;
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(
+            type.getEnclosedElements())) {
+            List<? extends VariableElement> parameters =
+                constructor.getParameters();
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)
+                || parameters.isEmpty()
+                || !isType(parameters.get(0).asType(), FORGE))
+                continue;
+
+            if (parameters.size() == 1 && best == null) {
+                best = "(forge, config) -> new " + name + "(forge)";
+            } else if (parameters.size() == 2) {
+                TypeMirror second = parameters.get(1).asType();
+                if (isType(second, CONFIGURATION_SECTION))
+                    return "(forge, config) -> new " + name
+                        + "(forge, config)";
+
+                Element element = types.asElement(second);
+                if (element != null
+                    && element.getAnnotation(ConfigRecord.class) != null) {
+                    TypeElement record = (TypeElement) element;
+                    return "(forge, config) -> new " + name + "(forge, "
+                        + qualifiedBinderName(record) + ".bind(config))";
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * A HandlerBinding calling `method` of `type` directly.
+     *
+     * @return The binding, or null if `method` can't be called.
+     */
+    private String handler(TypeElement type, ExecutableElement method,
+        AnnotationMirror handler) {
+        Set<Modifier> modifiers = method.getModifiers();
+        TypeElement owner = (TypeElement) method.getEnclosingElement();
+        if (modifiers.contains(Modifier.PRIVATE)
+            || modifiers.contains(Modifier.STATIC)
+            || (!modifiers.contains(Modifier.PUBLIC)
+            && !elements.getPackageOf(owner).equals(
+            elements.getPackageOf(type)))) {
+            error(method, "Event handlers of a @RegisteredEnhancement must "
+                + "be instance methods accessible from its package");
+            return null;
+        }
+        if (method.getParameters().size() != 1
+            || !isSubtype(method.getParameters().get(0).asType(), EVENT)) {
+            error(method, "Event handlers must take a single Event");
+            return null;
+        }
+
+        String priority = "NORMAL";
+        boolean ignoreCancelled = false;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue>
+            value : elements.getElementValuesWithDefaults(handler)
+            .entrySet()) {
+            String key = value.getKey().getSimpleName().toString();
+            if (key.equals("priority"))
+                priority = ((VariableElement) value.getValue().getValue())
+                    .getSimpleName().toString();
+            else if (key.equals("ignoreCancelled"))
+                ignoreCancelled = (Boolean) value.getValue().getValue();
+        }
+
+        String event = ((TypeElement) types.asElement(method.getParameters()
+            .get(0).asType())).getQualifiedName().toString();
+        return "                new net.wandermc.socketenhancements"
+            + ".registration.HandlerBinding(\n"
+            + "                    " + event + ".class,\n"
+            + "                    org.bukkit.event.EventPriority." + priority
+            + ", " + ignoreCancelled + ",\n"
+            + "                    (listener, event) -> {\n"
+            // Events sharing a HandlerList with `event` are passed here too
+            + "                        if (!(event instanceof " + event
+            + " handled))\n"
+            + "                            return;\n"
+            + "                        try {\n"
+            + "                            ((" + type.getQualifiedName()
+            + ") listener)." + method.getSimpleName() + "(handled);\n"
+            + "                        } catch (Throwable e) {\n"
+            + "                            throw new org.bukkit.event"
+            + ".EventException(e);\n"
+            + "                        }\n"
+            + "                    })";
+    }
+
+    /**
+     * Write the EnhancementIndex of `packageName`.
+     */
+    private void writeIndex(String packageName, List<Indexed> entries) {
+        if (!indexed.add(packageName)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Enhancements in " + packageName + " were compiled in more "
+                + "than one round, its EnhancementIndex can only be written "
+                + "once");
+            return;
+        }
+
+        entries.sort(Comparator.comparingInt(Indexed::order)
+            .thenComparing(Indexed::section));
+        HashSet<String> sections = new HashSet<>();
+        for (Indexed entry : entries) {
+            if (!sections.add(entry.section())) {
+                processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR, "More than one enhancement in "
+                    + packageName + " uses section " + entry.section());
+                return;
+            }
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty())
+            source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n")
+            .append(" * The RegisteredEnhancements of this package, in ")
+            .append("registration order.\n */\n")
+            .append(GENERATED).append('\n')
+            .append("public final class ").append(INDEX).append(" {\n")
+            .append("    private static final java.util.List<")
+            .append("net.wandermc.socketenhancements.registration")
+            .append(".EnhancementEntry> ENTRIES = java.util.List.of(\n")
+            .append(String.join(",\n", entries.stream()
+                .map(Indexed::source).toList()))
+            .append(");\n\n")
+            .append("    private ").append(INDEX).append("() {}\n\n")
+            .append("    /**\n")
+            .append("     * Every RegisteredEnhancement in this package.\n")
+            .append("     *\n")
+            .append("     * @return The entries, in registration order.\n")
+            .append("     */\n")
+            .append("    public static java.util.List<")
+            .append("net.wandermc.socketenhancements.registration")
+            .append(".EnhancementEntry> entries() {\n")
+            .append("        return ENTRIES;\n")
+            .append("    }\n")
+            .append("}\n");
+
+        write(packageName, INDEX, source, null);
+    }
+
+    private void write(String packageName, String name, CharSequence source,
+        Element origin) {
+        String qualifiedName = packageName.isEmpty() ? name
+            : packageName + "." + name;
+        try (Writer out = processingEnv.getFiler().createSourceFile(
+            qualifiedName, origin == null ? new Element[0]
+            : new Element[] {origin}).openWriter()) {
+            out.write(source.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                "Unable to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * The simple name of `record`'s binder: its own and its enclosing
+     * classes' names, then "Binder".
+     */
+    private static String binderName(TypeElement record) {
+        StringBuilder name = new StringBuilder("Binder");
+        Element element = record;
+        while (element.getKind().isClass() || element.getKind()
+            .isInterface()) {
+            name.insert(0, element.getSimpleName());
+            element = element.getEnclosingElement();
+        }
+        return name.toString();
+    }
+
+    private String qualifiedBinderName(TypeElement record) {
+        String packageName = elements.getPackageOf(record).getQualifiedName()
+            .toString();
+        return packageName.isEmpty() ? binderName(record)
+            : packageName + "." + binderName(record);
+    }
+
+    private static String snakeCase(String name) {
+        StringBuilder snake = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            if (Character.isUpperCase(c))
+                snake.append('_').append(Character.toLowerCase(c));
+            else
+                snake.append(c);
+        }
+        return snake.toString();
+    }
+
+    private AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement())
+                .getQualifiedName().contentEquals(name))
+                return mirror;
+        }
+        return null;
+    }
+
+    private boolean isType(TypeMirror type, String name) {
+        return type instanceof DeclaredType declared
+            && ((TypeElement) declared.asElement()).getQualifiedName()
+            .contentEquals(name);
+    }
+
+    private boolean isSubtype(TypeMirror type, String name) {
+        TypeElement supertype = elements.getTypeElement(name);
+        return supertype != null && types.isAssignable(types.erasure(type),
+            types.erasure(supertype.asType()));
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+            message, element);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.entity.Player;
+
+import com.destroystokyo.paper.profile.PlayerProfile;
+
+/**
+ * Caches complete PlayerProfiles (textures included) so they can be used
+ * without a profile lookup.
+ *
+ * Profiles of online players are kept for as long as they stay online, once
+ * they log out their profile moves to a bounded least-recently-used store.
+ *
+ * Not thread-safe, only use from the main thread.
+ */
+public class PlayerProfileCache {
+    private final HashMap<UUID, PlayerProfile> online = new HashMap<>();
+    private final LinkedHashMap<UUID, PlayerProfile> offline;
+
+    /**
+     * Create a PlayerProfileCache.
+     *
+     * @param offlineCapacity How many logged-out players to keep profiles
+     *        for, 0 to keep none.
+     * @throws IllegalArgumentException If `offlineCapacity` is negative.
+     */
+    public PlayerProfileCache(int offlineCapacity) {
+        if (offlineCapacity < 0)
+            throw new IllegalArgumentException(
+                "offlineCapacity cannot be negative.");
+
+        this.offline = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                Map.Entry<UUID, PlayerProfile> eldest) {
+                return size() > offlineCapacity;
+            }
+        };
+    }
+
+    /**
+     * Capture the profile of online `player`.
+     *
+     * The profile of an online player is already complete, so this never
+     * performs a lookup.
+     *
+     * @param player The player who has joined.
+     */
+    public void join(Player player) {
+        offline.remove(player.getUniqueId());
+        online.put(player.getUniqueId(), player.getPlayerProfile());
+    }
+
+    /**
+     * Move the profile of `player` to the least-recently-used store.
+     *
+     * @param player The player who is leaving.
+     */
+    public void quit(Player player) {
+        PlayerProfile profile = online.remove(player.getUniqueId());
+        if (profile != null)
+            offline.put(player.getUniqueId(), profile);
+    }
+
+    /**
+     * Get the cached profile of the player with UUID `id`.
+     *
+     * @param id The player's UUID.
+     * @return The cached profile, or null if there isn't one.
+     */
+    public PlayerProfile get(UUID id) {
+        PlayerProfile profile = online.get(id);
+        if (profile != null)
+            return profile;
+        return offline.get(id);
+    }
+}
@@ -43,4 +43,12 @@ public interface Cost<E> {
      * @param entity The entity to charge.
      */
     public void take(E entity);
+
+    /**
+     * Give back a cost taken from `entity`, when what it paid for didn't
+     * happen.
+     *
+     * @param entity The entity to refund.
+     */
+    public void refund(E entity);
 }
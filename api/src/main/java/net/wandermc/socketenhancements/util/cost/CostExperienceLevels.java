@@ -19,6 +19,8 @@ package net.wandermc.socketenhancements.util.cost;
 
 import org.bukkit.entity.Player;
 
+import net.wandermc.socketenhancements.instrument.trace.DecisionTrace;
+
 /**
  * A certain number of experience levels.
  */
@@ -41,7 +43,11 @@ public class CostExperienceLevels implements Cost<Player> {
      * @return Whether they have enough levels.
      */
     public boolean met(Player player) {
-        return player.getLevel() >= amount;
+        boolean met = player.getLevel() >= amount;
+        if (DecisionTrace.isTracing())
+            DecisionTrace.note("cost " + amount + " levels (has "
+                + player.getLevel() + ") met: " + met);
+        return met;
     }
 
     /**
@@ -53,4 +59,13 @@ public class CostExperienceLevels implements Cost<Player> {
     public void take(Player player) {
         player.setLevel(player.getLevel() - amount);
     }
+
+    /**
+     * Give `player` back 'amount' experience levels.
+     *
+     * @param player The player to refund.
+     */
+    public void refund(Player player) {
+        player.setLevel(player.getLevel() + amount);
+    }
 }
@@ -19,6 +19,8 @@ package net.wandermc.socketenhancements.util.cost;
 
 import org.bukkit.entity.Player;
 
+import net.wandermc.socketenhancements.instrument.trace.DecisionTrace;
+
 /**
  * A certain number of experience points.
  */
@@ -41,7 +43,11 @@ public class CostExperiencePoints implements Cost<Player> {
      * @return Whether they have enough points.
      */
     public boolean met(Player player) {
-        return player.calculateTotalExperiencePoints() >= amount;
+        boolean met = player.calculateTotalExperiencePoints() >= amount;
+        if (DecisionTrace.isTracing())
+            DecisionTrace.note("cost " + amount + " experience points met: "
+                + met);
+        return met;
     }
 
     /**
@@ -54,4 +60,14 @@ public class CostExperiencePoints implements Cost<Player> {
         player.setExperienceLevelAndProgress(
             player.calculateTotalExperiencePoints() - amount);
     }
+
+    /**
+     * Give `player` back 'amount' experience points.
+     *
+     * @param player The player to refund.
+     */
+    public void refund(Player player) {
+        player.setExperienceLevelAndProgress(
+            player.calculateTotalExperiencePoints() + amount);
+    }
 }
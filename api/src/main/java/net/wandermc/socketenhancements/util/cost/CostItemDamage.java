@@ -21,6 +21,8 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.Damageable;
 
+import net.wandermc.socketenhancements.instrument.trace.DecisionTrace;
+
 /**
  * Damage applied to an item.
  * Will not break the item.
@@ -50,17 +52,18 @@ public class CostItemDamage implements Cost<ItemStack> {
      * @return Whether it is suitable.
      */
     public boolean met(ItemStack item) {
+        boolean met;
         if (item.isEmpty())
-            return false;
-
-        if (item.getItemMeta() instanceof Damageable damageable) {
-            return item.getType().getMaxDurability() - damageable.getDamage() >
+            met = false;
+        else if (item.getItemMeta() instanceof Damageable damageable)
+            met = item.getType().getMaxDurability() - damageable.getDamage() >
                 damage;
-        } else if (allowUnbreakable) {
-            return true;
-        }
+        else
+            met = allowUnbreakable;
 
-        return false;
+        if (DecisionTrace.isTracing())
+            DecisionTrace.note("cost " + damage + " durability met: " + met);
+        return met;
     }
 
     /**
@@ -73,4 +76,17 @@ public class CostItemDamage implements Cost<ItemStack> {
         damageable.setDamage(damageable.getDamage() + damage);
         item.setItemMeta(damageable);
     }
+
+    /**
+     * Repair the damage done to `item`.
+     *
+     * @param item The item to repair.
+     */
+    public void refund(ItemStack item) {
+        if (!(item.getItemMeta() instanceof Damageable damageable))
+            return;
+
+        damageable.setDamage(Math.max(0, damageable.getDamage() - damage));
+        item.setItemMeta(damageable);
+    }
 }
@@ -21,6 +21,8 @@ import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
+import net.wandermc.socketenhancements.instrument.trace.DecisionTrace;
+
 /**
  * A certain number of items held in the player's offhand.
  */
@@ -47,7 +49,11 @@ public class CostOffhandItem implements Cost<Player> {
      */
     public boolean met(Player player) {
         ItemStack item = player.getInventory().getItemInOffHand();
-        return item.getType() == type && item.getAmount() >= amount;
+        boolean met = item.getType() == type && item.getAmount() >= amount;
+        if (DecisionTrace.isTracing())
+            DecisionTrace.note("cost " + amount + " " + type
+                + " in offhand met: " + met);
+        return met;
     }
 
     /**
@@ -61,4 +67,30 @@ public class CostOffhandItem implements Cost<Player> {
         ItemStack item = player.getInventory().getItemInOffHand();
         item.setAmount(item.getAmount() - amount);
     }
+
+    /**
+     * Give 'amount' items back to `player`.
+     *
+     * They are put back in the player's offhand if there is room, otherwise
+     * in their inventory, and anything which doesn't fit is dropped at their
+     * feet.
+     *
+     * @param player The player to refund.
+     */
+    public void refund(Player player) {
+        ItemStack item = player.getInventory().getItemInOffHand();
+        if (item.isEmpty()) {
+            player.getInventory().setItemInOffHand(new ItemStack(type, amount));
+            return;
+        }
+        if (item.getType() == type
+            && item.getAmount() + amount <= item.getMaxStackSize()) {
+            item.setAmount(item.getAmount() + amount);
+            return;
+        }
+
+        for (ItemStack left : player.getInventory().addItem(
+            new ItemStack(type, amount)).values())
+            player.getWorld().dropItem(player.getLocation(), left);
+    }
 }
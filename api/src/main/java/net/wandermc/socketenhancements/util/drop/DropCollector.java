@@ -0,0 +1,183 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.util.drop;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.bukkit.Effect;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.Container;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Collects the drops produced by a single enhancement activation, so they can
+ * be given out together once the activation is over.
+ *
+ * Unless the collector's DropMode is NATURAL, similar drops are merged into as
+ * few stacks as possible. Breaking a 3*3 cube of stone, for instance, gives out
+ * one stack of cobblestone rather than 27 separate item entities.
+ *
+ * A DropCollector is meant to be used for one activation only, it is not
+ * thread-safe.
+ */
+public class DropCollector {
+    private final DropMode mode;
+    private final ArrayList<ItemStack> stacks = new ArrayList<>();
+
+    /**
+     * Create a DropCollector.
+     *
+     * @param mode How collected drops will be given out.
+     */
+    public DropCollector(DropMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * How this collector gives out drops.
+     *
+     * @return The DropMode.
+     */
+    public DropMode mode() {
+        return mode;
+    }
+
+    /**
+     * Break `block` as if it were mined by `player` using `tool`, collecting
+     * its drops.
+     *
+     * In NATURAL mode, or if the block is a container (whose contents need to
+     * be spilled by the server), the block is broken with `breakNaturally()`
+     * and its drops are spawned immediately. Otherwise the block's break
+     * particles and sound are played the same as `breakNaturally()` would.
+     *
+     * @param block The block to break.
+     * @param tool The tool used to break it.
+     * @param player The player breaking it.
+     */
+    public void breakBlock(Block block, ItemStack tool, Player player) {
+        if (mode == DropMode.NATURAL
+            || block.getState(false) instanceof Container) {
+            block.breakNaturally(tool);
+            return;
+        }
+
+        addAll(block.getDrops(tool, player));
+        block.getWorld().playEffect(block.getLocation(), Effect.STEP_SOUND,
+            block.getBlockData());
+        block.setType(Material.AIR);
+    }
+
+    /**
+     * Collect all of `items`.
+     *
+     * @param items The items to collect.
+     */
+    public void addAll(Collection<ItemStack> items) {
+        for (ItemStack item : items)
+            add(item);
+    }
+
+    /**
+     * Collect `item`.
+     *
+     * Unless in NATURAL mode, `item` is merged into any similar stacks that
+     * have room first. `item` itself is never modified.
+     *
+     * @param item The item to collect, null and empty items are ignored.
+     */
+    public void add(ItemStack item) {
+        if (item == null || item.isEmpty())
+            return;
+
+        if (mode == DropMode.NATURAL) {
+            stacks.add(item.clone());
+            return;
+        }
+
+        int remaining = item.getAmount();
+        for (ItemStack stack : stacks) {
+            if (remaining <= 0)
+                return;
+
+            int space = stack.getMaxStackSize() - stack.getAmount();
+            if (space <= 0 || !stack.isSimilar(item))
+                continue;
+
+            int moved = Math.min(space, remaining);
+            stack.setAmount(stack.getAmount() + moved);
+            remaining -= moved;
+        }
+
+        // Whatever didn't fit into an existing stack starts new ones.
+        while (remaining > 0) {
+            int amount = Math.min(remaining, item.getMaxStackSize());
+            stacks.add(item.asQuantity(amount));
+            remaining -= amount;
+        }
+    }
+
+    /**
+     * Whether nothing has been collected since the last release.
+     *
+     * @return Whether this collector is empty.
+     */
+    public boolean isEmpty() {
+        return stacks.isEmpty();
+    }
+
+    /**
+     * Give out everything collected so far, then empty this collector.
+     *
+     * In INVENTORY mode drops are given to `player`, only those which don't
+     * fit are spawned at `location`. Otherwise all drops are spawned at
+     * `location`.
+     *
+     * @param location Where to spawn drops.
+     * @param player The player responsible for the drops, may be null.
+     */
+    public void release(Location location, Player player) {
+        if (stacks.isEmpty())
+            return;
+
+        if (mode == DropMode.INVENTORY && player != null) {
+            spawn(location, player.getInventory().addItem(
+                stacks.toArray(new ItemStack[0])).values());
+        } else {
+            spawn(location, stacks);
+        }
+
+        stacks.clear();
+    }
+
+    /**
+     * Spawn each of `items` as an item entity at `location`.
+     *
+     * @param location Where to spawn the items.
+     * @param items The items to spawn.
+     */
+    private static void spawn(Location location,
+        Collection<ItemStack> items) {
+        for (ItemStack item : items)
+            location.getWorld().dropItemNaturally(location, item);
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.util.drop;
+
+import org.bukkit.configuration.ConfigurationSection;
+
+/**
+ * How a DropCollector gives out the drops it has collected.
+ */
+public enum DropMode {
+    /**
+     * Spawn every drop as its own item entity, the same as vanilla.
+     */
+    NATURAL,
+
+    /**
+     * Merge drops into as few stacks as possible, then spawn one item entity
+     * per stack.
+     */
+    MERGE,
+
+    /**
+     * Merge drops, then insert them directly into the responsible player's
+     * inventory. Anything that doesn't fit is spawned as with MERGE.
+     */
+    INVENTORY;
+
+    /**
+     * Get the DropMode called `name`, ignoring case.
+     *
+     * @param name The name of the DropMode.
+     * @return The DropMode, or null if `name` is null or unknown.
+     */
+    public static DropMode getMode(String name) {
+        if (name == null)
+            return null;
+
+        for (DropMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(name.strip()))
+                return mode;
+        }
+        return null;
+    }
+
+    /**
+     * Read the DropMode set by `config`'s `drop_mode`.
+     *
+     * `config` defaults:
+     * drop_mode: "MERGE"
+     *
+     * @param config An enhancement's configuration section.
+     * @return The DropMode, MERGE if `drop_mode` is missing or unknown.
+     */
+    public static DropMode fromConfig(ConfigurationSection config) {
+        DropMode mode = getMode(config.getString("drop_mode", "MERGE"));
+        return mode == null ? MERGE : mode;
+    }
+}
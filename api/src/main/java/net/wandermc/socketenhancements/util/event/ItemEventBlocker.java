@@ -24,6 +24,7 @@ import java.util.logging.Level;
 import org.bukkit.Material;
 import org.bukkit.block.Crafter;
 import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
 import org.bukkit.event.Event.Result;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
@@ -41,6 +42,7 @@ import org.bukkit.event.inventory.FurnaceBurnEvent;
 import org.bukkit.event.inventory.FurnaceSmeltEvent;
 import org.bukkit.event.inventory.PrepareAnvilEvent;
 import org.bukkit.event.inventory.PrepareGrindstoneEvent;
+import org.bukkit.event.inventory.PrepareInventoryResultEvent;
 import org.bukkit.event.inventory.PrepareItemCraftEvent;
 import org.bukkit.event.player.PlayerBucketEmptyEvent;
 import org.bukkit.event.player.PlayerBucketEntityEvent;
@@ -52,6 +54,9 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.plugin.EventExecutor;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import net.wandermc.socketenhancements.instrument.Probe;
+import net.wandermc.socketenhancements.instrument.jfr.BlockerVerdict;
+
 /**
  * A helper class to easily block items from being used in certain ways.
  *
@@ -213,7 +218,7 @@ public class ItemEventBlocker implements Listener {
                     }
                 }
 
-                registerHandler(handler, action.eventType());
+                registerHandler(handler, action);
             } catch (NoSuchMethodException exception) {
                 plugin.getLogger().log(Level.SEVERE, this.getClass().getName()+
                     " Encountered an exception while setting up blockers.");
@@ -224,18 +229,58 @@ public class ItemEventBlocker implements Listener {
         }
     }
 
-    private void registerHandler(Method handler,
-        Class<? extends Event> eventType) {
+    private void registerHandler(Method handler, BlockableAction action) {
+        Class<? extends Event> eventType = action.eventType();
+        EventExecutor executor = EventExecutor.create(handler, eventType);
+
         plugin.getServer().getPluginManager().registerEvent(
             eventType,
             this,
             this.priority,
-            EventExecutor.create(handler, eventType),
+            (listener, event) -> {
+                BlockerVerdict verdict = new BlockerVerdict();
+                if (!verdict.isEnabled() && !Probe.active()) {
+                    executor.execute(listener, event);
+                    return;
+                }
+
+                boolean wasBlocked = isBlocked(event);
+                verdict.begin();
+                executor.execute(listener, event);
+                verdict.end();
+
+                boolean blocked = !wasBlocked && isBlocked(event);
+                if (blocked)
+                    Probe.blocked(action);
+
+                if (verdict.shouldCommit()) {
+                    verdict.action = action.name();
+                    verdict.trigger = event.getEventName();
+                    verdict.blocked = blocked;
+                    verdict.commit();
+                }
+            },
             plugin,
             true
         );
     }
 
+    /**
+     * Whether `event` is in a blocked state, cancelled or with no result.
+     *
+     * @param event The event to check.
+     * @return Whether it is blocked.
+     */
+    private static boolean isBlocked(Event event) {
+        if (event instanceof Cancellable cancellable)
+            return cancellable.isCancelled();
+        if (event instanceof PrepareInventoryResultEvent prepare)
+            return prepare.getResult() == null || prepare.getResult().isEmpty();
+        if (event instanceof PrepareItemCraftEvent craft)
+            return craft.getInventory().getResult() == null;
+        return false;
+    }
+
     /**
      * Prevent a block from being placed if the placed item matches.
      */
@@ -0,0 +1,529 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.util.state;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+/**
+ * Per-player values (cooldowns, accumulators, settings, counters) that
+ * survive restarts.
+ *
+ * Values are longs stored under Keys, held in memory in a small primitive map
+ * per online player. Each player's values are persisted to an append-only
+ * file in `folder`: changes are batched on the main thread and appended on a
+ * background thread, and the file is compacted into a snapshot once it has
+ * grown well past the number of values it holds.
+ *
+ * A player's values are loaded while they log in, on the asynchronous
+ * pre-login thread, so joining never waits on disk, and become readable once
+ * they join. They're written out and dropped from memory when the player
+ * quits. A player logging in again while their previous session is still
+ * online carries its values over instead of reading them from disk.
+ *
+ * Apart from `key()`, only to be used on the main thread, and only for online
+ * players. Values of players that aren't loaded read as their defaults and
+ * ignore writes.
+ */
+public class PlayerStateStore implements Listener {
+    private static final byte SET = 1;
+    private static final byte REMOVE = 2;
+
+    private static final String EXTENSION = ".state";
+    private static final String IO_THREAD = "SocketEnhancements Player State";
+
+    // How long a login may take between pre-login and joining
+    private static final long PENDING_EXPIRY_NANOS = 300_000_000_000L;
+
+    /**
+     * A named slot for one long value per player.
+     *
+     * Keys are numbered in the order they're first used, the numbers only
+     * last as long as the server is running. Files store key names.
+     *
+     * @param id The key's number, for indexing.
+     * @param name The key's name, e.g. `rebound.last_activated`.
+     */
+    public record Key(int id, String name) {}
+
+    private final JavaPlugin plugin;
+    private final File folder;
+
+    private final ConcurrentHashMap<String, Key> keys =
+        new ConcurrentHashMap<>();
+    private final ArrayList<Key> keysById = new ArrayList<>();
+
+    private final ConcurrentHashMap<UUID, PlayerState> states =
+        new ConcurrentHashMap<>();
+    // Loaded during pre-login, waiting for the player to join
+    private final ConcurrentHashMap<UUID, Pending> pending =
+        new ConcurrentHashMap<>();
+    private final HashMap<UUID, ByteArrayOutputStream> unwritten =
+        new HashMap<>();
+
+    // Single thread, so writes and loads of a player never overlap or reorder
+    private final ExecutorService io;
+
+    /**
+     * Create a PlayerStateStore keeping files in `folder`, loading the state
+     * of any players already online and registering its listeners.
+     *
+     * @param plugin The plugin to run under.
+     * @param folder Where to keep player files.
+     * @param flushTicks How often changes are written, in ticks.
+     */
+    public PlayerStateStore(JavaPlugin plugin, File folder, long flushTicks) {
+        this.plugin = plugin;
+        this.folder = folder;
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, IO_THREAD);
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        folder.mkdirs();
+        for (Player player : plugin.getServer().getOnlinePlayers()) {
+            PlayerState state = load(player.getUniqueId());
+            if (state == null)
+                break;
+
+            state.session = player;
+            states.put(player.getUniqueId(), state);
+        }
+
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+        plugin.getServer().getScheduler().runTaskTimer(plugin, this::flush,
+            flushTicks, flushTicks);
+    }
+
+    /**
+     * The Key called `name`, created if it doesn't exist yet.
+     *
+     * @param name The key's name.
+     * @return The Key.
+     */
+    public Key key(String name) {
+        Key key = keys.get(name);
+        if (key != null)
+            return key;
+
+        synchronized (keysById) {
+            return keys.computeIfAbsent(name, absent -> {
+                // Numbered from 1, 0 marks an empty slot
+                Key created = new Key(keysById.size() + 1, absent);
+                keysById.add(created);
+                return created;
+            });
+        }
+    }
+
+    /**
+     * Whether `player`'s state has been loaded.
+     *
+     * @param player The player's UUID.
+     * @return Whether their values can be read and written.
+     */
+    public boolean isLoaded(UUID player) {
+        return states.containsKey(player);
+    }
+
+    /**
+     * `player`'s value under `key`.
+     *
+     * @param player The player's UUID.
+     * @param key The Key.
+     * @param fallback What to return if there is no value.
+     * @return The value, or `fallback`.
+     */
+    public long get(UUID player, Key key, long fallback) {
+        PlayerState state = states.get(player);
+        return state == null ? fallback : state.get(key.id(), fallback);
+    }
+
+    /**
+     * Set `player`'s value under `key`, persisting it with the next flush.
+     *
+     * @param player The player's UUID.
+     * @param key The Key.
+     * @param value The value.
+     */
+    public void set(UUID player, Key key, long value) {
+        PlayerState state = states.get(player);
+        if (state == null || (state.has(key.id())
+            && state.get(key.id(), 0) == value))
+            return;
+
+        state.put(key.id(), value);
+        append(player, state, SET, key, value);
+    }
+
+    /**
+     * Remove `player`'s value under `key`.
+     *
+     * @param player The player's UUID.
+     * @param key The Key.
+     */
+    public void remove(UUID player, Key key) {
+        PlayerState state = states.get(player);
+        if (state == null || !state.remove(key.id()))
+            return;
+
+        append(player, state, REMOVE, key, 0);
+    }
+
+    /**
+     * Write every pending change, then wait for writes to finish.
+     *
+     * For disabling, the store is unusable afterwards.
+     */
+    public void close() {
+        flush();
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(10, TimeUnit.SECONDS))
+                plugin.getLogger().warning("Timed out writing player state.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED)
+            return;
+
+        // A session still online has changes that may not be on disk yet,
+        // once it has quit they're queued ahead of the read
+        UUID player = event.getUniqueId();
+        PlayerState state = states.get(player);
+        if (state == null)
+            state = load(player);
+        if (state != null)
+            pending.put(player, new Pending(state, System.nanoTime()));
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onJoin(PlayerJoinEvent event) {
+        UUID player = event.getPlayer().getUniqueId();
+        Pending loaded = pending.remove(player);
+        if (loaded != null) {
+            loaded.state().session = event.getPlayer();
+            states.put(player, loaded.state());
+            return;
+        }
+
+        // Took too long to join, or logged in before this store existed
+        io.execute(() -> {
+            PlayerState state = load(player);
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                if (state == null || !event.getPlayer().isOnline())
+                    return;
+
+                state.session = event.getPlayer();
+                states.putIfAbsent(player, state);
+            });
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        UUID player = event.getPlayer().getUniqueId();
+        PlayerState state = states.get(player);
+        flush(player);
+        // Unless a newer session of the player has already taken over
+        if (state != null && state.session == event.getPlayer())
+            states.remove(player, state);
+    }
+
+    /**
+     * Read `player`'s state on the IO thread, waiting for it.
+     *
+     * Never called on the main thread other than while enabling.
+     *
+     * @return The state, empty if it couldn't be read, or null if
+     *         interrupted.
+     */
+    private PlayerState load(UUID player) {
+        try {
+            if (Thread.currentThread().getName().equals(IO_THREAD))
+                return read(player);
+            return io.submit(() -> read(player)).get();
+        } catch (IOException | ExecutionException e) {
+            plugin.getLogger().log(Level.SEVERE, "Unable to load state of "
+                + player + ", starting empty.",
+                e instanceof ExecutionException ? e.getCause() : e);
+            return new PlayerState();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Queue a record of a change to `player`'s state.
+     */
+    private void append(UUID player, PlayerState state, byte op, Key key,
+        long value) {
+        ByteArrayOutputStream buffer = unwritten.computeIfAbsent(player,
+            absent -> new ByteArrayOutputStream());
+        try {
+            DataOutputStream out = new DataOutputStream(buffer);
+            writeRecord(out, op, key.name(), value);
+        } catch (IOException e) {
+            // Not thrown by ByteArrayOutputStream
+            throw new IllegalStateException(e);
+        }
+        state.records++;
+    }
+
+    /**
+     * Hand every player's queued changes to the IO thread, and forget states
+     * loaded for logins which never joined.
+     */
+    private void flush() {
+        for (UUID player : new ArrayList<>(unwritten.keySet()))
+            flush(player);
+
+        long now = System.nanoTime();
+        pending.values().removeIf(loaded ->
+            now - loaded.loadedAt() > PENDING_EXPIRY_NANOS);
+    }
+
+    /**
+     * Hand `player`'s queued changes to the IO thread, compacting their file
+     * instead if it has grown too large.
+     */
+    private void flush(UUID player) {
+        ByteArrayOutputStream buffer = unwritten.remove(player);
+        PlayerState state = states.get(player);
+        if (buffer == null || state == null)
+            return;
+
+        File file = file(player);
+        if (state.records > 4 * state.size + 64) {
+            Map<String, Long> snapshot = snapshot(state);
+            state.records = snapshot.size();
+            io.execute(() -> compact(file, snapshot));
+            return;
+        }
+
+        byte[] records = buffer.toByteArray();
+        io.execute(() -> {
+            try (OutputStream out = new FileOutputStream(file, true)) {
+                out.write(records);
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Unable to save state "
+                    + "to " + file, e);
+            }
+        });
+    }
+
+    /**
+     * Copy `state` with key names, for writing elsewhere.
+     */
+    private Map<String, Long> snapshot(PlayerState state) {
+        HashMap<String, Long> snapshot = new HashMap<>();
+        for (int i = 0; i < state.keys.length; i++) {
+            if (state.keys[i] != 0)
+                snapshot.put(name(state.keys[i]), state.values[i]);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Replace `file` with one record per value in `snapshot`.
+     */
+    private void compact(File file, Map<String, Long> snapshot) {
+        File temporary = new File(file.getPath() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                new FileOutputStream(temporary))) {
+                for (Map.Entry<String, Long> value : snapshot.entrySet())
+                    writeRecord(out, SET, value.getKey(), value.getValue());
+            }
+            Files.move(temporary.toPath(), file.toPath(),
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.SEVERE, "Unable to compact " + file,
+                e);
+        }
+    }
+
+    /**
+     * Replay `player`'s file, on the IO thread.
+     *
+     * A truncated final record, from a crash mid-write, is ignored.
+     */
+    private PlayerState read(UUID player) throws IOException {
+        PlayerState state = new PlayerState();
+        File file = file(player);
+        if (!file.exists())
+            return state;
+
+        byte[] data = Files.readAllBytes(file.toPath());
+        DataInputStream in = new DataInputStream(
+            new ByteArrayInputStream(data));
+        try {
+            while (in.available() > 0) {
+                byte op = in.readByte();
+                Key key = key(in.readUTF());
+                long value = in.readLong();
+                if (op == SET)
+                    state.put(key.id(), value);
+                else if (op == REMOVE)
+                    state.remove(key.id());
+                else
+                    throw new IOException("Unknown record type " + op);
+                state.records++;
+            }
+        } catch (EOFException e) {
+            plugin.getLogger().warning("Ignoring truncated record at the end "
+                + "of " + file);
+        }
+        return state;
+    }
+
+    private String name(int id) {
+        synchronized (keysById) {
+            return keysById.get(id - 1).name();
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, byte op,
+        String key, long value) throws IOException {
+        out.writeByte(op);
+        out.writeUTF(key);
+        out.writeLong(value);
+    }
+
+    private File file(UUID player) {
+        return new File(folder, player + EXTENSION);
+    }
+
+    /**
+     * A state loaded during pre-login.
+     *
+     * @param state The player's state.
+     * @param loadedAt When it was loaded, from `System.nanoTime()`.
+     */
+    private record Pending(PlayerState state, long loadedAt) {}
+
+    /**
+     * One player's values, an open addressing map of key IDs to longs.
+     */
+    private static class PlayerState {
+        private int[] keys = new int[8];
+        private long[] values = new long[8];
+        private int size;
+        // Records in this player's file, for deciding when to compact
+        private int records;
+        // The session using these values, a new one takes them over
+        private Player session;
+
+        private int slot(int key) {
+            int mask = keys.length - 1;
+            int slot = (key * 0x9E3779B9) >>> 16 & mask;
+            while (keys[slot] != 0 && keys[slot] != key)
+                slot = (slot + 1) & mask;
+            return slot;
+        }
+
+        private boolean has(int key) {
+            return keys[slot(key)] == key;
+        }
+
+        private long get(int key, long fallback) {
+            int slot = slot(key);
+            return keys[slot] == key ? values[slot] : fallback;
+        }
+
+        private void put(int key, long value) {
+            int slot = slot(key);
+            if (keys[slot] != key) {
+                if ((size + 1) * 2 > keys.length) {
+                    grow();
+                    slot = slot(key);
+                }
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        private boolean remove(int key) {
+            int slot = slot(key);
+            if (keys[slot] != key)
+                return false;
+
+            // Re-insert the rest of the cluster, so lookups don't stop early
+            keys[slot] = 0;
+            size--;
+            int mask = keys.length - 1;
+            for (int next = (slot + 1) & mask; keys[next] != 0;
+                next = (next + 1) & mask) {
+                int moved = keys[next];
+                long value = values[next];
+                keys[next] = 0;
+                size--;
+                put(moved, value);
+            }
+            return true;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new long[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0)
+                    put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.persistence.PersistentDataType;
+
+import com.sun.management.ThreadMXBean;
+
+import net.kyori.adventure.text.Component;
+
+import net.wandermc.socketenhancements.enhancement.EnhancementTableManager;
+import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.util.event.BlockableAction;
+
+/**
+ * Checks that the per-event hot paths stay within their allocation budgets.
+ *
+ * Each operation is warmed up until it's compiled, then called repeatedly
+ * with the thread's allocated byte count read before and after. Anything over
+ * budget is reported and the process exits with status 1, failing the build
+ * when run as part of `mvn verify -Pbenchmarks`.
+ *
+ * Budgets are per call, averaged over `CALLS` calls, so one-off allocations
+ * (lazy initialisation, a resized cache) don't count. Read-only socket checks
+ * on items without data, name lookups and blocker predicates must not
+ * allocate at all. Where an operation has to allocate, its budget is a ceiling
+ * with some room to spare: lower it when it's beaten, never raise it without
+ * knowing why.
+ *
+ * Socket checks on items with data can't be allocation free: the server's
+ * PersistentDataContainer builds a view of the item's data and converts the
+ * stored list to a new java List on every read, and how much that takes
+ * depends on the server implementation. Those budgets are measured against
+ * that read alone as a baseline, and must not allocate anything beyond it.
+ */
+public class AllocationBudgets {
+    private static final int WARMUP_CALLS = 200_000;
+    private static final int CALLS = 100_000;
+
+    private static final Material[] BLOCKER_MATERIALS = {
+        Material.DIAMOND_SWORD, Material.WATER_BUCKET, Material.BEEF,
+        Material.ARROW, Material.OAK_LOG, Material.SNOWBALL};
+
+    @SuppressWarnings("unchecked")
+    private static final Predicate<Material>[] BLOCKER_PREDICATES =
+        new Predicate[] {BlockableAction::canBlockPlace,
+        BlockableAction::canBrewIngredient, BlockableAction::canBucketEmpty,
+        BlockableAction::canBurn, BlockableAction::canCombine,
+        BlockableAction::canConsume, BlockableAction::canCook,
+        BlockableAction::canShoot, BlockableAction::canThrow};
+
+    /**
+     * An operation and how many bytes it may allocate per call.
+     *
+     * @param name What's being measured.
+     * @param bytes Bytes allowed per call, on top of `baseline`'s.
+     * @param baseline An unavoidable part of `call` to measure on its own, or
+     *                 null.
+     * @param call The operation.
+     */
+    private record Budget(String name, long bytes, Supplier<Object> baseline,
+        Supplier<Object> call) {
+        private Budget(String name, long bytes, Supplier<Object> call) {
+            this(name, bytes, null, call);
+        }
+    }
+
+    private final ThreadMXBean threads =
+        (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    // Results are kept here so calls can't be optimised away
+    private Object sink;
+
+    public static void main(String[] args) {
+        MockServer server = new MockServer();
+        server.start();
+
+        boolean passed;
+        try {
+            passed = new AllocationBudgets().check(budgets(server));
+        } finally {
+            server.stop();
+        }
+
+        if (!passed)
+            System.exit(1);
+    }
+
+    /**
+     * The budgets to check.
+     *
+     * @param server The server to run against.
+     * @return Every budget.
+     */
+    private static List<Budget> budgets(MockServer server) {
+        ItemStack unsocketed = new ItemStack(Material.DIAMOND_SWORD);
+
+        ItemStack named = new ItemStack(Material.DIAMOND_SWORD);
+        named.editMeta(meta -> meta.customName(Component.text("Named")));
+
+        EnhancedItem lightItem = server.forge.create(
+            new ItemStack(Material.DIAMOND_SWORD));
+        lightItem.addSockets(2);
+        lightItem.checklessBind("lifesteal");
+        ItemStack light = lightItem.update();
+
+        EnhancementTableManager tables = new EnhancementTableManager(
+            server.plugin, server.manager, server.forge, server.auditLog,
+            new YamlConfiguration());
+        EnhancedItem tableItem = server.forge.create(
+            new ItemStack(Material.DIAMOND_SWORD));
+        tableItem.addSockets(1);
+
+        NamespacedKey socketsKey = new NamespacedKey(server.plugin, "sockets");
+
+        ArrayList<Budget> budgets = new ArrayList<>();
+        // Read-only socket checks
+        budgets.add(new Budget("forge.has (no item data)", 0,
+            () -> server.forge.has(unsocketed, "lifesteal")));
+        budgets.add(new Budget("forge.sockets (no item data)", 0,
+            () -> server.forge.sockets(unsocketed)));
+        budgets.add(new Budget("forge.stamp (no item data)", 0,
+            () -> server.forge.stamp(unsocketed)));
+        // Only the container read, which finds no list
+        budgets.add(new Budget("forge.has (no sockets)", 0,
+            () -> named.getPersistentDataContainer().get(socketsKey,
+                PersistentDataType.LIST.strings()),
+            () -> server.forge.has(named, "lifesteal")));
+        // Only the container read, which copies the list out
+        budgets.add(new Budget("forge.has (2 sockets)", 0,
+            () -> light.getPersistentDataContainer().get(socketsKey,
+                PersistentDataType.LIST.strings()),
+            () -> server.forge.has(light, "lifesteal")));
+
+        // Name lookups
+        budgets.add(new Budget("manager.get (normalised name)", 0,
+            () -> server.manager.get("lifesteal")));
+        budgets.add(new Budget("manager.get (unknown name)", 0,
+            () -> server.manager.get("not_an_enhancement")));
+        // toLowerCase() has to return a new string
+        budgets.add(new Budget("manager.get (mixed case name)", 128,
+            () -> server.manager.get("LifeSteal")));
+
+        // Blocker predicates
+        budgets.add(new Budget("BlockableAction predicates", 0, () -> {
+            int allowed = 0;
+            for (Material material : BLOCKER_MATERIALS) {
+                for (Predicate<Material> predicate : BLOCKER_PREDICATES) {
+                    if (predicate.test(material))
+                        allowed++;
+                }
+            }
+            return allowed;
+        }));
+
+        // Enhancement table rolls, which return a new list of candidates
+        budgets.add(new Budget("tables.candidates", 1024,
+            () -> tables.candidates(tableItem, 2)));
+
+        return budgets;
+    }
+
+    /**
+     * Check every budget in `budgets`, printing the results.
+     *
+     * @param budgets The budgets to check.
+     * @return Whether every budget was met.
+     */
+    private boolean check(List<Budget> budgets) {
+        boolean passed = true;
+
+        for (Budget budget : budgets) {
+            long baseline = budget.baseline() == null ? 0
+                : measure(budget.baseline());
+            long perCall = measure(budget.call());
+
+            boolean met = perCall <= baseline + budget.bytes();
+            passed &= met;
+            System.out.printf("%s %-32s %6d B/call (budget %d B + %d B "
+                + "baseline)%n", met ? "OK  " : "FAIL", budget.name(), perCall,
+                budget.bytes(), baseline);
+        }
+
+        return passed;
+    }
+
+    /**
+     * Warm `call` up, then measure how many bytes it allocates per call.
+     *
+     * @param call The operation.
+     * @return Bytes allocated per call.
+     */
+    private long measure(Supplier<Object> call) {
+        for (int i = 0; i < WARMUP_CALLS; i++)
+            sink = call.get();
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < CALLS; i++)
+            sink = call.get();
+        return (threads.getCurrentThreadAllocatedBytes() - before) / CALLS;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.wandermc.socketenhancements.enhancement.BlinkSearch;
+
+/**
+ * BlinkEnhancement's destination search at max distance in dense terrain.
+ *
+ * Terrain is generated from a fixed seed: rolling stone hills riddled with
+ * small caves and covered in tree-like pillars, which makes safe spots rare
+ * and forces the search through most of its range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlinkSearchBenchmark {
+    @Param({"64"})
+    public int maxDistance;
+
+    private DenseTerrain terrain;
+
+    // Player standing on the surface in the middle of the terrain, looking
+    // diagonally across it.
+    private int originX;
+    private int originZ;
+    private int targetX;
+    private int targetY;
+    private int targetZ;
+
+    @Setup
+    public void setup() {
+        terrain = new DenseTerrain(256, 0x5EA);
+
+        originX = 128;
+        originZ = 128;
+
+        int offset = (int) (maxDistance / Math.sqrt(2));
+        targetX = originX + offset;
+        targetZ = originZ + offset;
+        targetY = terrain.surface(targetX, targetZ) - 8;
+    }
+
+    /**
+     * Walk the chunk columns crossed by a max distance ray.
+     */
+    @Benchmark
+    public double loadedDistance() {
+        return BlinkSearch.loadedDistance(terrain, originX + 0.5,
+            originZ + 0.5, Math.sqrt(0.5), Math.sqrt(0.5), maxDistance);
+    }
+
+    /**
+     * Search for a safe spot around a target buried inside a hill.
+     */
+    @Benchmark
+    public BlinkSearch.Spot findBuried() {
+        return BlinkSearch.find(terrain, targetX, targetY, targetZ,
+            targetX - 1, targetZ, maxDistance / 2);
+    }
+
+    /**
+     * Search from the bottom of the world, where only the occasional cave
+     * pocket is safe and the search usually runs its full range.
+     */
+    @Benchmark
+    public BlinkSearch.Spot findDeep() {
+        return BlinkSearch.find(terrain, targetX, terrain.minY() + 1,
+            targetZ, targetX - 1, targetZ, maxDistance / 2);
+    }
+
+    /**
+     * A square of terrain, stored as a bit per block.
+     */
+    private static class DenseTerrain implements BlinkSearch.BlockView {
+        private static final int MIN_Y = -64;
+        private static final int MAX_Y = 320;
+
+        private final int size;
+        private final long[] solid;
+        private final int[] surface;
+
+        private DenseTerrain(int size, long seed) {
+            this.size = size;
+            this.solid = new long[(size * size * (MAX_Y - MIN_Y) + 63) / 64];
+            this.surface = new int[size * size];
+
+            Random random = new Random(seed);
+            for (int x = 0; x < size; x++) {
+                for (int z = 0; z < size; z++) {
+                    int height = 64 + (int) (12 * Math.sin(x / 9.0)
+                        + 12 * Math.cos(z / 7.0));
+                    surface[x * size + z] = height;
+
+                    for (int y = MIN_Y; y < height; y++) {
+                        // Roughly one block in six below ground is a cave.
+                        if (y == MIN_Y || random.nextInt(6) != 0)
+                            set(x, y, z);
+                    }
+
+                    // Leafy pillars over a fifth of the surface.
+                    if (random.nextInt(5) == 0) {
+                        for (int y = height; y < height + 6; y++)
+                            set(x, y, z);
+                    }
+                }
+            }
+        }
+
+        private int index(int x, int y, int z) {
+            return ((x * size) + z) * (MAX_Y - MIN_Y) + (y - MIN_Y);
+        }
+
+        private void set(int x, int y, int z) {
+            int i = index(x, y, z);
+            solid[i >>> 6] |= 1L << i;
+        }
+
+        private int surface(int x, int z) {
+            return surface[x * size + z];
+        }
+
+        public boolean isLoaded(int x, int z) {
+            return x >= 0 && z >= 0 && x < size && z < size;
+        }
+
+        public boolean isSolid(int x, int y, int z) {
+            int i = index(x, y, z);
+            return (solid[i >>> 6] & (1L << i)) != 0;
+        }
+
+        public int minY() {
+            return MIN_Y;
+        }
+
+        public int maxY() {
+            return MAX_Y;
+        }
+    }
+}
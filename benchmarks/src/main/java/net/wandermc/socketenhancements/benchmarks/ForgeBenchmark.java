@@ -0,0 +1,112 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.kyori.adventure.text.Component;
+
+import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+
+/**
+ * EnhancedItemForge's per-event paths: `has()` on items with no, few and many
+ * sockets, and a full `create()` + `update()` round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForgeBenchmark {
+    // Bound to heavily socketed items last, so `has()` sees every socket.
+    private static final String[] HEAVY_ENHANCEMENTS = {"protected",
+        "glowing", "lifesteal", "withering", "scorching", "directing",
+        "explosive", "harvesting", "capturing", "surpassing", "beheading"};
+
+    private ItemStack unsocketed;
+    private ItemStack named;
+    private ItemStack light;
+    private ItemStack heavy;
+
+    @Setup
+    public void setup(MockServer server) {
+        unsocketed = new ItemStack(Material.DIAMOND_SWORD);
+
+        // Has item data, but no sockets
+        named = new ItemStack(Material.DIAMOND_SWORD);
+        named.editMeta(meta -> meta.customName(Component.text("Named")));
+
+        EnhancedItem lightItem = server.forge.create(
+            new ItemStack(Material.DIAMOND_SWORD));
+        lightItem.addSockets(2);
+        lightItem.checklessBind("lifesteal");
+        light = lightItem.update();
+
+        EnhancedItem heavyItem = server.forge.create(
+            new ItemStack(Material.NETHERITE_SWORD));
+        heavyItem.addSockets(HEAVY_ENHANCEMENTS.length);
+        for (String name : HEAVY_ENHANCEMENTS)
+            heavyItem.checklessBind(name);
+        heavy = heavyItem.update();
+    }
+
+    @Benchmark
+    public boolean hasUnsocketed(MockServer server) {
+        return server.forge.has(unsocketed, "lifesteal");
+    }
+
+    @Benchmark
+    public boolean hasNamed(MockServer server) {
+        return server.forge.has(named, "lifesteal");
+    }
+
+    @Benchmark
+    public boolean hasLight(MockServer server) {
+        return server.forge.has(light, "lifesteal");
+    }
+
+    @Benchmark
+    public boolean hasHeavy(MockServer server) {
+        return server.forge.has(heavy, "beheading");
+    }
+
+    @Benchmark
+    public ItemStack createUpdateLight(MockServer server) {
+        return server.forge.create(light).update();
+    }
+
+    @Benchmark
+    public ItemStack createUpdateHeavy(MockServer server) {
+        return server.forge.create(heavy).update();
+    }
+}
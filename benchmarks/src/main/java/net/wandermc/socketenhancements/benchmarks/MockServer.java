@@ -0,0 +1,68 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.benchmarks;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.ServicesManager;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+
+import net.wandermc.socketenhancements.SocketEnhancements;
+import net.wandermc.socketenhancements.audit.AuditLog;
+import net.wandermc.socketenhancements.enhancement.EnhancementManager;
+import net.wandermc.socketenhancements.item.EnhancedItemForge;
+
+/**
+ * A MockBukkit server running SocketEnhancements with its default
+ * configuration, shared by all benchmarks in a trial.
+ */
+@State(Scope.Benchmark)
+public class MockServer {
+    public ServerMock server;
+    public SocketEnhancements plugin;
+    public EnhancementManager manager;
+    public EnhancedItemForge forge;
+    // Disabled, so benchmarks don't measure or fill the audit folder
+    public AuditLog auditLog;
+
+    @Setup(Level.Trial)
+    public void start() {
+        server = MockBukkit.mock();
+        plugin = MockBukkit.load(SocketEnhancements.class);
+
+        ServicesManager services = server.getServicesManager();
+        manager = services.load(EnhancementManager.class);
+        forge = services.load(EnhancedItemForge.class);
+
+        YamlConfiguration auditConfig = new YamlConfiguration();
+        auditConfig.set("enabled", false);
+        auditLog = new AuditLog(plugin, forge, auditConfig);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        MockBukkit.unmock();
+    }
+}
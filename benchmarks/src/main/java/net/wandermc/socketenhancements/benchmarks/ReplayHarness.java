@@ -0,0 +1,387 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.benchmarks;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.damage.DamageSource;
+import org.bukkit.damage.DamageType;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.EntityEquipment;
+import org.bukkit.inventory.EquipmentSlot;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.PluginManager;
+
+import com.sun.management.ThreadMXBean;
+
+import org.mockbukkit.mockbukkit.world.WorldMock;
+
+import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+import net.wandermc.socketenhancements.recording.RecordedEvent;
+import net.wandermc.socketenhancements.recording.RecordedEvent.Actor;
+import net.wandermc.socketenhancements.recording.RecordedEvent.Equipped;
+import net.wandermc.socketenhancements.recording.TraceReader;
+
+/**
+ * Replays a trace recorded with `/sea record` against a MockServer, as fast as
+ * possible, and reports throughput, allocation and latency.
+ *
+ * Usage:
+ * ReplayHarness <trace> [--players N] [--iterations N] [--warmup N]
+ *
+ * The trace is replayed as several copies, each with its own entities, so
+ * that `--players` synthetic players take part in total: a trace of 10
+ * players replayed with `--players 500` runs 50 copies, for capacity
+ * planning. Events whose player would go over the limit are left out of the
+ * last copy.
+ *
+ * Each event is rebuilt with its entities equipped as recorded, then fired
+ * through the server's PluginManager. Only firing is measured. The server's
+ * scheduler is advanced to follow the recorded timing, so per-tick state
+ * (debounces, cooldowns) behaves as it did live. Events of types the harness
+ * can't rebuild are skipped and listed in the report.
+ */
+public class ReplayHarness {
+    private static final long NANOS_PER_TICK = 50_000_000;
+    private static final EquipmentSlot[] SLOTS = EquipmentSlot.values();
+
+    private final MockServer server = new MockServer();
+    private final ThreadMXBean threads =
+        (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final List<RecordedEvent> trace;
+    private final int copies;
+    private final int players;
+
+    private WorldMock world;
+    // Entity per recorded entity id and copy
+    private final HashMap<Long, Entity> entities = new HashMap<>();
+    private int spawnedPlayers;
+    private final HashMap<Equipped, ItemStack> items = new HashMap<>();
+    private final TreeMap<String, Integer> skipped = new TreeMap<>();
+    private long tick;
+
+    private long[] latencies;
+    private int replayed;
+    private long allocated;
+
+    /**
+     * Create a ReplayHarness.
+     *
+     * @param trace The events to replay.
+     * @param players How many synthetic players to spread the trace across,
+     *                0 for as many as were recorded.
+     */
+    private ReplayHarness(List<RecordedEvent> trace, int players) {
+        this.trace = trace;
+
+        int recorded = (int) trace.stream()
+            .flatMap(event -> Stream.of(event.entity(), event.other()))
+            .filter(actor -> actor != null && actor.type().equals("PLAYER"))
+            .mapToInt(Actor::id).distinct().count();
+        recorded = Math.max(1, recorded);
+
+        this.players = players < 1 ? recorded : players;
+        this.copies = (this.players + recorded - 1) / recorded;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: ReplayHarness <trace> [--players N] " +
+                "[--iterations N] [--warmup N]");
+            System.exit(2);
+        }
+
+        int players = 0;
+        int iterations = 5;
+        int warmup = 3;
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            int value = Integer.parseInt(args[i + 1]);
+            switch (args[i]) {
+                case "--players" -> players = value;
+                case "--iterations" -> iterations = value;
+                case "--warmup" -> warmup = value;
+                default -> throw new IllegalArgumentException(
+                    "Unknown option " + args[i]);
+            }
+        }
+
+        List<RecordedEvent> trace;
+        try (TraceReader reader = new TraceReader(
+            new FileInputStream(args[0]))) {
+            trace = reader.readAll();
+        }
+        System.out.println("Read " + trace.size() + " events from " + args[0]);
+
+        ReplayHarness harness = new ReplayHarness(trace, players);
+        harness.server.start();
+        try {
+            harness.world = harness.server.server.addSimpleWorld("replay");
+            for (int i = 0; i < warmup; i++) {
+                harness.replay();
+                System.out.println("Warmup " + (i + 1) + ": "
+                    + harness.summary());
+            }
+            for (int i = 0; i < iterations; i++) {
+                harness.replay();
+                System.out.println("Iteration " + (i + 1) + ": "
+                    + harness.summary());
+            }
+            harness.skipped.forEach((name, count) -> System.out.println(
+                "Skipped " + count + " " + name));
+        } finally {
+            harness.server.stop();
+        }
+    }
+
+    /**
+     * Replay the whole trace once, scaled to the configured player count.
+     */
+    private void replay() {
+        PluginManager pluginManager = server.server.getPluginManager();
+        latencies = new long[trace.size() * copies];
+        replayed = 0;
+        allocated = 0;
+        skipped.clear();
+
+        long startTick = tick;
+        for (RecordedEvent recorded : trace) {
+            long target = startTick + recorded.time() / NANOS_PER_TICK;
+            if (target > tick) {
+                server.server.getScheduler().performTicks(target - tick);
+                tick = target;
+            }
+
+            for (int copy = 0; copy < copies; copy++) {
+                Event event = rebuild(recorded, copy);
+                if (event == null)
+                    continue;
+
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                pluginManager.callEvent(event);
+                latencies[replayed++] = System.nanoTime() - start;
+                allocated += threads.getCurrentThreadAllocatedBytes()
+                    - allocatedBefore;
+            }
+        }
+    }
+
+    /**
+     * Summarise the last replay.
+     *
+     * @return Events per second, allocation and latency percentiles.
+     */
+    private String summary() {
+        long[] sorted = Arrays.copyOf(latencies, replayed);
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long latency : sorted)
+            total += latency;
+        double seconds = Math.max(total, 1) / 1e9;
+
+        return String.format("%d events, %.0f events/s, %.1f MB/s allocated " +
+            "(%d B/event), p50 %s p90 %s p99 %s p99.9 %s max %s", replayed,
+            replayed / seconds, allocated / seconds / (1 << 20),
+            replayed == 0 ? 0 : allocated / replayed,
+            micros(percentile(sorted, 0.5)), micros(percentile(sorted, 0.9)),
+            micros(percentile(sorted, 0.99)), micros(percentile(sorted, 0.999)),
+            micros(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    private static long percentile(long[] sorted, double q) {
+        if (sorted.length == 0)
+            return 0;
+        return sorted[(int) Math.min(sorted.length - 1,
+            Math.ceil(q * sorted.length) - 1)];
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1fµs", nanos / 1000.0);
+    }
+
+    /**
+     * Rebuild `recorded` for copy `copy` of its entities.
+     *
+     * @param recorded The event to rebuild.
+     * @param copy Which copy of its entities to use.
+     * @return The event, or null if it can't be rebuilt or its player doesn't
+     *         exist at this scale.
+     */
+    private Event rebuild(RecordedEvent recorded, int copy) {
+        try {
+            Entity entity = entity(recorded.entity(), copy);
+            Entity other = entity(recorded.other(), copy);
+            if ((recorded.entity() != null && entity == null)
+                || (recorded.other() != null && other == null))
+                return null;
+
+            Event event = switch (recorded.event()) {
+                case "EntityDamageByEntityEvent" ->
+                    new EntityDamageByEntityEvent(other, entity,
+                        DamageCause.valueOf(recorded.detail()),
+                        DamageSource.builder(DamageType.GENERIC).build(),
+                        recorded.amount());
+                case "EntityDamageEvent" -> new EntityDamageEvent(entity,
+                    DamageCause.valueOf(recorded.detail()),
+                    DamageSource.builder(DamageType.GENERIC).build(),
+                    recorded.amount());
+                case "PlayerInteractEvent" -> interact((Player) entity,
+                    Action.valueOf(recorded.detail()));
+                case "BlockBreakEvent" -> blockBreak((Player) entity,
+                    Material.matchMaterial(recorded.detail()));
+                default -> null;
+            };
+
+            if (event == null)
+                skipped.merge(recorded.event(), 1, Integer::sum);
+            return event;
+        } catch (RuntimeException e) {
+            // Unsupported by MockBukkit, or a mismatched trace
+            skipped.merge(recorded.event() + " (" + e.getClass()
+                .getSimpleName() + ")", 1, Integer::sum);
+            return null;
+        }
+    }
+
+    private PlayerInteractEvent interact(Player player, Action action) {
+        Block block = null;
+        if (action != Action.LEFT_CLICK_AIR && action != Action.RIGHT_CLICK_AIR)
+            block = player.getLocation().getBlock().getRelative(BlockFace.DOWN);
+
+        return new PlayerInteractEvent(player, action,
+            player.getInventory().getItemInMainHand(), block, BlockFace.UP);
+    }
+
+    private BlockBreakEvent blockBreak(Player player, Material material) {
+        Block block = player.getLocation().getBlock()
+            .getRelative(BlockFace.NORTH);
+        block.setType(material == null ? Material.STONE : material);
+        return new BlockBreakEvent(block, player);
+    }
+
+    /**
+     * Get copy `copy` of `actor`, spawning it if needed, equipped as
+     * recorded.
+     *
+     * @param actor The recorded entity, may be null.
+     * @param copy Which copy.
+     * @return The entity, or null if `actor` is null or is a player beyond
+     *         the configured player count.
+     */
+    private Entity entity(Actor actor, int copy) {
+        if (actor == null)
+            return null;
+
+        long key = ((long) actor.id() << 32) | copy;
+        Entity entity = entities.get(key);
+        if (entity == null) {
+            if (actor.type().equals("PLAYER")) {
+                if (spawnedPlayers >= players)
+                    return null;
+                spawnedPlayers++;
+                entity = server.server.addPlayer();
+                entity.teleport(spawnPoint(key));
+            } else {
+                entity = world.spawnEntity(spawnPoint(key),
+                    EntityType.valueOf(actor.type()));
+            }
+            entities.put(key, entity);
+        }
+
+        if (entity instanceof LivingEntity living)
+            equip(living, actor.equipment());
+        return entity;
+    }
+
+    /**
+     * Spread entities out so block events don't interfere with each other.
+     */
+    private Location spawnPoint(long key) {
+        int index = entities.size();
+        return new Location(world, (index % 64) * 4, 64, (index / 64) * 4);
+    }
+
+    /**
+     * Equip `living` with `equipment`, clearing any other slots.
+     *
+     * @param living The entity to equip.
+     * @param equipment The recorded socketed equipment.
+     */
+    private void equip(LivingEntity living, List<Equipped> equipment) {
+        EntityEquipment entityEquipment = living.getEquipment();
+        if (entityEquipment == null)
+            return;
+
+        Map<String, Equipped> bySlot = new HashMap<>();
+        for (Equipped equipped : equipment)
+            bySlot.put(equipped.slot(), equipped);
+
+        for (EquipmentSlot slot : SLOTS) {
+            if (!living.canUseEquipmentSlot(slot))
+                continue;
+
+            Equipped equipped = bySlot.get(slot.name());
+            entityEquipment.setItem(slot, equipped == null ? null
+                : items.computeIfAbsent(equipped, this::forge).clone());
+        }
+    }
+
+    /**
+     * Forge an item with the sockets of `equipped`.
+     *
+     * @param equipped The recorded item.
+     * @return The item.
+     */
+    private ItemStack forge(Equipped equipped) {
+        Material material = Material.matchMaterial(equipped.material());
+        EnhancedItem item = server.forge.create(new ItemStack(
+            material == null ? Material.STICK : material));
+        item.addSockets(equipped.sockets().size());
+
+        String empty = server.manager.empty().name();
+        for (String socket : equipped.sockets()) {
+            if (!socket.equals(empty))
+                item.checklessBind(socket);
+        }
+        return item.update();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *    This file is part of SocketEnhancements: A gear enhancement plugin for
+ *    PaperMC servers.
+ *
+ *    This program is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    This program is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.wandermc.socketenhancements.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Material;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.inventory.ItemStack;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.wandermc.socketenhancements.enhancement.Enhancement;
+import net.wandermc.socketenhancements.enhancement.EnhancementTableManager;
+import net.wandermc.socketenhancements.item.EnhancedItemForge.EnhancedItem;
+
+/**
+ * Filtering an enhancement table pool down to the enhancements that can be
+ * bound to an item.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TablePoolBenchmark {
+    @Param({"0", "1", "2"})
+    public int button;
+
+    @Param({"DIAMOND_SWORD", "DIAMOND_BOOTS"})
+    public Material material;
+
+    private EnhancementTableManager tables;
+    private EnhancedItem item;
+
+    @Setup
+    public void setup(MockServer server) {
+        tables = new EnhancementTableManager(server.plugin, server.manager,
+            server.forge, server.auditLog, new YamlConfiguration());
+
+        item = server.forge.create(new ItemStack(material));
+        item.addSockets(1);
+    }
+
+    @Benchmark
+    public ArrayList<Enhancement> candidates() {
+        return tables.candidates(item, button);
+    }
+}